@@ -0,0 +1,34 @@
+package com.appricot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * ストリーミング（SSE）でマクロを生成する探索用の設定クラス
+ */
+@Configuration
+public class StreamingConfig {
+
+    /**
+     * ストリーミング探索を実行するスレッドプール
+     * 接続を保持したままの探索でサーブレットのスレッドを占有しないよう、専用の有限プールで実行する。
+     * キューが満杯の場合は TaskRejectedException で受け付けを拒否する。
+     * @param poolSize 同時に実行する探索数
+     * @param queueCapacity 実行待ちの探索数の上限
+     * @return スレッドプール
+     */
+    @Bean
+    public ThreadPoolTaskExecutor macroStreamExecutor(
+            @Value("${macro.stream.pool-size:4}") int poolSize,
+            @Value("${macro.stream.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("macro-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
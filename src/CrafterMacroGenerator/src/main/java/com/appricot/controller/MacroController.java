@@ -1,27 +1,53 @@
 package com.appricot.controller;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+
 import jakarta.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.appricot.exception.ApiError;
 import com.appricot.feature.crafterMacroGenerator.MacroGeneratorService;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.cache.MacroResultCache;
 import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
 import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroSimulationBatchRequest;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroSimulationBatchResponse;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RestController
 @RequestMapping("/macro")
-@RequiredArgsConstructor
 public class MacroController {
 
+    // SSE 接続のタイムアウトに探索の最大実行時間へ加える猶予（ミリ秒）
+    private static final long STREAM_TIMEOUT_MARGIN_MS = 5000;
+
     private final MacroGeneratorService macroGeneratorService;
+    private final ThreadPoolTaskExecutor macroStreamExecutor;
+
+    public MacroController(
+            MacroGeneratorService macroGeneratorService,
+            @Qualifier("macroStreamExecutor") ThreadPoolTaskExecutor macroStreamExecutor) {
+        this.macroGeneratorService = macroGeneratorService;
+        this.macroStreamExecutor = macroStreamExecutor;
+    }
 
     @PostMapping("/generate")
     public ResponseEntity<MacroGenerationResponse> generateMacro(
@@ -31,9 +57,106 @@ public class MacroController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * マクロ生成の途中経過をSSEで配信する
+     * より良いマクロが見つかるたびに "improvement" イベントを、探索終了時に "result" イベントを送信する。
+     * 失敗時は "error" イベントを送信する。クライアントが切断した場合は探索を中断する。
+     */
+    @PostMapping(path = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateMacroStream(
+            @Valid @RequestBody MacroGenerationRequest request) {
+        return startStream(request);
+    }
+    
+    /**
+     * マクロ生成の途中経過をSSEで配信する（ブラウザの EventSource 用）
+     * EventSource は GET しか送信できないため、リクエストをクエリパラメータで受け取る。
+     * 例: ?playerStatus.craftsmanship=4000&amp;playerStatus.control=3800&amp;playerStatus.cp=600
+     *     &amp;recipe.requiredProgress=6600&amp;recipe.maxQuality=12000&amp;recipe.baseDurability=70
+     *     &amp;availableSkills=作業&amp;availableSkills=加工&amp;qualityFocus=true
+     * イベントは POST と同じ。
+     */
+    @GetMapping(path = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateMacroStreamFromQuery(
+            @Valid @ModelAttribute MacroGenerationRequest request) {
+        return startStream(request);
+    }
+    
+    /**
+     * 探索をストリーミング用のスレッドで開始し、途中経過を送信するSSE接続を返す
+     */
+    private SseEmitter startStream(MacroGenerationRequest request) {
+        SearchContext context = macroGeneratorService.createSearchContext();
+        long maxExecutionTimeMs = macroGeneratorService.getMaxExecutionTimeMs();
+        SseEmitter emitter = new SseEmitter(maxExecutionTimeMs > 0 ? maxExecutionTimeMs + STREAM_TIMEOUT_MARGIN_MS : 0L);
+        
+        // 切断・タイムアウト時は探索を中断
+        emitter.onCompletion(context::cancel);
+        emitter.onTimeout(context::cancel);
+        emitter.onError(e -> context.cancel());
+        
+        try {
+            macroStreamExecutor.execute(() -> {
+                try {
+                    MacroGenerationResponse response = macroGeneratorService.generateOptimalMacro(
+                            request, context, improvement -> send(emitter, context, "improvement", improvement));
+                    send(emitter, context, "result", response);
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    log.error("マクロのストリーミング生成に失敗しました", e);
+                    send(emitter, context, "error", createError(HttpStatus.INTERNAL_SERVER_ERROR, "予期せぬエラーが発生しました"));
+                    emitter.complete();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // 同時実行数の上限を超えた場合
+            send(emitter, context, "error", createError(HttpStatus.SERVICE_UNAVAILABLE, "混雑しているため、しばらくしてから再度お試しください"));
+            emitter.complete();
+        }
+        
+        return emitter;
+    }
+    
+    @PostMapping("/simulate-batch")
+    public ResponseEntity<MacroSimulationBatchResponse> simulateBatch(
+            @Valid @RequestBody MacroSimulationBatchRequest request) {
+        
+        MacroSimulationBatchResponse response = macroGeneratorService.simulateBatch(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * マクロ生成結果のキャッシュの統計（ヒット数・ミス数・保持数など）
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<MacroResultCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(macroGeneratorService.getCacheStats());
+    }
+    
     @GetMapping("/available-skills")
     public ResponseEntity<?> getAvailableSkills(
             @RequestParam(required = false, defaultValue = "0") int level) {
         return ResponseEntity.ok(macroGeneratorService.getAvailableSkills(level));
     }
+    
+    /**
+     * イベントを送信する（送信できない場合はクライアントが切断したとみなして探索を中断）
+     */
+    private void send(SseEmitter emitter, SearchContext context, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            context.cancel();
+        }
+    }
+    
+    private ApiError createError(HttpStatus status, String message) {
+        return ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path("/macro/generate/stream")
+                .build();
+    }
 }
@@ -4,16 +4,40 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
+import com.appricot.feature.crafterMacroGenerator.algorithm.ActionTableCompiler;
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
 import com.appricot.feature.crafterMacroGenerator.algorithm.MacroOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook.Opening;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SimulatorService;
+import com.appricot.feature.crafterMacroGenerator.cache.BackgroundRefiner;
+import com.appricot.feature.crafterMacroGenerator.cache.MacroResultCache;
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.cache.SearchCoalescer;
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
 import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
 import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroSimulationBatchRequest;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroSimulationBatchResponse;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
 import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.entity.ResultSource;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationStatus;
+import com.appricot.feature.crafterMacroGenerator.store.PrecomputedSolutions;
+import com.appricot.feature.crafterMacroGenerator.store.SolutionStore;
+import com.appricot.feature.crafterMacroGenerator.store.StoredSolution;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,9 +47,44 @@ public class MacroGeneratorService {
 
     private final MacroOptimizer macroOptimizer;
     private final SkillService skillService;
+    private final ActionTableCompiler actionTableCompiler;
+    private final SimulatorService simulatorService;
+    private final AlgorithmSettings algorithmSettings;
+    private final OpeningBook openingBook;
+    private final MacroResultCache resultCache;
+    private final BackgroundRefiner backgroundRefiner;
+    private final SolutionStore solutionStore;
+    private final PrecomputedSolutions precomputedSolutions;
+    private final SearchCoalescer searchCoalescer;
 
     public MacroGenerationResponse generateOptimalMacro(MacroGenerationRequest request) {
+        return generateOptimalMacro(request, createSearchContext(), null);
+    }
+    
+    /**
+     * 最大実行時間を締め切りとする探索の実行予算を作成
+     */
+    public SearchContext createSearchContext() {
+        return SearchContext.withTimeout(algorithmSettings.getMaxExecutionTimeMs());
+    }
+    
+    public long getMaxExecutionTimeMs() {
+        return algorithmSettings.getMaxExecutionTimeMs();
+    }
+    
+    /**
+     * 最適なマクロを生成する（探索中により良いマクロが見つかるたびに通知）
+     * @param request マクロ生成リクエスト
+     * @param context 探索の実行予算（呼び出し元から中断可能）
+     * @param onImprovement 途中経過の通知先、不要な場合は null
+     * @return 最終的なマクロ
+     */
+    public MacroGenerationResponse generateOptimalMacro(
+            MacroGenerationRequest request, 
+            SearchContext context, 
+            Consumer<MacroGenerationResponse> onImprovement) {
         long startTimeMs = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         // 初期状態を設定
         CraftingState initialState = createInitialState(request);
@@ -33,20 +92,328 @@ public class MacroGeneratorService {
         // 利用可能なアクションのリストを取得
         List<CraftingAction> availableActions = getAvailableActions(request);
         
-        // 最適化実行
-        OptimizationResult result = macroOptimizer.findOptimalMacroPath(
-                initialState, 
-                availableActions, 
-                request.getRecipe(),
-                request.isQualityFocus(),
-                request.isDurabilityConstraint()
-        );
+        // 同じ条件のリクエストの結果がある場合はそれを返す（計算時間は元の探索のもの）
+        RequestFingerprint fingerprint = RequestFingerprint.of(
+                request, availableActions, skillService.getCatalogueVersion());
+        MacroGenerationResponse cached = resultCache.get(fingerprint);
+        if (cached != null) {
+            return cached.toBuilder()
+                    .resultSource(ResultSource.CACHE)
+                    .responseTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos))
+                    .build();
+        }
+        
+        // ステータス・レシピ・アクションから遷移テーブルを作成（同一入力ではキャッシュを再利用）
+        CompiledActionTable actionTable = actionTableCompiler.compile(
+                request.getPlayerStatus(), 
+                request.getRecipe(), 
+                availableActions);
+        
+        // 事前に探索した結果の表・以前のプロセスで探索した結果の保存先にある場合はそれを返す
+        StoredSolution precomputed = precomputedSolutions.find(fingerprint);
+        MacroGenerationResponse restored = precomputed != null
+                ? verifyStored(request, initialState, actionTable, precomputed, ResultSource.PRECOMPUTED, startNanos)
+                : null;
+        if (restored == null) {
+            StoredSolution stored = solutionStore.find(fingerprint);
+            restored = stored != null
+                    ? verifyStored(request, initialState, actionTable, stored, ResultSource.STORE, startNanos)
+                    : null;
+        }
+        if (restored != null) {
+            if (isProven(restored)) {
+                resultCache.put(fingerprint, restored);
+            }
+            return restored;
+        }
+        
+        // 近いステータスで求めたマクロが、このステータスでも同じ品質以上で完成できる場合はそれを返す
+        MacroGenerationResponse neighbor = resultCache.findNeighbor(fingerprint, candidate -> verifyNeighbor(
+                request, initialState, actionTable, candidate, startTimeMs, startNanos));
+        if (neighbor != null) {
+            // 近いステータスのマクロはこのステータスでの最良とは限らないため、この識別子ではキャッシュしない
+            // （このステータスでの最良のマクロはバックグラウンドで探索し、キャッシュに登録して次のリクエストから使用する）
+            backgroundRefiner.submit(fingerprint, () -> search(
+                    request, fingerprint, initialState, actionTable, createSearchContext(), null, 
+                    System.currentTimeMillis()));
+            return neighbor;
+        }
+        
+        // 同じ条件のリクエストの探索が実行中の場合は、新たに探索せずにその結果を共有する
+        return searchCoalescer.run(fingerprint, context, onImprovement, 
+                (sharedContext, publish) -> search(
+                        request, fingerprint, initialState, actionTable, sharedContext, publish, startTimeMs), 
+                () -> createResponse(request, initialState, actionTable, 
+                        OptimizationResult.builder().actionPath(List.of()).budgetLimited(true).build(), 
+                        System.currentTimeMillis() - startTimeMs));
+    }
+    
+    /**
+     * キャッシュ・保存先を使用せずに最適なマクロを探索する（事前に探索した結果の表の作成に使用）
+     * @param request マクロ生成リクエスト
+     * @param context 探索の実行予算
+     * @return リクエストの識別子と探索した結果、作業進捗を達成できない場合・締め切りで打ち切った場合は null
+     */
+    public PrecomputedSolutions.Solved precompute(MacroGenerationRequest request, SearchContext context) {
+        long startTimeMs = System.currentTimeMillis();
+        CraftingState initialState = createInitialState(request);
+        List<CraftingAction> availableActions = getAvailableActions(request);
+        CompiledActionTable actionTable = actionTableCompiler.compile(
+                request.getPlayerStatus(), 
+                request.getRecipe(), 
+                availableActions);
+        
+        MacroGenerationResponse response = solve(request, initialState, actionTable, context, null, startTimeMs);
+        if (!isProven(response)) {
+            return null;
+        }
+        return new PrecomputedSolutions.Solved(
+                RequestFingerprint.of(request, availableActions, skillService.getCatalogueVersion()),
+                StoredSolution.of(response));
+    }
+    
+    /**
+     * 最適なマクロを探索し、結果をキャッシュ・保存先に登録する
+     */
+    private MacroGenerationResponse search(
+            MacroGenerationRequest request, 
+            RequestFingerprint fingerprint, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            SearchContext context, 
+            Consumer<MacroGenerationResponse> onImprovement, 
+            long startTimeMs) {
+        MacroGenerationResponse response = solve(
+                request, initialState, actionTable, context, onImprovement, startTimeMs);
+        
+        // 呼び出し元が中断した探索の結果は、時間内の最良とは限らないためキャッシュ・保存しない
+        if (!context.isCancelled()) {
+            // 締め切りで打ち切った結果・作業進捗を達成していない結果は、次のリクエストで探索し直す
+            if (isProven(response)) {
+                resultCache.put(fingerprint, response);
+                solutionStore.save(fingerprint, StoredSolution.of(response));
+            }
+        }
+        return response;
+    }
+    
+    /**
+     * 探索を最後まで行い作業進捗を達成した結果か（キャッシュに登録できる結果）
+     */
+    private static boolean isProven(MacroGenerationResponse response) {
+        return !response.isBudgetLimited() && response.isProgressComplete();
+    }
+    
+    /**
+     * 最適なマクロを探索する
+     */
+    private MacroGenerationResponse solve(
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            SearchContext context, 
+            Consumer<MacroGenerationResponse> onImprovement, 
+            long startTimeMs) {
+        // 定跡がある場合は序盤を定跡の手順で進め、残りの手順のみを探索する
+        OptimizationResult result = null;
+        Opening opening = openingBook.find(OpeningBook.keyOf(
+                actionTable, initialState, request.isQualityFocus(), request.isDurabilityConstraint()));
+        PackedState openingState = opening != null
+                ? OpeningBook.replay(opening, actionTable, initialState, request.isDurabilityConstraint())
+                : null;
+        if (openingState != null) {
+            List<CraftingAction> openingActions = OpeningBook.actionsOf(opening, actionTable);
+            int openingCP = initialState.getCurrentCP() - openingState.getCP();
+            setListener(context, request, initialState, actionTable, openingActions, openingCP, onImprovement, startTimeMs);
+            result = withOpening(openingActions, openingCP, macroOptimizer.findOptimalMacroPath(
+                    openingState.toCraftingState(),
+                    actionTable,
+                    request.isQualityFocus(),
+                    request.isDurabilityConstraint(),
+                    context));
+            
+            // 定跡からでは作業進捗を達成できない場合は、初期状態から探索し直す
+            if (result.getFinalProgress() < request.getRecipe().getRequiredProgress() && !context.isExpired()) {
+                result = null;
+            }
+        }
+        
+        // 最適化実行（最大実行時間を過ぎた場合はそれまでの最良のマクロを返す）
+        if (result == null) {
+            setListener(context, request, initialState, actionTable, List.of(), 0, onImprovement, startTimeMs);
+            result = macroOptimizer.findOptimalMacroPath(
+                    initialState, 
+                    actionTable,
+                    request.isQualityFocus(),
+                    request.isDurabilityConstraint(),
+                    context
+            );
+        }
         
         // 実行時間計算
         long calculationTimeMs = System.currentTimeMillis() - startTimeMs;
         
+        return createResponse(request, initialState, actionTable, result, calculationTimeMs);
+    }
+    
+    /**
+     * 近いステータスで求めたマクロを、リクエストのステータスで検証する
+     * 元のステータスでの品質（最大品質まで）以上で完成できる場合に使用できる。
+     * @param candidate 近いステータスで求めたマクロ
+     * @return リクエストへの結果、使用できない場合は null
+     */
+    private MacroGenerationResponse verifyNeighbor(
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            MacroGenerationResponse candidate, 
+            long startTimeMs, 
+            long startNanos) {
+        OptimizationResult result = replay(request, initialState, actionTable, candidate.getActionSequence(), 
+                Math.min(candidate.getFinalQuality(), request.getRecipe().getMaxQuality()));
+        if (result == null) {
+            return null;
+        }
+        // このステータスでは探索していないため、最良であることは保証されない
+        result.setBudgetLimited(true);
+        return createResponse(request, initialState, actionTable, result, System.currentTimeMillis() - startTimeMs)
+                .toBuilder()
+                .resultSource(ResultSource.NEIGHBOR)
+                .responseTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos))
+                .build();
+    }
+    
+    /**
+     * 事前に探索した結果・保存先の結果を、現在のスキルの効果で実行し直して検証する
+     * @param stored 事前に探索した結果・保存先の結果
+     * @param source 結果の取得元
+     * @return リクエストへの結果（計算時間は元の探索のもの）、使用できない場合・締め切りで打ち切った結果の場合は null
+     */
+    private MacroGenerationResponse verifyStored(
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            StoredSolution stored, 
+            ResultSource source, 
+            long startNanos) {
+        // 締め切りで打ち切った結果（保存しないが、以前に保存したものが残っている場合がある）は探索し直す
+        if (stored.budgetLimited()) {
+            return null;
+        }
+        OptimizationResult result = replay(
+                request, initialState, actionTable, stored.actionNames(), stored.finalQuality());
+        if (result == null) {
+            return null;
+        }
+        result.setExploredStates(stored.exploredStates());
+        result.setBudgetLimited(stored.budgetLimited());
+        return createResponse(request, initialState, actionTable, result, stored.calculationTimeMs())
+                .toBuilder()
+                .resultSource(source)
+                .responseTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos))
+                .build();
+    }
+    
+    /**
+     * 探索以外で得たマクロ（スキル名の列）を初期状態から実行する
+     * 途中で実行できなくならずに作業進捗を達成し、品質優先の場合は指定した品質以上になる場合に使用できる。
+     * 最後のアクションより前に作業進捗を達成する場合は、達成したアクションまでを使用する。
+     * @param skillNames マクロ
+     * @param minQuality 品質優先の場合に必要な品質
+     * @return 実行した結果、使用できない場合は null
+     */
+    private OptimizationResult replay(
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            List<String> skillNames, 
+            int minQuality) {
+        SimulationResult simulation = simulatorService.simulate(
+                PackedState.of(initialState), actionTable, skillNames, false);
+        if (simulation.getStatus() != SimulationStatus.COMPLETED 
+                || (request.isDurabilityConstraint() && simulation.getDurabilityRemaining() <= 0)) {
+            return null;
+        }
+        if (request.isQualityFocus() && simulation.getFinalQuality() < minQuality) {
+            return null;
+        }
+        
+        List<CraftingAction> actionPath = skillNames.subList(0, simulation.getExecutedActions()).stream()
+                .map(name -> actionTable.getAction(actionTable.indexOf(name)))
+                .toList();
+        return OptimizationResult.builder()
+                .actionPath(actionPath)
+                .finalQuality(simulation.getFinalQuality())
+                .finalProgress(simulation.getFinalProgress())
+                .usedCP(simulation.getTotalCPUsed())
+                .totalActions(actionPath.size())
+                .build();
+    }
+    
+    /**
+     * マクロ生成結果のキャッシュの統計
+     */
+    public MacroResultCache.Stats getCacheStats() {
+        return resultCache.getStats();
+    }
+    
+    /**
+     * 途中経過の通知先を設定（定跡の手順を探索結果の前に付けて通知する）
+     */
+    private void setListener(
+            SearchContext context, 
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            List<CraftingAction> openingActions, 
+            int openingCP, 
+            Consumer<MacroGenerationResponse> onImprovement, 
+            long startTimeMs) {
+        if (onImprovement == null) {
+            return;
+        }
+        context.setListener(incumbent -> onImprovement.accept(createResponse(
+                request, initialState, actionTable, withOpening(openingActions, openingCP, incumbent), 
+                System.currentTimeMillis() - startTimeMs)));
+    }
+    
+    /**
+     * 定跡の手順の後から探索した結果に、定跡の手順を前に付けた結果
+     * 定跡の手順は初期状態からの探索で最適と確かめていないため、探索を完了しても打ち切りとして扱う
+     * （キャッシュ・解の保存の対象にしない）。
+     * @param openingActions 定跡の手順
+     * @param openingCP 定跡の手順で消費したCP
+     * @param result 定跡の手順を適用した状態から探索した結果
+     */
+    private static OptimizationResult withOpening(
+            List<CraftingAction> openingActions, int openingCP, OptimizationResult result) {
+        if (openingActions.isEmpty()) {
+            return result;
+        }
+        List<CraftingAction> actionPath = new ArrayList<>(openingActions.size() + result.getActionPath().size());
+        actionPath.addAll(openingActions);
+        actionPath.addAll(result.getActionPath());
+        return OptimizationResult.builder()
+                .actionPath(actionPath)
+                .score(result.getScore())
+                .finalQuality(result.getFinalQuality())
+                .finalProgress(result.getFinalProgress())
+                .usedCP(result.getUsedCP() + openingCP)
+                .totalActions(actionPath.size())
+                .exploredStates(result.getExploredStates())
+                .budgetLimited(true)
+                .build();
+    }
+    
+    private MacroGenerationResponse createResponse(
+            MacroGenerationRequest request, 
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            OptimizationResult result, 
+            long calculationTimeMs) {
+        
         // 最終状態を取得
-        CraftingState finalState = applyActions(initialState, result.getActionPath());
+        CraftingState finalState = actionTable.simulate(initialState, result.getActionPath());
         
         // マクロテキスト生成
         List<String> macroText = generateMacroText(result.getActionPath());
@@ -71,16 +438,53 @@ public class MacroGeneratorService {
                 .qualityPercentage(qualityPercentage)
                 .progressComplete(finalState.getCurrentProgress() >= request.getRecipe().getRequiredProgress())
                 .calculationTimeMs(calculationTimeMs)
-                .exploredStates(macroOptimizer.getExploredStatesCount())
+                .responseTimeMicros(TimeUnit.MILLISECONDS.toMicros(calculationTimeMs))
+                .resultSource(ResultSource.SEARCH)
+                .exploredStates(result.getExploredStates())
+                .budgetLimited(result.isBudgetLimited())
+                .build();
+    }
+    
+    public MacroSimulationBatchResponse simulateBatch(MacroSimulationBatchRequest request) {
+        long startTimeMs = System.currentTimeMillis();
+        
+        // 初期状態を設定
+        CraftingState initialState = createInitialState(request.getPlayerStatus(), request.getRecipe());
+        
+        // すべてのスキルで遷移テーブルを作成（同一装備の再検証ではキャッシュを再利用）
+        CompiledActionTable actionTable = actionTableCompiler.compile(
+                request.getPlayerStatus(), 
+                request.getRecipe(), 
+                skillService.getAllSkills());
+        
+        // 全マクロを並列にシミュレート
+        List<SimulationResult> results = simulatorService.simulateBatch(
+                initialState, 
+                actionTable, 
+                request.getMacros(), 
+                request.isIncludeHistory());
+        
+        int completedCount = (int) results.stream()
+                .filter(result -> result.getStatus() == SimulationStatus.COMPLETED)
+                .count();
+        
+        return MacroSimulationBatchResponse.builder()
+                .results(results)
+                .completedCount(completedCount)
+                .calculationTimeMs(System.currentTimeMillis() - startTimeMs)
                 .build();
     }
     
     private CraftingState createInitialState(MacroGenerationRequest request) {
+        return createInitialState(request.getPlayerStatus(), request.getRecipe());
+    }
+    
+    private CraftingState createInitialState(PlayerStatus playerStatus, Recipe recipe) {
         return CraftingState.builder()
                 .currentProgress(0)
                 .currentQuality(0)
-                .remainingDurability(request.getRecipe().getBaseDurability())
-                .currentCP(request.getPlayerStatus().getCp())
+                .remainingDurability(recipe.getBaseDurability())
+                .currentCP(playerStatus.getCp())
                 .appliedBuffs(new ArrayList<>())
                 .usedActions(new ArrayList<>())
                 .build();
@@ -101,21 +505,6 @@ public class MacroGeneratorService {
         return availableActions;
     }
     
-    private CraftingState applyActions(CraftingState initialState, List<CraftingAction> actions) {
-        CraftingState currentState = initialState.clone();
-        
-        for (CraftingAction action : actions) {
-            if (action.canExecute(currentState)) {
-                currentState = action.apply(currentState);
-            } else {
-                // エラー処理（実行できないアクションがある場合）
-                throw new IllegalStateException("Cannot execute action: " + action.getName());
-            }
-        }
-        
-        return currentState;
-    }
-    
     private List<String> generateMacroText(List<CraftingAction> actions) {
     	List<String> macroText = new ArrayList<>();
 
@@ -1,9 +1,11 @@
 package com.appricot.feature.crafterMacroGenerator;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import jakarta.annotation.PostConstruct;
@@ -18,6 +20,8 @@ public class SkillService {
 
     private final Map<String, CraftingAction> allSkills = new HashMap<>();
     private final Map<String, Integer> skillLevelRequirements = new HashMap<>();
+    // スキル一覧のバージョン（登録内容から算出、変更のたびに更新）
+    private volatile long catalogueVersion;
 
     @PostConstruct
     public void initialize() {
@@ -64,6 +68,31 @@ public class SkillService {
     private void registerSkill(CraftingAction skill, int levelRequirement) {
         allSkills.put(skill.getName(), skill);
         skillLevelRequirements.put(skill.getName(), levelRequirement);
+        catalogueVersion = computeCatalogueVersion();
+    }
+
+    /**
+     * スキル名と習得レベルを名前順に並べたハッシュ（FNV-1a）
+     */
+    private long computeCatalogueVersion() {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(skillLevelRequirements).entrySet()) {
+            for (byte b : (entry.getKey() + ":" + entry.getValue()).getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            // スキルの区切り
+            hash = (hash ^ 0xff) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * スキル一覧のバージョン
+     * 登録されているスキル（名前・習得レベル）が変わると値が変わるため、
+     * スキル一覧から作成した結果のキャッシュが有効かの判定に使用する。
+     */
+    public long getCatalogueVersion() {
+        return catalogueVersion;
     }
 
     /**
@@ -0,0 +1,82 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+
+/**
+ * A*のヒューリスティック（目標までの残りコストの下限）
+ * 遷移テーブルから事前計算した上限・下限のみを使用し、次の性質を満たす。
+ * <ul>
+ * <li>許容的：実際の残りコストを上回らない（最初に見つかる目標達成ノードがコスト最小）</li>
+ * <li>無矛盾：1アクションでの減少量はそのアクションのコスト以下（同じ状態を再展開しない）</li>
+ * </ul>
+ * 残りの作業進捗に必要な作業系アクションの最少回数に、作業系アクションの最小コストを掛けて見積もる。
+ * 残りCP・耐久度では作業進捗の上限が目標に届かない状態は到達不能として正の無限大を返す。
+ */
+public final class AStarHeuristic {
+
+    private final CompiledActionTable actionTable;
+    private final int requiredProgress;
+    private final int maxProgressGain;
+    // 作業系アクションの最小コスト（作業系アクションがない場合は正の無限大）
+    private final double minProgressActionCost;
+
+    public AStarHeuristic(CompiledActionTable actionTable) {
+        this.actionTable = actionTable;
+        this.requiredProgress = actionTable.getRecipe().getRequiredProgress();
+        this.maxProgressGain = actionTable.getMaxProgressGain();
+
+        double minCost = Double.POSITIVE_INFINITY;
+        for (int a = 0; a < actionTable.size(); a++) {
+            if (actionTable.getAction(a).getProgressEfficiency() > 0) {
+                minCost = Math.min(minCost, actionCost(actionTable.getCpCost(a)));
+            }
+        }
+        this.minProgressActionCost = minCost;
+    }
+
+    /**
+     * アクションの実コスト（g値の増分）
+     * ヒューリスティックと同じコストモデルを使用するため、A*のg値はこの値で積算すること
+     * @param cpCost アクションの消費CP
+     */
+    public static double actionCost(int cpCost) {
+        // 基本コストはCP消費（CP消費がない場合は最小コスト1）
+        double cost = Math.max(cpCost, 1);
+
+        // 耐久度消費も考慮（耐久度は貴重なリソース）
+        cost += 2;  // 仮の耐久度コスト
+
+        return cost;
+    }
+
+    /**
+     * 残りコストの下限（到達不能な状態は正の無限大）
+     * @param resources 圧縮状態（リソース）
+     */
+    public double estimate(long resources) {
+        if (PackedState.progress(resources) >= requiredProgress) {
+            return 0;
+        }
+        if (actionTable.progressUpperBound(resources) < requiredProgress) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return lowerBound(resources);
+    }
+
+    /**
+     * 到達可能性を考慮しない残りコストの下限
+     * 初期状態から目標に届かない場合に、目標に最も近づくマクロを探すために使用する
+     * @param resources 圧縮状態（リソース）
+     */
+    public double lowerBound(long resources) {
+        int remaining = requiredProgress - PackedState.progress(resources);
+        if (remaining <= 0) {
+            return 0;
+        }
+        if (maxProgressGain == 0) {
+            return 0;
+        }
+        int steps = (remaining + maxProgressGain - 1) / maxProgressGain;
+        return steps * minProgressActionCost;
+    }
+}
@@ -2,16 +2,16 @@ package com.appricot.feature.crafterMacroGenerator.algorithm;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
 import java.util.PriorityQueue;
-import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.algorithm.TranspositionTable.ReplacementPolicy;
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
 import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
 import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
 
 import lombok.extern.slf4j.Slf4j;
@@ -20,237 +20,285 @@ import lombok.extern.slf4j.Slf4j;
  * A*アルゴリズムを使用したマクロ最適化の実装
  * A*は「実コスト(g)」と「推定残りコスト(h)」の合計で状態を評価し、
  * 最も有望な状態から優先的に探索を行うアルゴリズム
+ * h値は遷移テーブルから作成した許容的・無矛盾なヒューリスティック（{@link AStarHeuristic}）を使用する
+ * 実行順を入れ替えても同じ状態になるアクション列は、番号順の1つだけを展開する（{@link CompiledActionTable#commutingPredecessors}）
+ * 品質優先の場合、品質を上げる余地がなくなったノードは {@link FinisherTablebase} の仕上げで目標達成まで進める
  * TODO read code
  */
 @Slf4j
 @Component
 public class AStarOptimizer implements MacroOptimizer {
 
-    // 最大探索ノード数
+    // 最大探索ノード数のデフォルト値
     private static final int MAX_EXPLORED_NODES = 100000;
     
     // 最大アクション数
     private static final int MAX_ACTIONS = 90;
     
-    // 探索状態数カウンター
-    private int exploredStatesCount;
-    
-    // 目標達成した最良ノード
-    private AStarNode bestCompleteNode;
-    
-    // レシピ情報（ヒューリスティック計算用）
-    private Recipe recipe;
+    private final int maxExploredNodes;
+    private final int transpositionTableCapacity;
+    private final ReplacementPolicy replacementPolicy;
+    private final int dominanceCapacity;
     
-    // 品質優先フラグ
-    private boolean qualityFocus;
+    // 探索状態数カウンター（直近の探索）
+    private int exploredStatesCount;
+
+    public AStarOptimizer() {
+        this(AlgorithmSettings.builder()
+                .maxExploredNodes(MAX_EXPLORED_NODES)
+                .build());
+    }
+
+    @Autowired
+    public AStarOptimizer(AlgorithmSettings settings) {
+        this.maxExploredNodes = settings.getMaxExploredNodes();
+        this.transpositionTableCapacity = settings.getTranspositionTableCapacity();
+        this.replacementPolicy = settings.getReplacementPolicy();
+        this.dominanceCapacity = settings.getDominanceCapacity();
+    }
 
     @Override
     public OptimizationResult findOptimalMacroPath(
             CraftingState initialState, 
-            List<CraftingAction> availableActions, 
-            Recipe recipe, 
+            CompiledActionTable actionTable, 
             boolean qualityFocus, 
-            boolean durabilityConstraint) {
+            boolean durabilityConstraint,
+            SearchContext context) {
         
-        // フィールドの初期化
-        this.exploredStatesCount = 0;
-        this.bestCompleteNode = null;
-        this.recipe = recipe;
-        this.qualityFocus = qualityFocus;
+        // 探索の状態はすべてローカル変数で保持する（同時に複数のリクエストから呼び出されるため）
+        Recipe recipe = actionTable.getRecipe();
+        int explored = 0;
+        AStarNode bestCompleteNode = null;
+        AStarNode bestIncompleteNode = null;
+        
+        // 遷移テーブルから作成した許容的なヒューリスティック
+        AStarHeuristic heuristic = new AStarHeuristic(actionTable);
         
         // 優先度付きキュー（f値が小さい順）
         // A*アルゴリズムでは、f = g + h (g=実コスト、h=ヒューリスティック推定)
         PriorityQueue<AStarNode> openSet = new PriorityQueue<>(
                 Comparator.comparingDouble(AStarNode::getFValue));
         
-        // 探索済みの状態を記録するセット
-        Set<String> closedSet = new HashSet<>();
+        // 状態ごとの最良g値を記録するトランスポジションテーブル（クローズドセットを兼ねる）
+        TranspositionTable transpositionTable = new TranspositionTable(
+                transpositionTableCapacity, replacementPolicy);
+        
+        // 同じバフで資源がすべて同じか多く、g値が同じか低い状態に支配される状態は追加しない
+        DominanceIndex dominance = new DominanceIndex(dominanceCapacity);
+        
+        // 初期状態から目標に到達できる場合のみ、到達不能な状態を枝刈りする
+        // （到達できない場合は目標に最も近づくマクロを探す）
+        PackedState initialPacked = PackedState.of(initialState);
+        boolean pruneUnreachable = heuristic.estimate(initialPacked.getResources()) != Double.POSITIVE_INFINITY;
         
         // 開始ノードを作成して優先度キューに追加
         AStarNode startNode = new AStarNode(
-                initialState,
-                new ArrayList<>(),
+                initialPacked.getResources(),
+                initialPacked.getBuffs(),
+                PathNode.ROOT,
                 0.0,
-                calculateHeuristic(initialState));
+                heuristic.lowerBound(initialPacked.getResources()));
                 
         openSet.add(startNode);
+        transpositionTable.offer(startNode.getResources(), startNode.getBuffs(), startNode.getGCost());
+        dominance.insert(startNode.getResources(), startNode.getBuffs(), 0);
+        
+        // 子状態の生成に使い回すスクラッチバッファ
+        PackedState nextState = new PackedState();
+        
+        // 予算（探索ノード数・締め切り）切れで打ち切ったか
+        boolean budgetLimited = false;
         
         // A*の主ループ
-        while (!openSet.isEmpty() && exploredStatesCount < MAX_EXPLORED_NODES) {
-            // 最も有望なノードを取得
-            AStarNode currentNode = openSet.poll();
-            exploredStatesCount++;
+        while (!openSet.isEmpty()) {
+            // 予算切れの場合はそれまでの最良ノードで終了
+            if (explored >= maxExploredNodes || context.isExpired(explored)) {
+                budgetLimited = true;
+                break;
+            }
             
-            // 状態のハッシュを生成
-            String stateHash = getStateHash(currentNode.getState());
+            // 最も有望なノードを取得
+            AStarNode polledNode = openSet.poll();
+            explored++;
             
-            // 既に探索済みの状態はスキップ
-            if (closedSet.contains(stateHash)) {
+            // より低いg値で同じ状態に到達済みの場合はスキップ（キューに残った古いノード）
+            if (polledNode.getGCost() > transpositionTable.get(polledNode.getResources(), polledNode.getBuffs())) {
                 continue;
             }
             
-            // 探索済みとしてマーク
-            closedSet.add(stateHash);
+            // 品質を上げる余地がないノードは、終盤表の最小コストの仕上げで目標達成まで進める
+            AStarNode currentNode = qualityFocus
+                    ? finishQualityPhase(polledNode, actionTable, durabilityConstraint)
+                    : polledNode;
             
             // 目標達成チェック（作業進捗が目標以上）
-            if (currentNode.getState().getCurrentProgress() >= recipe.getRequiredProgress()) {
+            if (PackedState.progress(currentNode.getResources()) >= recipe.getRequiredProgress()) {
                 // 目標達成した場合、最良ノードを更新
                 if (bestCompleteNode == null || 
-                    evaluateCompletedState(currentNode.getState(), recipe) > 
-                    evaluateCompletedState(bestCompleteNode.getState(), recipe)) {
+                    evaluateCompletedState(currentNode.getResources(), recipe, qualityFocus) > 
+                    evaluateCompletedState(bestCompleteNode.getResources(), recipe, qualityFocus)) {
                     
                     bestCompleteNode = currentNode;
+                    int exploredSoFar = explored;
+                    context.publish(PackedState.quality(currentNode.getResources()), () -> createResult(
+                            currentNode, initialState, recipe, qualityFocus, exploredSoFar, false));
                     
                     // 品質優先の場合、より良い解が見つかるまで探索を続ける
                     if (!qualityFocus) {
-                        // 進捗優先の場合は最初に目標達成した解で終了
+                        // 進捗優先の場合は最初に目標達成した解で終了（ヒューリスティックが許容的なためコスト最小）
                         break;
                     }
                 }
+                // 作業進捗を達成した時点で製作は終了するため、目標達成したノードは展開しない
+                continue;
+            }
+            
+            // 仕上げたノードはこれ以上展開しない
+            if (currentNode != polledNode) {
+                continue;
+            }
+            
+            // キューに追加した後に暫定解が更新され、品質の上限が届かなくなったノードは展開しない
+            if (qualityFocus && actionTable.qualityUpperBound(
+                    currentNode.getResources(), currentNode.getBuffs()) < context.getIncumbentQuality()) {
+                continue;
+            }
+            
+            // 目標未達成の最良ノードを記録（目標に到達できない場合の結果）
+            if (bestCompleteNode == null && (bestIncompleteNode == null
+                    || evaluateIncompleteState(currentNode.getResources(), recipe)
+                            > evaluateIncompleteState(bestIncompleteNode.getResources(), recipe))) {
+                bestIncompleteNode = currentNode;
             }
             
             // アクション数の上限チェック
-            if (currentNode.getPath().size() >= MAX_ACTIONS) {
+            if (currentNode.getPath().length() >= MAX_ACTIONS) {
                 continue;
             }
             
-            // 各アクションを試す
-            for (CraftingAction action : availableActions) {
-                // アクションが実行可能かチェック
-                if (!action.canExecute(currentNode.getState())) {
+            // 各アクションを試す（この状態で生成した、実行可能で目標未達成の子のアクションを記録）
+            long openChildren = 0L;
+            for (int a = 0; a < actionTable.size(); a++) {
+                // 直前のアクションと入れ替えた順で展開済みのアクションはスキップ
+                if (a < Long.SIZE && (currentNode.getSuppressed() & 1L << a) != 0) {
                     continue;
                 }
                 
-                // 耐久度制約のチェック
-                if (durabilityConstraint) {
-                    CraftingState nextState = action.apply(currentNode.getState().clone());
-                    if (nextState.getRemainingDurability() <= 0) {
-                        continue;
-                    }
+                // 実行可否（耐久度制約を含む）の判定と適用を同時に行う
+                nextState.set(currentNode.getResources(), currentNode.getBuffs());
+                if (!actionTable.apply(a, nextState, durabilityConstraint)) {
+                    continue;
                 }
                 
-                // アクションを適用した次の状態を取得
-                CraftingState nextState = action.apply(currentNode.getState().clone());
+                // 子で展開しないアクション（この状態で先に実行した子から同じ状態に到達する）
+                long suppressed = actionTable.commutingPredecessors(a, currentNode.getBuffs()) & openChildren;
+                if (a < Long.SIZE && PackedState.progress(nextState.getResources()) < recipe.getRequiredProgress()
+                        && PackedState.durability(nextState.getResources()) > 0) {
+                    openChildren |= 1L << a;
+                }
                 
-                // 新しいパスを作成
-                List<CraftingAction> newPath = new ArrayList<>(currentNode.getPath());
-                newPath.add(action);
+                // 品質優先の場合、暫定解（他の探索のものを含む）の品質に届かない状態は追加しない（分枝限定法）
+                if (qualityFocus && actionTable.qualityUpperBound(nextState.getResources(), nextState.getBuffs())
+                        < context.getIncumbentQuality()) {
+                    continue;
+                }
                 
-                // 新しい実コスト（g値）を計算
-                // コストは「必要CP」と「アクション数」のバランスを考慮
-                double newGCost = currentNode.getGCost() + calculateActionCost(action, currentNode.getState());
+                // ヒューリスティック（h値）を計算し、目標に到達できない状態は追加しない
+                double heuristicCost = pruneUnreachable
+                        ? heuristic.estimate(nextState.getResources())
+                        : heuristic.lowerBound(nextState.getResources());
+                if (heuristicCost == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
                 
-                // ヒューリスティック（h値）を計算
-                double heuristic = calculateHeuristic(nextState);
+                // 新しい実コスト（g値）を計算（ヒューリスティックと同じコストモデル）
+                double newGCost = currentNode.getGCost() + AStarHeuristic.actionCost(actionTable.getCpCost(a));
                 
-                // 新しいノードを作成
-                AStarNode newNode = new AStarNode(nextState, newPath, newGCost, heuristic);
+                // 支配される状態（同じ状態に同じかより低いg値で到達済みの場合を含む）はキューに追加しない
+                if (!dominance.insert(nextState.getResources(), nextState.getBuffs(), (int) newGCost)) {
+                    continue;
+                }
+                if (!transpositionTable.offer(nextState.getResources(), nextState.getBuffs(), newGCost)) {
+                    continue;
+                }
+                
+                // 新しいノードを作成（親の経路を共有）
+                AStarNode newNode = new AStarNode(
+                        nextState.getResources(), nextState.getBuffs(),
+                        currentNode.getPath().append(actionTable.getAction(a)), newGCost, heuristicCost, suppressed);
                 
                 // 優先度キューに追加
                 openSet.add(newNode);
             }
         }
         
-        log.debug("A* 探索: 探索ノード数 = {}", exploredStatesCount);
+        exploredStatesCount = explored;
+        log.debug("A* 探索: 探索ノード数 = {}, 打ち切り = {}", explored, budgetLimited);
         
         // 目標達成したノードが見つからなかった場合
         if (bestCompleteNode == null) {
-            // 現在の最良ノードを探す
-            AStarNode bestIncompleteNode = findBestIncompleteNode(openSet, closedSet);
+            // 展開済みのノードと未展開のノードから最良ノードを探す
+            AStarNode bestOpenNode = findBestIncompleteNode(openSet, recipe);
+            if (bestOpenNode != null && (bestIncompleteNode == null
+                    || evaluateIncompleteState(bestOpenNode.getResources(), recipe)
+                            > evaluateIncompleteState(bestIncompleteNode.getResources(), recipe))) {
+                bestIncompleteNode = bestOpenNode;
+            }
             
             // 結果を構築して返す
-            return createResult(bestIncompleteNode, initialState);
+            return createResult(bestIncompleteNode, initialState, recipe, qualityFocus, explored, budgetLimited);
         }
         
         // 目標達成した最良ノードから結果を構築
-        return createResult(bestCompleteNode, initialState);
-    }
-    
-    /**
-     * 状態のハッシュ文字列を生成
-     * メモリ効率のため、主要な状態情報のみを含む
-     */
-    private String getStateHash(CraftingState state) {
-        return state.getCurrentProgress() + ":" + 
-               state.getCurrentQuality() + ":" + 
-               state.getRemainingDurability() + ":" + 
-               state.getCurrentCP() + ":" + 
-               state.getAppliedBuffs().toString();
-    }
-    
-    /**
-     * アクションの実コスト（g値の増分）を計算
-     */
-    private double calculateActionCost(CraftingAction action, CraftingState state) {
-        // 基本コストはCP消費
-        double cost = action.getCpCost();
-        
-        // CP消費がない場合（例: 作業）は最小コスト1を設定
-        if (cost == 0) {
-            cost = 1;
-        }
-        
-        // 耐久度消費も考慮（耐久度は貴重なリソース）
-        // 実際のコスト計算は使用するスキル実装に依存
-        cost += 2;  // 仮の耐久度コスト
-        
-        return cost;
+        return createResult(bestCompleteNode, initialState, recipe, qualityFocus, explored, budgetLimited);
     }
     
     /**
-     * ヒューリスティック関数（h値、目標までの推定コスト）
-     * TODO 調整 方針は未定
+     * 品質を上げる余地がなくなったノードに終盤表の仕上げを適用した目標達成ノード
+     * 仕上げがない場合（目標達成済み・上限内で仕上げられない）は元のノードを返す。
      */
-    private double calculateHeuristic(CraftingState state) {
-        // 作業進捗に関するヒューリスティック
-        double progressHeuristic = 0;
-        if (state.getCurrentProgress() < recipe.getRequiredProgress()) {
-            // 残りの作業進捗を達成するのに必要な「作業」の回数を推定
-            int progressRemaining = recipe.getRequiredProgress() - state.getCurrentProgress();
-            int basicSynthesisValue = 120; // TODO 作業の基本効率（実際は状態依存）
-            
-            progressHeuristic = (double) progressRemaining / basicSynthesisValue * 10;
+    private static AStarNode finishQualityPhase(
+            AStarNode node, CompiledActionTable actionTable, boolean durabilityConstraint) {
+        long resources = node.getResources();
+        long buffs = node.getBuffs();
+        if (PackedState.progress(resources) >= actionTable.getRecipe().getRequiredProgress()
+                || !actionTable.isQualityPhaseOver(resources, buffs)) {
+            return node;
         }
-        
-        // 品質に関するヒューリスティック（品質優先の場合）
-        double qualityHeuristic = 0;
-        if (qualityFocus && state.getCurrentProgress() >= recipe.getRequiredProgress()) {
-            // 最大品質からの距離に基づくヒューリスティック
-            qualityHeuristic = (1.0 - (double) state.getCurrentQuality() / recipe.getMaxQuality()) * 100;
+        int[] finish = actionTable.getFinisherTablebase().lookup(
+                resources, buffs, MAX_ACTIONS - node.getPath().length(), durabilityConstraint);
+        if (finish == null || finish.length == 0) {
+            return node;
         }
         
-        // 品質優先の場合、優先度を調整
-        if (qualityFocus) {
-            // 進捗未達成の場合は進捗を最優先
-            if (state.getCurrentProgress() < recipe.getRequiredProgress()) {
-                return progressHeuristic * 10;
-            } else {
-                // 進捗達成済みの場合は品質を優先
-                return qualityHeuristic;
-            }
-        } else {
-            // 進捗優先の場合
-            return progressHeuristic + qualityHeuristic * 0.1;
+        PackedState state = new PackedState(resources, buffs);
+        PathNode path = node.getPath();
+        double gCost = node.getGCost();
+        for (int a : finish) {
+            actionTable.apply(a, state, durabilityConstraint);
+            path = path.append(actionTable.getAction(a));
+            gCost += AStarHeuristic.actionCost(actionTable.getCpCost(a));
         }
+        return new AStarNode(state.getResources(), state.getBuffs(), path, gCost, 0.0);
     }
     
     /**
      * 目標達成状態の評価関数
      * TODO マクロ長の考慮
      */
-    private double evaluateCompletedState(CraftingState state, Recipe recipe) {
+    private static double evaluateCompletedState(long resources, Recipe recipe, boolean qualityFocus) {
         // 品質スコア（0～1.0）
-        double qualityScore = (double) state.getCurrentQuality() / recipe.getMaxQuality();
+        double qualityScore = (double) PackedState.quality(resources) / recipe.getMaxQuality();
         
         // CP効率スコア
-        double cpEfficiencyScore = (double) state.getCurrentCP() / 1000; // 仮の最大CP値
+        double cpEfficiencyScore = (double) PackedState.cp(resources) / 1000; // 仮の最大CP値
         
         // 耐久度効率スコア
-        double durabilityScore = (double) state.getRemainingDurability() / recipe.getBaseDurability(); // 仮の初期耐久度
+        double durabilityScore = (double) PackedState.durability(resources) / recipe.getBaseDurability(); // 仮の初期耐久度
         
         if (qualityFocus) {
-            // 品質優先の場合、品質を高く評価
-            return qualityScore * 10 + cpEfficiencyScore + durabilityScore;
+            // 品質優先の場合、品質が同じ間だけ残りCP・耐久度で比較する（品質の上限による枝刈りと一致させる）
+            return FinisherTablebase.completedScore(resources, recipe.getBaseDurability());
         } else {
             // 進捗優先の場合、CP効率と耐久度効率を高く評価
             return qualityScore * 2 + cpEfficiencyScore * 5 + durabilityScore * 3;
@@ -260,14 +308,14 @@ public class AStarOptimizer implements MacroOptimizer {
     /**
      * 目標未達成時の最良ノードを探す
      */
-    private AStarNode findBestIncompleteNode(PriorityQueue<AStarNode> openSet, Set<String> closedSet) {
+    private static AStarNode findBestIncompleteNode(PriorityQueue<AStarNode> openSet, Recipe recipe) {
         // 探索途中のノードから最良のものを選択
         AStarNode bestNode = null;
         double bestScore = Double.NEGATIVE_INFINITY;
         
         // 残りの開いているノードを評価
         for (AStarNode node : openSet) {
-            double score = evaluateIncompleteState(node.getState());
+            double score = evaluateIncompleteState(node.getResources(), recipe);
             if (bestNode == null || score > bestScore) {
                 bestNode = node;
                 bestScore = score;
@@ -281,12 +329,12 @@ public class AStarOptimizer implements MacroOptimizer {
      * 目標未達成状態の評価関数
      * TODO 階層的アプローチの実装　(品質 > 進捗 > 残CP,残耐久値)
      */
-    private double evaluateIncompleteState(CraftingState state) {
+    private static double evaluateIncompleteState(long resources, Recipe recipe) {
         // 進捗達成率
-        double progressScore = (double) state.getCurrentProgress() / recipe.getRequiredProgress();
+        double progressScore = (double) PackedState.progress(resources) / recipe.getRequiredProgress();
         
         // 品質スコア
-        double qualityScore = (double) state.getCurrentQuality() / recipe.getMaxQuality();
+        double qualityScore = (double) PackedState.quality(resources) / recipe.getMaxQuality();
         
         // 進捗が最優先
         return progressScore * 10 + qualityScore;
@@ -295,7 +343,13 @@ public class AStarOptimizer implements MacroOptimizer {
     /**
      * 最適化結果オブジェクトを作成
      */
-    private OptimizationResult createResult(AStarNode node, CraftingState initialState) {
+    private static OptimizationResult createResult(
+            AStarNode node, 
+            CraftingState initialState, 
+            Recipe recipe, 
+            boolean qualityFocus, 
+            int explored, 
+            boolean budgetLimited) {
         // ノードがnullの場合（まれなケース）は空の結果を返す
         if (node == null) {
             return OptimizationResult.builder()
@@ -305,16 +359,20 @@ public class AStarOptimizer implements MacroOptimizer {
                     .finalProgress(initialState.getCurrentProgress())
                     .usedCP(0)
                     .totalActions(0)
+                    .exploredStates(explored)
+                    .budgetLimited(budgetLimited)
                     .build();
         }
         
         return OptimizationResult.builder()
-                .actionPath(node.getPath())
-                .score(evaluateCompletedState(node.getState(), recipe))
-                .finalQuality(node.getState().getCurrentQuality())
-                .finalProgress(node.getState().getCurrentProgress())
-                .usedCP(initialState.getCurrentCP() - node.getState().getCurrentCP())
-                .totalActions(node.getPath().size())
+                .actionPath(node.getPath().toList())
+                .score(evaluateCompletedState(node.getResources(), recipe, qualityFocus))
+                .finalQuality(PackedState.quality(node.getResources()))
+                .finalProgress(PackedState.progress(node.getResources()))
+                .usedCP(initialState.getCurrentCP() - PackedState.cp(node.getResources()))
+                .totalActions(node.getPath().length())
+                .exploredStates(explored)
+                .budgetLimited(budgetLimited)
                 .build();
     }
 
@@ -325,25 +383,38 @@ public class AStarOptimizer implements MacroOptimizer {
     
     /**
      * A*アルゴリズムのノードクラス
+     * 状態は PackedState の圧縮値（long 2つ）で保持する
      */
     private static class AStarNode {
-        private final CraftingState state;
-        private final List<CraftingAction> path;
+        private final long resources; // 進捗・品質・耐久度・CP
+        private final long buffs;     // バフの残りターン数
+        private final PathNode path;
         private final double gCost; // 実コスト
         private final double hCost; // ヒューリスティック推定
+        private final long suppressed; // 展開しないアクション（直前のアクションと入れ替えた順で展開済み）
+        
+        public AStarNode(long resources, long buffs, PathNode path, double gCost, double hCost) {
+            this(resources, buffs, path, gCost, hCost, 0L);
+        }
         
-        public AStarNode(CraftingState state, List<CraftingAction> path, double gCost, double hCost) {
-            this.state = state;
+        public AStarNode(long resources, long buffs, PathNode path, double gCost, double hCost, long suppressed) {
+            this.resources = resources;
+            this.buffs = buffs;
             this.path = path;
             this.gCost = gCost;
             this.hCost = hCost;
+            this.suppressed = suppressed;
         }
         
-        public CraftingState getState() {
-            return state;
+        public long getResources() {
+            return resources;
         }
         
-        public List<CraftingAction> getPath() {
+        public long getBuffs() {
+            return buffs;
+        }
+        
+        public PathNode getPath() {
             return path;
         }
         
@@ -355,6 +426,10 @@ public class AStarOptimizer implements MacroOptimizer {
             return hCost;
         }
         
+        public long getSuppressed() {
+            return suppressed;
+        }
+        
         // f値 = g値 + h値（A*の評価値）
         public double getFValue() {
             return gCost + hCost;
@@ -0,0 +1,71 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.util.LruCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 遷移テーブルの作成とキャッシュを行うコンポーネント
+ * 同じ装備（ステータス）・レシピ・アクション構成のリクエストでは
+ * 作成済みのテーブルを再利用する
+ */
+@Slf4j
+@Component
+public class ActionTableCompiler {
+
+    private final LruCache<TableKey, CompiledActionTable> cache;
+
+    public ActionTableCompiler(@Value("${macro.action-table.cache-size:64}") int cacheSize) {
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * 遷移テーブルを取得（キャッシュにない場合は作成）
+     * @param playerStatus プレイヤーステータス
+     * @param recipe レシピ情報
+     * @param actions 利用可能なアクション
+     * @return 遷移テーブル
+     */
+    public CompiledActionTable compile(PlayerStatus playerStatus, Recipe recipe, List<CraftingAction> actions) {
+        TableKey key = new TableKey(
+                CompiledActionTable.baseProgressOf(playerStatus),
+                CompiledActionTable.baseQualityOf(playerStatus),
+                recipe.getRequiredProgress(),
+                recipe.getMaxQuality(),
+                recipe.getBaseDurability(),
+                actions.stream().map(CraftingAction::getName).toList());
+
+        return cache.computeIfAbsent(key, k -> {
+            log.debug("遷移テーブルを作成: {}", k);
+            return CompiledActionTable.compile(playerStatus, recipe, actions);
+        });
+    }
+
+    /**
+     * キャッシュ済みのテーブル数
+     */
+    public int getCachedTableCount() {
+        return cache.size();
+    }
+
+    /**
+     * テーブルのキャッシュキー
+     * テーブルの内容はステータスから算出した基本値・レシピの数値・アクションの並びで決まる
+     */
+    private record TableKey(
+            int baseProgress,
+            int baseQuality,
+            int requiredProgress,
+            int maxQuality,
+            int baseDurability,
+            List<String> actionNames) {
+    }
+}
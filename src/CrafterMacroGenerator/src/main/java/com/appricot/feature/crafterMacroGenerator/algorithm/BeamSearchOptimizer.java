@@ -1,144 +1,549 @@
 package com.appricot.feature.crafterMacroGenerator.algorithm;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
 import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
 import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.util.PerformanceUtils;
+import com.appricot.util.PerformanceUtils.ParallelSearchTask;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * ビームサーチを使用したマクロ最適化アルゴリズムの実装
+ * ビームと子状態の候補はプリミティブ配列（圧縮状態・スコア・親の位置）で保持し、
+ * 次のビームは全件ソートせずクイックセレクトで上位K件を O(n) で選択する。
+ * 作業用の配列はスレッドごとに確保し、深さ間・リクエスト間で使い回す。
+ *
+ * 並列化が有効な場合、各深さのビームをチャンクに分割して ForkJoinPool で展開し、
+ * チャンクごとの上位K件を結合してから次のビームを選択する（ロックなし）。
+ * 候補の順位は「スコア → 親の位置とアクション番号から決まるキー」で決まるため、
+ * チャンクの分割数やスレッドのスケジューリングによらず同じ入力では同じ結果になる。
+ * 同じバフで資源がすべて同じか多い状態に支配される候補は、深さをまたいで {@link DominanceIndex} で取り除く。
+ * 実行順を入れ替えても同じ状態になるアクション列は、番号順の1つだけを展開する（{@link CompiledActionTable#commutingPredecessors}）。
+ *
+ * 目標時間を設定した場合、ビーム幅は {@link BeamWidthController} で深さごとの展開コストから
+ * 目標時間（締め切りの方が早い場合は締め切り）に終わるよう調整する（この場合、結果は実行速度に依存する）。
+ * 反復を有効にした場合は、幅を広げながら探索を繰り返し、最良の結果を使用する。
  */
 @Slf4j
 @Component
 public class BeamSearchOptimizer implements MacroOptimizer {
 
-    // ビーム幅（探索する状態数の上限）
+    // ビーム幅（探索する状態数の上限）のデフォルト値
     private static final int BEAM_WIDTH = 1000;
-    
-    // 最大探索深度（最大アクション数）
+
+    // 反復で探索するごとにビーム幅を広げる倍率
+    private static final int ITERATIVE_WIDTH_FACTOR = 4;
+
+    // 最大探索深度（最大アクション数）のデフォルト値
     private static final int MAX_DEPTH = 90;
-    
-    // 探索状態数カウンター
-    private int exploredStatesCount;
+
+    // 並列展開を行うビームの最小サイズ（小さいビームは分割のオーバーヘッドの方が大きい）
+    private static final int MIN_PARALLEL_BEAM_SIZE = 64;
+
+    // 1チャンクあたりの最小ビームノード数
+    private static final int MIN_CHUNK_NODES = 16;
+
+    // スレッドごとの作業領域（リクエスト間で再利用）
+    private static final ThreadLocal<BeamWorkspace> WORKSPACE = ThreadLocal.withInitial(BeamWorkspace::new);
+
+    private final int beamWidth;
+    private final int minBeamWidth;
+    private final int maxBeamWidth;
+    private final long targetLatencyMs;
+    private final boolean iterative;
+    private final int maxDepth;
+    private final boolean useParallelization;
+    private final int dominanceCapacity;
+
+    // 最後に終了した探索の状態数（診断用、結果には呼び出しごとに数えた値を使用する）
+    private volatile int exploredStatesCount;
+
+    public BeamSearchOptimizer() {
+        this(AlgorithmSettings.builder()
+                .beamWidth(BEAM_WIDTH)
+                .maxRecursionDepth(MAX_DEPTH)
+                .build());
+    }
+
+    @Autowired
+    public BeamSearchOptimizer(AlgorithmSettings settings) {
+        this.beamWidth = settings.getBeamWidth();
+        this.minBeamWidth = Math.min(settings.getMinBeamWidth(), settings.getBeamWidth());
+        this.maxBeamWidth = Math.max(settings.getMaxBeamWidth(), settings.getBeamWidth());
+        this.targetLatencyMs = settings.getBeamTargetLatencyMs();
+        this.iterative = settings.isBeamIterative();
+        this.maxDepth = settings.getMaxRecursionDepth();
+        this.useParallelization = settings.isUseParallelization();
+        this.dominanceCapacity = settings.getDominanceCapacity();
+    }
 
     @Override
     public OptimizationResult findOptimalMacroPath(
-            CraftingState initialState, 
-            List<CraftingAction> availableActions, 
-            Recipe recipe, 
-            boolean qualityFocus, 
-            boolean durabilityConstraint) {
-        
-        // カウンターの初期化
-        exploredStatesCount = 0;
-        
-        // 現在のビーム（現在の探索対象状態群）
-        List<BeamNode> currentBeam = new ArrayList<>();
-        currentBeam.add(new BeamNode(initialState, new ArrayList<>(), 0.0));
-        
-        // 最良結果
-        BeamNode bestNode = null;
-        
+            CraftingState initialState,
+            CompiledActionTable actionTable,
+            boolean qualityFocus,
+            boolean durabilityConstraint,
+            SearchContext searchContext) {
+
+        if (!iterative) {
+            OptimizationResult result = search(initialState, actionTable, qualityFocus, durabilityConstraint,
+                    searchContext, createWidthController(searchContext), 0);
+            exploredStatesCount = result.getExploredStates();
+            return result;
+        }
+
+        // 幅を広げながら探索を繰り返す（次の探索が目標時刻までに終わらない見込みの場合は終了）
+        long budgetNanos = budgetNanos(searchContext);
+        long targetNanos = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+        OptimizationResult best = null;
+        int explored = 0;
+        for (int width = minBeamWidth; ; width = Math.min(width * ITERATIVE_WIDTH_FACTOR, maxBeamWidth)) {
+            long startNanos = System.nanoTime();
+            OptimizationResult result = search(initialState, actionTable, qualityFocus, durabilityConstraint,
+                    searchContext, BeamWidthController.fixed(width), explored);
+            explored = result.getExploredStates();
+            long passNanos = System.nanoTime() - startNanos;
+            if (best == null || result.getScore() > best.getScore()) {
+                best = result;
+            }
+            best.setBudgetLimited(result.isBudgetLimited());
+            if (result.isBudgetLimited() || width >= maxBeamWidth || (targetNanos != Long.MAX_VALUE
+                    && System.nanoTime() + passNanos * ITERATIVE_WIDTH_FACTOR - targetNanos > 0)) {
+                break;
+            }
+        }
+        best.setExploredStates(explored);
+        exploredStatesCount = explored;
+        return best;
+    }
+
+    /**
+     * 目標時間と締め切りからビーム幅のコントローラーを作成（目標時間がない場合は幅を固定）
+     */
+    private BeamWidthController createWidthController(SearchContext searchContext) {
+        if (targetLatencyMs <= 0) {
+            return BeamWidthController.fixed(beamWidth);
+        }
+        long budgetNanos = budgetNanos(searchContext);
+        return new BeamWidthController(beamWidth, minBeamWidth, maxBeamWidth,
+                budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * 目標時間と締め切りまでの残り時間の短い方（ナノ秒）、どちらもない場合は Long.MAX_VALUE
+     */
+    private long budgetNanos(SearchContext searchContext) {
+        long target = targetLatencyMs > 0 ? targetLatencyMs * 1_000_000L : Long.MAX_VALUE;
+        return Math.min(target, Math.max(searchContext.remainingNanos(), 0L));
+    }
+
+    /**
+     * 1回のビームサーチ
+     * @param width ビーム幅のコントローラー
+     * @param exploredBefore この呼び出しでそれまでに探索した状態数（結果の探索状態数はこれに加算する）
+     */
+    private OptimizationResult search(
+            CraftingState initialState,
+            CompiledActionTable actionTable,
+            boolean qualityFocus,
+            boolean durabilityConstraint,
+            SearchContext searchContext,
+            BeamWidthController width,
+            int exploredBefore) {
+
+        Recipe recipe = actionTable.getRecipe();
+
+        // 作業領域の準備
+        int maxChunks = useParallelization
+                ? Math.max(1, Runtime.getRuntime().availableProcessors() * 4)
+                : 1;
+        BeamWorkspace ws = WORKSPACE.get();
+        ws.ensureCapacity(width.isAdaptive() ? maxBeamWidth : width.width(), maxDepth, maxChunks);
+
+        // 現在のビーム（深さ0は初期状態のみ）
+        PackedState initialPacked = PackedState.of(initialState);
+        ws.beamResources[0] = initialPacked.getResources();
+        ws.beamBuffs[0] = initialPacked.getBuffs();
+        ws.beamSuppressed[0] = 0L;
+        int beamSize = 1;
+        int level = 0;
+
+        // 最良結果（目標達成したノードの深さとビーム内の位置）
+        int bestLevel = -1;
+        int bestIndex = -1;
+        long bestResources = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        // ビームに入れた状態のパレートフロンティア（コストは深さ、深さをまたいだ合流も取り除く）
+        DominanceIndex dominance = new DominanceIndex(dominanceCapacity);
+        dominance.insert(initialPacked.getResources(), initialPacked.getBuffs(), 0);
+
+        ExpansionContext context = new ExpansionContext(
+                ws, actionTable, recipe, qualityFocus, durabilityConstraint, dominance);
+
+        // 締め切りで打ち切ったか
+        boolean budgetLimited = false;
+
+        // 探索状態数（呼び出しごとに数え、インスタンスの状態は共有しない）
+        int explored = exploredBefore;
+
         // 探索深度ごとに繰り返す
-        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+        for (int depth = 0; depth < maxDepth; depth++) {
             // ビームが空なら終了
-            if (currentBeam.isEmpty()) {
+            if (beamSize == 0) {
                 break;
             }
-            
-            // 次のビーム
-            List<BeamNode> nextBeam = new ArrayList<>();
-            
-            // 現在のビームの各ノードに対して
-            for (BeamNode node : currentBeam) {
-                // 終了条件チェック（作業進捗達成）
-                if (node.state.getCurrentProgress() >= recipe.getRequiredProgress()) {
-                    // 最良結果の更新
-                    if (bestNode == null || 
-                        calculateScore(node.state, recipe, qualityFocus) > calculateScore(bestNode.state, recipe, qualityFocus)) {
-                        bestNode = node;
-                    }
-                    continue;
+
+            // 締め切りを過ぎた場合は終了（未展開のビームはループの後で評価する）
+            if (searchContext.isExpired()) {
+                budgetLimited = true;
+                break;
+            }
+
+            // ビームをチャンクに分割して展開（各チャンクで上位K件まで絞り込む）
+            long levelStartNanos = System.nanoTime();
+            int levelWidth = width.width();
+            int chunkCount = beamSize < MIN_PARALLEL_BEAM_SIZE
+                    ? 1
+                    : Math.min(maxChunks, (beamSize + MIN_CHUNK_NODES - 1) / MIN_CHUNK_NODES);
+            context.prepare(beamSize, chunkCount, levelWidth, searchContext.getIncumbentQuality(), level + 1);
+            if (chunkCount == 1) {
+                expandChunk(context, 0);
+            } else {
+                PerformanceUtils.runParallel(new ExpansionTask(context, 0, chunkCount));
+            }
+
+            // 目標達成ノードと探索状態数をチャンク順に集計（並列でも逐次と同じ結果）
+            boolean improved = false;
+            for (int c = 0; c < chunkCount; c++) {
+                ExpansionChunk chunk = ws.chunks[c];
+                explored += chunk.exploredCount;
+                if (chunk.bestIndex >= 0 && (bestIndex < 0 || chunk.bestScore > bestScore)) {
+                    bestLevel = level;
+                    bestIndex = chunk.bestIndex;
+                    bestResources = ws.beamResources[chunk.bestIndex];
+                    bestScore = chunk.bestScore;
+                    improved = true;
                 }
-                
-                // 利用可能な各アクションに対して
-                for (CraftingAction action : availableActions) {
-                    // アクションが実行可能かチェック
-                    if (!action.canExecute(node.state)) {
-                        continue;
-                    }
-                    
-                    // 耐久度制約チェック（必要であれば）
-                    if (durabilityConstraint) {
-                        CraftingState nextState = action.apply(node.state.clone());
-                        if (nextState.getRemainingDurability() <= 0) {
-                            continue;
-                        }
-                    }
-                    
-                    // アクションを適用した次の状態を取得
-                    CraftingState nextState = action.apply(node.state.clone());
-                    
-                    // アクション履歴を更新
-                    List<CraftingAction> newPath = new ArrayList<>(node.path);
-                    newPath.add(action);
-                    
-                    // スコア計算
-                    double score = calculateScore(nextState, recipe, qualityFocus);
-                    
-                    // 新しいノードをビームに追加
-                    nextBeam.add(new BeamNode(nextState, newPath, score));
-                    
-                    // 探索状態数をカウント
-                    exploredStatesCount++;
+            }
+
+            // 最良結果が更新された場合は通知（通知は同期的に行われ、経路はビームを上書きする前に復元される）
+            if (improved) {
+                int improvedLevel = bestLevel;
+                int improvedIndex = bestIndex;
+                long improvedResources = bestResources;
+                double improvedScore = bestScore;
+                int improvedExplored = explored;
+                searchContext.publish(PackedState.quality(improvedResources), () -> createResult(ws, actionTable, initialState,
+                        improvedLevel, improvedIndex, improvedResources, improvedScore, improvedExplored, false));
+            }
+
+            // チャンクの候補を結合して次のビームをビーム幅に制限
+            ExpansionChunk merged = chunkCount == 1 ? ws.chunks[0] : mergeChunks(ws, chunkCount);
+            int selected = selectTopK(merged.scores, merged.keys, merged.order, merged.count, levelWidth);
+
+            // 選択した候補をキーの順に次のビームに移し、経路の復元用に親とアクションを記録
+            // （同じ深さで選択した他の候補に支配される候補はビームに入れない）
+            level++;
+            ws.ensureLevelCapacity(level, selected);
+            int[] parents = ws.historyParents[level];
+            int[] actions = ws.historyActions[level];
+            Arrays.sort(merged.order, 0, selected);
+            int size = 0;
+            int maxProgress = 0;
+            for (int j = 0; j < selected; j++) {
+                int c = merged.order[j];
+                if (!dominance.insert(merged.resources[c], merged.buffs[c], level)) {
+                    continue;
                 }
+                ws.beamResources[size] = merged.resources[c];
+                ws.beamBuffs[size] = merged.buffs[c];
+                ws.beamSuppressed[size] = merged.suppressed[c];
+                parents[size] = merged.parents[c];
+                actions[size] = merged.actions[c];
+                maxProgress = Math.max(maxProgress, PackedState.progress(merged.resources[c]));
+                size++;
             }
-            
-            // 次のビームをBEAM_WIDTH個に制限
-            currentBeam = nextBeam.stream()
-                    .sorted(Comparator.comparingDouble((BeamNode n) -> n.score).reversed())
-                    .limit(BEAM_WIDTH)
-                    .collect(Collectors.toList());
+
+            // 展開コストを記録し、次の深さのビーム幅を調整
+            long now = System.nanoTime();
+            width.update(beamSize, now - levelStartNanos, now,
+                    estimateRemainingLevels(actionTable, level, maxProgress, maxDepth));
+            beamSize = size;
         }
-        
+
+        // 未展開のビーム（締め切り・最大深度で終了した場合）の目標達成ノードも最良結果の候補にする
+        for (int i = 0; i < beamSize; i++) {
+            long resources = ws.beamResources[i];
+            if (PackedState.progress(resources) < recipe.getRequiredProgress()) {
+                continue;
+            }
+            double score = calculateScore(resources, recipe, qualityFocus);
+            if (bestIndex < 0 || score > bestScore) {
+                bestLevel = level;
+                bestIndex = i;
+                bestResources = resources;
+                bestScore = score;
+            }
+        }
+
         // 終了条件に見合うマクロがなかった場合
-        if (bestNode == null) {
-            // 現在のビームから最良ノードを選択
-            bestNode = currentBeam.stream()
-                    .max(Comparator.comparingDouble(n -> calculateScore(n.state, recipe, qualityFocus)))
-                    .orElse(new BeamNode(initialState, new ArrayList<>(), 0.0));
+        if (bestIndex < 0) {
+            // 現在のビームから最良ノードを選択（ビームが空なら初期状態）
+            bestLevel = beamSize > 0 ? level : 0;
+            bestIndex = 0;
+            bestResources = initialPacked.getResources();
+            bestScore = 0.0;
+            for (int i = 0; i < beamSize; i++) {
+                double score = calculateScore(ws.beamResources[i], recipe, qualityFocus);
+                if (i == 0 || score > bestScore) {
+                    bestIndex = i;
+                    bestResources = ws.beamResources[i];
+                    bestScore = score;
+                }
+            }
         }
-        
+
         // 結果を構築して返す
+        return createResult(
+                ws, actionTable, initialState, bestLevel, bestIndex, bestResources, bestScore, explored, budgetLimited);
+    }
+
+    /**
+     * 残りの深さの見積もり（ビーム幅の調整に使用する概算で、深さごとに見積もり直す）
+     * これまでの深さと最大の作業進捗の割合から比例で推定し、作業に必要な最小の手数を下回らないようにする。
+     * 作業進捗がまだない場合は、残りの深さの半分とみなす。
+     */
+    private static int estimateRemainingLevels(
+            CompiledActionTable actionTable, int level, int maxProgress, int maxDepth) {
+        int remainingDepth = Math.max(maxDepth - level, 1);
+        int remainingProgress = actionTable.getRecipe().getRequiredProgress() - maxProgress;
+        if (remainingProgress <= 0) {
+            return 1;
+        }
+        int minimum = (remainingProgress + Math.max(actionTable.getMaxProgressGain(), 1) - 1)
+                / Math.max(actionTable.getMaxProgressGain(), 1);
+        int proportional = maxProgress > 0
+                ? (int) Math.ceil((double) level * remainingProgress / maxProgress)
+                : remainingDepth / 2;
+        return Math.max(1, Math.min(remainingDepth, Math.max(minimum, proportional)));
+    }
+
+    /**
+     * 指定した深さ・ビーム内の位置のノードから最適化結果を構築する
+     */
+    private static OptimizationResult createResult(
+            BeamWorkspace ws,
+            CompiledActionTable actionTable,
+            CraftingState initialState,
+            int level,
+            int index,
+            long resources,
+            double score,
+            int explored,
+            boolean budgetLimited) {
+        List<CraftingAction> actionPath = ws.reconstructPath(actionTable, level, index);
         return OptimizationResult.builder()
-                .actionPath(bestNode.path)
-                .score(bestNode.score)
-                .finalQuality(bestNode.state.getCurrentQuality())
-                .finalProgress(bestNode.state.getCurrentProgress())
-                .usedCP(initialState.getCurrentCP() - bestNode.state.getCurrentCP())
-                .totalActions(bestNode.path.size())
+                .actionPath(actionPath)
+                .score(score)
+                .finalQuality(PackedState.quality(resources))
+                .finalProgress(PackedState.progress(resources))
+                .usedCP(initialState.getCurrentCP() - PackedState.cp(resources))
+                .totalActions(actionPath.size())
+                .exploredStates(explored)
+                .budgetLimited(budgetLimited)
                 .build();
     }
-    
+
+    /**
+     * 1チャンク分のビームノードを展開し、チャンク内の上位K件を選択する
+     * チャンクは自分の配列にのみ書き込むため、チャンク間の同期は不要
+     */
+    private static void expandChunk(ExpansionContext context, int chunkIndex) {
+        BeamWorkspace ws = context.ws;
+        CompiledActionTable actionTable = context.actionTable;
+        Recipe recipe = context.recipe;
+        ExpansionChunk chunk = ws.chunks[chunkIndex];
+        int from = context.chunkFrom(chunkIndex);
+        int to = context.chunkFrom(chunkIndex + 1);
+        int actionCount = actionTable.size();
+
+        chunk.ensureCapacity((to - from) * actionCount);
+        chunk.count = 0;
+        chunk.exploredCount = 0;
+        chunk.bestIndex = -1;
+        chunk.bestScore = Double.NEGATIVE_INFINITY;
+
+        // 子状態の生成に使い回すスクラッチバッファ
+        PackedState nextState = chunk.scratch;
+
+        for (int i = from; i < to; i++) {
+            long resources = ws.beamResources[i];
+            long buffs = ws.beamBuffs[i];
+            long suppressedActions = ws.beamSuppressed[i];
+
+            // 終了条件チェック（作業進捗達成）
+            if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+                // チャンク内の最良結果の更新
+                double score = calculateScore(resources, recipe, context.qualityFocus);
+                if (chunk.bestIndex < 0 || score > chunk.bestScore) {
+                    chunk.bestIndex = i;
+                    chunk.bestScore = score;
+                }
+                continue;
+            }
+
+            // 利用可能な各アクションに対して（生成した、実行可能で目標未達成の子のアクションを記録）
+            long openChildren = 0L;
+            for (int a = 0; a < actionCount; a++) {
+                // 直前のアクションと入れ替えた順で展開済みのアクションはスキップ
+                if (a < Long.SIZE && (suppressedActions & 1L << a) != 0) {
+                    continue;
+                }
+
+                // 実行可否（耐久度制約を含む）の判定と適用を同時に行う
+                nextState.set(resources, buffs);
+                if (!actionTable.apply(a, nextState, context.durabilityConstraint)) {
+                    continue;
+                }
+
+                // 子で展開しないアクション（この状態で先に実行した子から同じ状態に到達する）
+                long suppressed = actionTable.commutingPredecessors(a, buffs) & openChildren;
+                if (a < Long.SIZE && PackedState.progress(nextState.getResources()) < recipe.getRequiredProgress()
+                        && PackedState.durability(nextState.getResources()) > 0) {
+                    openChildren |= 1L << a;
+                }
+
+                // 暫定解（他の探索のものを含む）の品質に届かない候補は追加しない
+                if (actionTable.qualityUpperBound(nextState.getResources(), nextState.getBuffs()) < context.pruneBelowQuality) {
+                    continue;
+                }
+
+                // 候補に追加（親の位置とアクション番号、順位付け用のキーを記録）
+                int n = chunk.count++;
+                chunk.resources[n] = nextState.getResources();
+                chunk.buffs[n] = nextState.getBuffs();
+                chunk.suppressed[n] = suppressed;
+                chunk.scores[n] = calculateScore(nextState.getResources(), recipe, context.qualityFocus);
+                chunk.keys[n] = i * actionCount + a;
+                chunk.parents[n] = i;
+                chunk.actions[n] = a;
+
+                // 探索状態数をカウント
+                chunk.exploredCount++;
+            }
+        }
+
+        // チャンク内の上位K件に絞り込み、選択した候補を先頭に詰める
+        int selected = selectTopK(chunk.scores, chunk.keys, chunk.order, chunk.count, context.beamWidth);
+        if (selected < chunk.count) {
+            chunk.compact(selected);
+        }
+    }
+
+    /**
+     * 各チャンクの候補をチャンク順に1つの配列へ結合する
+     */
+    private static ExpansionChunk mergeChunks(BeamWorkspace ws, int chunkCount) {
+        int total = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            total += ws.chunks[c].count;
+        }
+
+        ExpansionChunk merged = ws.merged;
+        merged.ensureCapacity(total);
+        merged.count = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            merged.append(ws.chunks[c]);
+        }
+        return merged;
+    }
+
+    /**
+     * スコア上位K件の候補番号を order の先頭に集める（クイックセレクト、平均 O(n)）
+     * スコアが同じ場合はキーが小さい方を優先するため、同じ入力では常に同じ結果になる
+     * @param scores 候補のスコア
+     * @param keys 候補の順位付け用キー（候補間で一意）
+     * @param order 候補番号の作業配列（結果の格納先）
+     * @param n 候補数
+     * @param k 選択する件数
+     * @return 選択した件数（n と k の小さい方）
+     */
+    static int selectTopK(double[] scores, int[] keys, int[] order, int n, int k) {
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (n <= k) {
+            return n;
+        }
+
+        // k-1 番目の要素が確定するまで分割を繰り返す
+        int target = k - 1;
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int p = partition(scores, keys, order, lo, hi);
+            if (p == target) {
+                break;
+            }
+            if (p < target) {
+                lo = p + 1;
+            } else {
+                hi = p - 1;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * 中央の要素をピボットとして、ピボットより良い候補を前半に集める
+     * @return ピボットの確定位置
+     */
+    private static int partition(double[] scores, int[] keys, int[] order, int lo, int hi) {
+        swap(order, (lo + hi) >>> 1, hi);
+        int pivot = order[hi];
+        int store = lo;
+        for (int i = lo; i < hi; i++) {
+            if (isBetter(scores, keys, order[i], pivot)) {
+                swap(order, i, store++);
+            }
+        }
+        swap(order, store, hi);
+        return store;
+    }
+
+    private static boolean isBetter(double[] scores, int[] keys, int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && keys[a] < keys[b]);
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
     /**
      * 状態のスコアを計算
      * TODO 実行時間（マクロ長*<wait. n>）を考慮したい
      */
-    private double calculateScore(CraftingState state, Recipe recipe, boolean qualityFocus) {
-        double progressScore = (double) state.getCurrentProgress() / recipe.getRequiredProgress();
-        double qualityScore = (double) state.getCurrentQuality() / recipe.getMaxQuality();
-        double cpEfficiencyScore = (double) state.getCurrentCP() / 1000; //1000 を最大値と仮定
-        double durabilityScore = (double) state.getRemainingDurability() / recipe.getBaseDurability();
-        
+    private static double calculateScore(long resources, Recipe recipe, boolean qualityFocus) {
+        double progressScore = (double) PackedState.progress(resources) / recipe.getRequiredProgress();
+        double qualityScore = (double) PackedState.quality(resources) / recipe.getMaxQuality();
+        double cpEfficiencyScore = (double) PackedState.cp(resources) / 1000; //1000 を最大値と仮定
+        double durabilityScore = (double) PackedState.durability(resources) / recipe.getBaseDurability();
+
         if (qualityFocus) {
             // 品質優先の場合
             if (progressScore >= 1.0) {
@@ -164,19 +569,232 @@ public class BeamSearchOptimizer implements MacroOptimizer {
     public int getExploredStatesCount() {
         return exploredStatesCount;
     }
-    
+
     /**
-     * ビームサーチのノード（状態と経路を保持）
+     * 1回の探索で共通の展開パラメータとチャンクの分割位置
      */
-    private static class BeamNode {
-        final CraftingState state;
-        final List<CraftingAction> path;
-        final double score;
-        
-        BeamNode(CraftingState state, List<CraftingAction> path, double score) {
-            this.state = state;
-            this.path = path;
-            this.score = score;
+    private static final class ExpansionContext {
+        final BeamWorkspace ws;
+        final CompiledActionTable actionTable;
+        final Recipe recipe;
+        final boolean qualityFocus;
+        final boolean durabilityConstraint;
+        // ビームに入れた状態のフロンティア（展開中は参照のみ）
+        final DominanceIndex dominance;
+        int beamSize;
+        int chunkCount;
+        // この深さのビーム幅
+        int beamWidth;
+        // 品質の上限がこれを下回る候補は枝刈りする（暫定解の品質、品質優先時のみ）
+        int pruneBelowQuality;
+        // 展開する子の深さ
+        int childLevel;
+
+        ExpansionContext(
+                BeamWorkspace ws,
+                CompiledActionTable actionTable,
+                Recipe recipe,
+                boolean qualityFocus,
+                boolean durabilityConstraint,
+                DominanceIndex dominance) {
+            this.ws = ws;
+            this.actionTable = actionTable;
+            this.recipe = recipe;
+            this.qualityFocus = qualityFocus;
+            this.durabilityConstraint = durabilityConstraint;
+            this.dominance = dominance;
+        }
+
+        void prepare(int beamSize, int chunkCount, int beamWidth, int incumbentQuality, int childLevel) {
+            this.beamSize = beamSize;
+            this.beamWidth = beamWidth;
+            this.childLevel = childLevel;
+            this.chunkCount = chunkCount;
+            this.pruneBelowQuality = qualityFocus ? incumbentQuality : SearchContext.NO_INCUMBENT;
+        }
+
+        /**
+         * チャンクの開始位置（chunkIndex == chunkCount の場合はビームの末尾）
+         */
+        int chunkFrom(int chunkIndex) {
+            return (int) ((long) beamSize * chunkIndex / chunkCount);
+        }
+    }
+
+    /**
+     * チャンクの範囲を分割して並列に展開するタスク
+     */
+    private static final class ExpansionTask extends ParallelSearchTask<Void> {
+        private final ExpansionContext context;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ExpansionTask(ExpansionContext context, int fromChunk, int toChunk) {
+            this.context = context;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected Void compute() {
+            if (toChunk - fromChunk == 1) {
+                expandChunk(context, fromChunk);
+                return null;
+            }
+
+            int mid = (fromChunk + toChunk) >>> 1;
+            ExpansionTask left = new ExpansionTask(context, fromChunk, mid);
+            ExpansionTask right = new ExpansionTask(context, mid, toChunk);
+            left.fork();
+            right.compute();
+            left.join();
+            return null;
+        }
+    }
+
+    /**
+     * 子状態の候補（struct-of-arrays）
+     * チャンクごとの展開結果と、チャンクを結合した結果の両方に使用する
+     */
+    private static final class ExpansionChunk {
+        long[] resources = new long[0];
+        long[] buffs = new long[0];
+        long[] suppressed = new long[0];
+        double[] scores = new double[0];
+        int[] keys = new int[0];
+        int[] parents = new int[0];
+        int[] actions = new int[0];
+        int[] order = new int[0];
+        int count;
+
+        // チャンク内の集計値
+        int exploredCount;
+        int bestIndex;
+        double bestScore;
+
+        // 子状態の生成に使い回すスクラッチバッファ
+        final PackedState scratch = new PackedState();
+
+        /**
+         * 必要な容量を確保（足りている場合は何もしない）
+         */
+        void ensureCapacity(int capacity) {
+            if (resources.length >= capacity) {
+                return;
+            }
+            resources = new long[capacity];
+            buffs = new long[capacity];
+            suppressed = new long[capacity];
+            scores = new double[capacity];
+            keys = new int[capacity];
+            parents = new int[capacity];
+            actions = new int[capacity];
+            order = new int[capacity];
+        }
+
+        /**
+         * order の先頭 selected 件の候補を配列の先頭に詰める（キーの昇順で並べ直す）
+         */
+        void compact(int selected) {
+            // 昇順に並べると移動元は常に移動先以降になるため、前から上書きしてよい
+            Arrays.sort(order, 0, selected);
+            for (int j = 0; j < selected; j++) {
+                int c = order[j];
+                resources[j] = resources[c];
+                buffs[j] = buffs[c];
+                suppressed[j] = suppressed[c];
+                scores[j] = scores[c];
+                keys[j] = keys[c];
+                parents[j] = parents[c];
+                actions[j] = actions[c];
+            }
+            count = selected;
+        }
+
+        /**
+         * 他のチャンクの候補を末尾に追加
+         */
+        void append(ExpansionChunk other) {
+            System.arraycopy(other.resources, 0, resources, count, other.count);
+            System.arraycopy(other.buffs, 0, buffs, count, other.count);
+            System.arraycopy(other.suppressed, 0, suppressed, count, other.count);
+            System.arraycopy(other.scores, 0, scores, count, other.count);
+            System.arraycopy(other.keys, 0, keys, count, other.count);
+            System.arraycopy(other.parents, 0, parents, count, other.count);
+            System.arraycopy(other.actions, 0, actions, count, other.count);
+            count += other.count;
+        }
+    }
+
+    /**
+     * ビームサーチの作業領域（struct-of-arrays）
+     * ビームは圧縮状態の配列、経路は深さごとの「親の位置・アクション番号」の配列で保持する
+     */
+    private static final class BeamWorkspace {
+        // 現在のビーム
+        long[] beamResources = new long[0];
+        long[] beamBuffs = new long[0];
+        // 展開しないアクション（直前のアクションと入れ替えた順で展開済み）
+        long[] beamSuppressed = new long[0];
+
+        // チャンクごとの候補と、結合後の候補
+        ExpansionChunk[] chunks = new ExpansionChunk[0];
+        final ExpansionChunk merged = new ExpansionChunk();
+
+        // 深さごとのビームの経路情報（[深さ][ビーム内の位置]）
+        int[][] historyParents = new int[0][];
+        int[][] historyActions = new int[0][];
+
+        /**
+         * ビーム幅・深さ・チャンク数に必要な容量を確保（足りている場合は何もしない）
+         * 候補の配列はチャンクの展開時に、深さごとの経路情報はビームに入れる時に必要な分だけ確保する
+         */
+        void ensureCapacity(int beamWidth, int maxDepth, int chunkCount) {
+            if (beamResources.length < beamWidth) {
+                beamResources = new long[beamWidth];
+                beamBuffs = new long[beamWidth];
+                beamSuppressed = new long[beamWidth];
+            }
+            if (historyParents.length < maxDepth + 1) {
+                int[][] parents = new int[maxDepth + 1][];
+                int[][] actions = new int[maxDepth + 1][];
+                for (int d = 0; d <= maxDepth; d++) {
+                    parents[d] = d < historyParents.length ? historyParents[d] : new int[0];
+                    actions[d] = d < historyActions.length ? historyActions[d] : new int[0];
+                }
+                historyParents = parents;
+                historyActions = actions;
+            }
+            if (chunks.length < chunkCount) {
+                ExpansionChunk[] grown = new ExpansionChunk[chunkCount];
+                for (int c = 0; c < chunkCount; c++) {
+                    grown[c] = c < chunks.length ? chunks[c] : new ExpansionChunk();
+                }
+                chunks = grown;
+            }
+        }
+
+        /**
+         * 深さ level の経路情報に必要な容量を確保（足りている場合は何もしない）
+         */
+        void ensureLevelCapacity(int level, int size) {
+            if (historyParents[level].length < size) {
+                historyParents[level] = new int[size];
+                historyActions[level] = new int[size];
+            }
+        }
+
+        /**
+         * 深さ level のビーム内の位置 index から親をたどってアクション列を復元
+         */
+        List<CraftingAction> reconstructPath(CompiledActionTable actionTable, int level, int index) {
+            List<CraftingAction> path = new ArrayList<>(level);
+            for (int d = level, i = index; d > 0; d--) {
+                path.add(actionTable.getAction(historyActions[d][i]));
+                i = historyParents[d][i];
+            }
+            Collections.reverse(path);
+            return path;
         }
     }
 }
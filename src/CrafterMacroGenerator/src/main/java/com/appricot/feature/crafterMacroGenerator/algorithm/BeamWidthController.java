@@ -0,0 +1,89 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+/**
+ * ビーム幅を目標時間に合わせて調整するクラス
+ * 深さごとに展開にかかった時間からビームノード1つあたりの展開コストを測定し、
+ * 残りの深さを現在の幅で探索した場合の終了時刻を予測して、目標時刻に間に合う幅に広げる・狭める。
+ * 1回の調整で幅は2倍・1/2倍までしか変えない（測定のばらつきで幅が振動しないようにする）。
+ * 目標時刻がない場合は幅を変えない。
+ * 1回の探索ごとに作成し、探索のスレッドからのみ使用する。
+ */
+public final class BeamWidthController {
+
+    // 展開コストの移動平均で新しい測定値に与える重み
+    private static final double SMOOTHING = 0.5;
+
+    private final int minWidth;
+    private final int maxWidth;
+    // 目標時刻（System.nanoTime() 基準）、目標がない場合は Long.MAX_VALUE
+    private final long targetNanos;
+
+    private int width;
+    // ビームノード1つあたりの展開コスト（ナノ秒）の移動平均、未測定の場合は負
+    private double nanosPerNode = -1.0;
+
+    /**
+     * @param initialWidth 最初の幅
+     * @param minWidth 幅の下限
+     * @param maxWidth 幅の上限
+     * @param targetNanos 探索を終える目標時刻（System.nanoTime() 基準）、目標がない場合は Long.MAX_VALUE
+     */
+    public BeamWidthController(int initialWidth, int minWidth, int maxWidth, long targetNanos) {
+        if (minWidth <= 0 || minWidth > maxWidth) {
+            throw new IllegalArgumentException("invalid width range: " + minWidth + ".." + maxWidth);
+        }
+        this.minWidth = minWidth;
+        this.maxWidth = maxWidth;
+        this.targetNanos = targetNanos;
+        this.width = clamp(initialWidth);
+    }
+
+    /**
+     * 幅を変えない（目標時刻のない）コントローラー
+     */
+    public static BeamWidthController fixed(int width) {
+        return new BeamWidthController(width, width, width, Long.MAX_VALUE);
+    }
+
+    /**
+     * 次の深さで使用するビーム幅
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * 幅を調整するか（目標時刻があり、幅の範囲が1点でない）
+     */
+    public boolean isAdaptive() {
+        return targetNanos != Long.MAX_VALUE && minWidth < maxWidth;
+    }
+
+    /**
+     * 1つの深さの展開コストを記録し、次の深さのビーム幅を調整する
+     * @param expandedNodes 展開したビームノード数
+     * @param elapsedNanos 展開と次のビームの選択にかかった時間（ナノ秒）
+     * @param nowNanos 現在時刻（System.nanoTime() 基準）
+     * @param remainingLevels 残りの深さの見積もり
+     */
+    public void update(int expandedNodes, long elapsedNanos, long nowNanos, int remainingLevels) {
+        if (!isAdaptive() || expandedNodes <= 0) {
+            return;
+        }
+        double measured = (double) Math.max(elapsedNanos, 1L) / expandedNodes;
+        nanosPerNode = nanosPerNode < 0 ? measured : nanosPerNode + SMOOTHING * (measured - nanosPerNode);
+
+        // 残り時間を残りの深さに均等に割り当てた場合に、1つの深さで展開できるノード数
+        long remainingNanos = targetNanos - nowNanos;
+        double affordable = remainingNanos <= 0
+                ? 0.0
+                : remainingNanos / (nanosPerNode * Math.max(remainingLevels, 1));
+        int next = (int) Math.min(affordable, Integer.MAX_VALUE);
+        next = Math.max(width / 2, Math.min(width * 2, next));
+        width = clamp(next);
+    }
+
+    private int clamp(int value) {
+        return Math.max(minWidth, Math.min(maxWidth, value));
+    }
+}
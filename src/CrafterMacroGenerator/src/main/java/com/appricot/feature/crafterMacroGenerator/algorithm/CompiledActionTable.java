@@ -0,0 +1,697 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.util.BuffUtils;
+
+/**
+ * (PlayerStatus, Recipe, 利用可能アクション) から事前計算した遷移テーブル
+ * 上昇量はバフの組み合わせごとに計算済みのため、探索中の遷移は
+ * 配列参照とビット演算のみで行う（仮想呼び出し・浮動小数点演算なし）。
+ * 不変オブジェクトのため、同一入力のリクエスト間・スレッド間で共有できる。
+ * （終盤表は初回参照時に作成し、テーブルと同じ期間キャッシュする）
+ */
+public final class CompiledActionTable {
+
+    // 作業精度・加工精度から効率100%あたりの上昇量を求める式の定数
+    // 上昇量 = ステータス * 10 / 除数 + 定数項（小数点以下切り捨て）
+    // 除数はゲームデータのレシピレベル表（RecipeLevelTable の ProgressDivider / QualityDivider）の値で、
+    // Lv90 のレシピの値を全レシピに使用する（レシピレベルごとの除数・製作レベル差の補正は扱わない）
+    static final int PROGRESS_DIVIDER = 130;
+    static final int PROGRESS_OFFSET = 2;
+    static final int QUALITY_DIVIDER = 115;
+    static final int QUALITY_OFFSET = 35;
+
+    // 内静スタック数の上限（品質テーブルの行数に使用）
+    private static final int MAX_INNER_QUIET = BuffType.INNER_QUIET.getMaxValue();
+
+    // 終盤表に記録する状態数の上限
+    private static final int FINISHER_CAPACITY = 1 << 16;
+
+    // バフの各スロットの最下位ビット・値のビット（最上位ビットを除く）
+    private static final long SLOT_LOW_BITS = 0x1111_1111_1111_1111L;
+    private static final long SLOT_VALUE_BITS = 0x7777_7777_7777_7777L;
+
+    // ターン経過で減少するバフのスロットの最上位ビット
+    private static final long TICKING_HIGH_BITS = tickingHighBits();
+
+    private final Recipe recipe;
+    private final int baseProgress;
+    private final int baseQuality;
+    private final CraftingAction[] actions;
+
+    private final int[] cpCost;
+    // [アクション][倹約の有無]
+    private final int[][] durabilityCost;
+    // [アクション][真価発揮 | 確信 << 1]
+    private final int[][] progressGain;
+    // [アクション][内静スタック数 * 4 + 改革 | グレートストライド << 1]
+    private final int[][] qualityGain;
+    private final boolean[] raisesProgress;
+    private final boolean[] raisesQuality;
+    // 付与するバフ（付与しない場合はnull）とターン数
+    private final BuffType[] grantedBuff;
+    private final int[] grantedBuffTurns;
+    // CP・耐久度以外の実行条件（条件がない場合はnull）
+    private final Predicate<PackedState>[] conditions;
+
+    // 進捗・品質を上げるアクションの1回あたりの最大上昇量・最小消費CP・最小耐久度消費（上限の見積もり用）
+    private final int maxProgressGain;
+    private final int minProgressCpCost;
+    private final int minProgressDurabilityCost;
+    private final int maxQualityGain;
+    private final int minQualityCpCost;
+    private final int minQualityDurabilityCost;
+
+    // 分枝限定法の上限の見積もり用（有効になり得るバフの組み合わせごと）
+    // [真価発揮 | 確信 << 1] の部分集合での作業系アクションの最大上昇量
+    private final int[] maxProgressGainByBuffs;
+    // [改革 | グレートストライド << 1][内静スタック数] の部分集合・スタック数以下での品質系アクションの最大上昇量と、その累積和
+    private final int[][] maxQualityGainByBuffs;
+    private final long[][] qualityGainPrefix;
+    // [倹約の有無] での作業系・品質系アクションの最小耐久度消費
+    private final int[] minProgressDurabilityCostByWasteNot;
+    private final int[] minQualityDurabilityCostByWasteNot;
+    // アクションで付与できるバフ（[真価発揮 | 確信 << 1]、[改革 | グレートストライド << 1]、倹約）
+    private final int grantableProgressBuffs;
+    private final int grantableQualityBuffs;
+    private final boolean grantsWasteNot;
+    // アクションで付与される内静スタック数の最大値
+    private final int maxGrantedInnerQuiet;
+    // 作業進捗と品質を同時に上げるアクションがあるか
+    private final boolean hasDualAction;
+
+    // 実行順を入れ替えても同じ状態になり得るアクションの組（[アクション] → 番号が小さい相手の集合、64番目以降は対象外）
+    private final long[] commutingLowerActions;
+    // [アクション] 上昇量・耐久度消費が参照するバフのスロットの最上位ビット
+    private final long[] readBuffSlots;
+    // 作業系・品質系アクションの集合（64番目以降は対象外）
+    private final long progressActionSet;
+    private final long qualityActionSet;
+
+    // 作業進捗の仕上げの表（初回参照時に作成）
+    private volatile FinisherTablebase finisherTablebase;
+
+    @SuppressWarnings("unchecked")
+    private CompiledActionTable(Recipe recipe, int baseProgress, int baseQuality, List<CraftingAction> actionList) {
+        int size = actionList.size();
+        this.recipe = recipe;
+        this.baseProgress = baseProgress;
+        this.baseQuality = baseQuality;
+        this.actions = actionList.toArray(new CraftingAction[0]);
+        this.cpCost = new int[size];
+        this.durabilityCost = new int[size][2];
+        this.progressGain = new int[size][4];
+        this.qualityGain = new int[size][(MAX_INNER_QUIET + 1) * 4];
+        this.raisesProgress = new boolean[size];
+        this.raisesQuality = new boolean[size];
+        this.grantedBuff = new BuffType[size];
+        this.grantedBuffTurns = new int[size];
+        this.conditions = new Predicate[size];
+
+        for (int a = 0; a < size; a++) {
+            CraftingAction action = actions[a];
+            cpCost[a] = action.getCpCost();
+            durabilityCost[a][0] = BuffUtils.calculateDurabilityCost(action.getBaseDurabilityCost(), 0L);
+            durabilityCost[a][1] = BuffUtils.calculateDurabilityCost(action.getBaseDurabilityCost(),
+                    BuffUtils.addBuff(0L, BuffType.WASTE_NOT, 1));
+
+            int progressBase = baseProgress * action.getProgressEfficiency() / 100;
+            for (int i = 0; i < 4; i++) {
+                long buffs = 0L;
+                if ((i & 1) != 0) {
+                    buffs = BuffUtils.addBuff(buffs, BuffType.MUSCLE_MEMORY, 1);
+                }
+                if ((i & 2) != 0) {
+                    buffs = BuffUtils.addBuff(buffs, BuffType.VENERATION, 1);
+                }
+                progressGain[a][i] = BuffUtils.calculateProgressIncrease(progressBase, buffs);
+            }
+
+            int qualityBase = baseQuality * action.getQualityEfficiency() / 100;
+            for (int iq = 0; iq <= MAX_INNER_QUIET; iq++) {
+                for (int i = 0; i < 4; i++) {
+                    long buffs = BuffUtils.addBuff(0L, BuffType.INNER_QUIET, iq);
+                    if ((i & 1) != 0) {
+                        buffs = BuffUtils.addBuff(buffs, BuffType.INNOVATION, 1);
+                    }
+                    if ((i & 2) != 0) {
+                        buffs = BuffUtils.addBuff(buffs, BuffType.GREAT_STRIDES, 1);
+                    }
+                    qualityGain[a][iq * 4 + i] = BuffUtils.calculateQualityIncrease(qualityBase, buffs);
+                }
+            }
+
+            raisesProgress[a] = action.getProgressEfficiency() > 0;
+            raisesQuality[a] = action.getQualityEfficiency() > 0;
+            grantedBuff[a] = action.getGrantedBuff();
+            grantedBuffTurns[a] = action.getGrantedBuffTurns();
+            conditions[a] = action.getExecutionCondition();
+        }
+
+        int maxProgress = 0;
+        int minProgressCp = Integer.MAX_VALUE;
+        int minProgressDurability = Integer.MAX_VALUE;
+        int maxQuality = 0;
+        int minQualityCp = Integer.MAX_VALUE;
+        int minQualityDurability = Integer.MAX_VALUE;
+        for (int a = 0; a < size; a++) {
+            if (raisesProgress[a]) {
+                maxProgress = Math.max(maxProgress, progressGain[a][3]);
+                minProgressCp = Math.min(minProgressCp, cpCost[a]);
+                minProgressDurability = Math.min(minProgressDurability, durabilityCost[a][1]);
+            }
+            if (raisesQuality[a]) {
+                maxQuality = Math.max(maxQuality, qualityGain[a][MAX_INNER_QUIET * 4 + 3]);
+                minQualityCp = Math.min(minQualityCp, cpCost[a]);
+                minQualityDurability = Math.min(minQualityDurability, durabilityCost[a][1]);
+            }
+        }
+        this.maxProgressGain = maxProgress;
+        this.minProgressCpCost = minProgressCp;
+        this.minProgressDurabilityCost = minProgressDurability;
+        this.maxQualityGain = maxQuality;
+        this.minQualityCpCost = minQualityCp;
+        this.minQualityDurabilityCost = minQualityDurability;
+
+        int progressBuffs = 0;
+        int qualityBuffs = 0;
+        boolean wasteNot = false;
+        int grantedInnerQuiet = 0;
+        boolean dualAction = false;
+        for (int a = 0; a < size; a++) {
+            BuffType granted = grantedBuff[a];
+            if (granted == BuffType.MUSCLE_MEMORY) {
+                progressBuffs |= 1;
+            } else if (granted == BuffType.VENERATION) {
+                progressBuffs |= 2;
+            } else if (granted == BuffType.INNOVATION) {
+                qualityBuffs |= 1;
+            } else if (granted == BuffType.GREAT_STRIDES) {
+                qualityBuffs |= 2;
+            } else if (granted == BuffType.WASTE_NOT || granted == BuffType.WASTE_NOT_II) {
+                wasteNot = true;
+            } else if (granted == BuffType.INNER_QUIET) {
+                grantedInnerQuiet = Math.max(grantedInnerQuiet, Math.min(grantedBuffTurns[a], MAX_INNER_QUIET));
+            }
+            dualAction |= raisesProgress[a] && raisesQuality[a];
+        }
+        this.grantableProgressBuffs = progressBuffs;
+        this.grantableQualityBuffs = qualityBuffs;
+        this.grantsWasteNot = wasteNot;
+        this.maxGrantedInnerQuiet = grantedInnerQuiet;
+        this.hasDualAction = dualAction;
+
+        this.maxProgressGainByBuffs = new int[4];
+        this.maxQualityGainByBuffs = new int[4][MAX_INNER_QUIET + 1];
+        this.qualityGainPrefix = new long[4][MAX_INNER_QUIET + 2];
+        this.minProgressDurabilityCostByWasteNot = new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE };
+        this.minQualityDurabilityCostByWasteNot = new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE };
+        for (int a = 0; a < size; a++) {
+            for (int mask = 0; mask < 4; mask++) {
+                for (int i = 0; i < 4; i++) {
+                    if ((i & ~mask) != 0) {
+                        continue;
+                    }
+                    if (raisesProgress[a]) {
+                        maxProgressGainByBuffs[mask] = Math.max(maxProgressGainByBuffs[mask], progressGain[a][i]);
+                    }
+                    if (raisesQuality[a]) {
+                        for (int iq = 0; iq <= MAX_INNER_QUIET; iq++) {
+                            maxQualityGainByBuffs[mask][iq] = Math.max(maxQualityGainByBuffs[mask][iq], qualityGain[a][iq * 4 + i]);
+                        }
+                    }
+                }
+            }
+            for (int w = 0; w < 2; w++) {
+                if (raisesProgress[a]) {
+                    minProgressDurabilityCostByWasteNot[w] = Math.min(minProgressDurabilityCostByWasteNot[w], durabilityCost[a][w]);
+                }
+                if (raisesQuality[a]) {
+                    minQualityDurabilityCostByWasteNot[w] = Math.min(minQualityDurabilityCostByWasteNot[w], durabilityCost[a][w]);
+                }
+            }
+        }
+        for (int mask = 0; mask < 4; mask++) {
+            int[] gains = maxQualityGainByBuffs[mask];
+            for (int iq = 0; iq <= MAX_INNER_QUIET; iq++) {
+                if (iq > 0) {
+                    gains[iq] = Math.max(gains[iq], gains[iq - 1]);
+                }
+                qualityGainPrefix[mask][iq + 1] = qualityGainPrefix[mask][iq] + gains[iq];
+            }
+        }
+
+        // 実行順の入れ替え（バフを付与せず実行条件もないアクションどうしは、バフの状態によって入れ替えられる）
+        this.commutingLowerActions = new long[size];
+        this.readBuffSlots = new long[size];
+        long progressSet = 0L;
+        long qualitySet = 0L;
+        for (int a = 0; a < size; a++) {
+            long slots = 0L;
+            if (raisesProgress[a]) {
+                slots |= slotHighBit(BuffType.MUSCLE_MEMORY) | slotHighBit(BuffType.VENERATION);
+            }
+            if (raisesQuality[a]) {
+                slots |= slotHighBit(BuffType.INNER_QUIET) | slotHighBit(BuffType.INNOVATION)
+                        | slotHighBit(BuffType.GREAT_STRIDES);
+            }
+            if (durabilityCost[a][0] != durabilityCost[a][1]) {
+                slots |= slotHighBit(BuffType.WASTE_NOT) | slotHighBit(BuffType.WASTE_NOT_II);
+            }
+            readBuffSlots[a] = slots;
+            if (a >= Long.SIZE) {
+                continue;
+            }
+            if (raisesProgress[a]) {
+                progressSet |= 1L << a;
+            }
+            if (raisesQuality[a]) {
+                qualitySet |= 1L << a;
+            }
+            if (grantedBuff[a] != null || conditions[a] != null) {
+                continue;
+            }
+            for (int b = 0; b < a; b++) {
+                if (grantedBuff[b] == null && conditions[b] == null) {
+                    commutingLowerActions[a] |= 1L << b;
+                }
+            }
+        }
+        this.progressActionSet = progressSet;
+        this.qualityActionSet = qualitySet;
+    }
+
+    private static long slotHighBit(BuffType type) {
+        return 1L << (type.ordinal() * PackedState.BUFF_BITS + PackedState.BUFF_BITS - 1);
+    }
+
+    private static long tickingHighBits() {
+        long mask = 0L;
+        for (BuffType type : BuffType.values()) {
+            if (!type.isStacking()) {
+                mask |= slotHighBit(type);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 遷移テーブルを作成する
+     * @param playerStatus プレイヤーステータス
+     * @param recipe レシピ情報
+     * @param actions 利用可能なアクション（インデックスは探索中のアクション番号になる）
+     * @return 遷移テーブル
+     */
+    public static CompiledActionTable compile(PlayerStatus playerStatus, Recipe recipe, List<CraftingAction> actions) {
+        return compile(baseProgressOf(playerStatus), baseQualityOf(playerStatus), recipe, actions);
+    }
+
+    /**
+     * 効率100%あたりの上昇量を指定して遷移テーブルを作成する
+     * @param baseProgress 効率100%あたりの作業進捗上昇量
+     * @param baseQuality 効率100%あたりの品質上昇量
+     * @param recipe レシピ情報
+     * @param actions 利用可能なアクション（インデックスは探索中のアクション番号になる）
+     * @return 遷移テーブル
+     */
+    public static CompiledActionTable compile(
+            int baseProgress, int baseQuality, Recipe recipe, List<CraftingAction> actions) {
+        return new CompiledActionTable(recipe, baseProgress, baseQuality, actions);
+    }
+
+    /**
+     * 効率100%あたりの作業進捗上昇量（作業精度 * 10 / 130 + 2）
+     * @param playerStatus プレイヤーステータス（null不可）
+     */
+    public static int baseProgressOf(PlayerStatus playerStatus) {
+        return Math.max(playerStatus.getCraftsmanship(), 0) * 10 / PROGRESS_DIVIDER + PROGRESS_OFFSET;
+    }
+
+    /**
+     * 効率100%あたりの品質上昇量（加工精度 * 10 / 115 + 35）
+     * @param playerStatus プレイヤーステータス（null不可）
+     */
+    public static int baseQualityOf(PlayerStatus playerStatus) {
+        return Math.max(playerStatus.getControl(), 0) * 10 / QUALITY_DIVIDER + QUALITY_OFFSET;
+    }
+
+    /**
+     * アクションの実行可否の判定と適用を1回で行い、状態をその場で更新する
+     * （ターン処理の規則はこのメソッドのみで定義し、探索・シミュレーターのすべてがこれを使用する）
+     * @param a アクション番号
+     * @param state 更新対象の状態（スクラッチバッファ）
+     * @param durabilityConstraint 耐久度が0以下になる遷移を不可とするか
+     * @return 実行可能で適用した場合はtrue、実行不可の場合はfalse（state の内容は不定）
+     */
+    public boolean apply(int a, PackedState state, boolean durabilityConstraint) {
+        long resources = state.getResources();
+        long buffs = state.getBuffs();
+        int cp = PackedState.cp(resources);
+        int durability = PackedState.durability(resources);
+
+        // 実行可否
+        if (cp < cpCost[a] || durability <= 0) {
+            return false;
+        }
+        if (conditions[a] != null && !conditions[a].test(state)) {
+            return false;
+        }
+
+        long nextBuffs = buffs;
+
+        // 作業進捗（真価発揮は作業で消費される）
+        if (raisesProgress[a]) {
+            int index = (PackedState.buffTurns(buffs, BuffType.MUSCLE_MEMORY) > 0 ? 1 : 0)
+                    | (PackedState.buffTurns(buffs, BuffType.VENERATION) > 0 ? 2 : 0);
+            resources = PackedState.withProgress(resources, PackedState.progress(resources) + progressGain[a][index]);
+            nextBuffs = PackedState.withBuffTurns(nextBuffs, BuffType.MUSCLE_MEMORY, 0);
+        }
+
+        // 品質（グレートストライドは加工で消費され、内静はスタックが増える）
+        if (raisesQuality[a]) {
+            int innerQuiet = PackedState.buffTurns(buffs, BuffType.INNER_QUIET);
+            int index = innerQuiet * 4
+                    | (PackedState.buffTurns(buffs, BuffType.INNOVATION) > 0 ? 1 : 0)
+                    | (PackedState.buffTurns(buffs, BuffType.GREAT_STRIDES) > 0 ? 2 : 0);
+            resources = PackedState.withQuality(resources, PackedState.quality(resources) + qualityGain[a][index]);
+            nextBuffs = PackedState.withBuffTurns(nextBuffs, BuffType.GREAT_STRIDES, 0);
+            if (innerQuiet > 0) {
+                nextBuffs = PackedState.withBuffTurns(nextBuffs, BuffType.INNER_QUIET,
+                        Math.min(innerQuiet + 1, MAX_INNER_QUIET));
+            }
+        }
+
+        // 耐久度・CP消費
+        int wasteNot = (PackedState.buffTurns(buffs, BuffType.WASTE_NOT) > 0
+                || PackedState.buffTurns(buffs, BuffType.WASTE_NOT_II) > 0) ? 1 : 0;
+        resources = PackedState.withDurability(resources, durability - durabilityCost[a][wasteNot]);
+        resources = PackedState.withCP(resources, cp - cpCost[a]);
+
+        // ターン経過後にバフを付与
+        nextBuffs = BuffUtils.decrementBuffDurations(nextBuffs);
+        if (grantedBuff[a] != null) {
+            nextBuffs = BuffUtils.addBuff(nextBuffs, grantedBuff[a], grantedBuffTurns[a]);
+        }
+
+        state.set(resources, nextBuffs);
+        return !durabilityConstraint || PackedState.durability(resources) > 0;
+    }
+
+    /**
+     * アクション列を初期状態から順に適用した最終状態を返す
+     * @param initialState 初期状態
+     * @param actionPath 適用するアクション列（このテーブルに含まれるアクション）
+     * @return 最終状態（usedActions は空）
+     * @throws IllegalStateException 実行できないアクションが含まれる場合
+     */
+    public CraftingState simulate(CraftingState initialState, List<CraftingAction> actionPath) {
+        PackedState state = PackedState.of(initialState);
+        for (CraftingAction action : actionPath) {
+            int a = indexOf(action);
+            if (a < 0 || !apply(a, state, false)) {
+                throw new IllegalStateException("Cannot execute action: " + action.getName());
+            }
+        }
+        return state.toCraftingState();
+    }
+
+    /**
+     * アクションの番号を取得
+     * @param action アクション
+     * @return アクション番号、テーブルに含まれない場合は-1
+     */
+    public int indexOf(CraftingAction action) {
+        return indexOf(action.getName());
+    }
+
+    /**
+     * スキル名からアクションの番号を取得
+     * @param name スキル名
+     * @return アクション番号、テーブルに含まれない場合は-1
+     */
+    public int indexOf(String name) {
+        for (int a = 0; a < actions.length; a++) {
+            if (actions[a].getName().equals(name)) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * アクション数
+     */
+    public int size() {
+        return actions.length;
+    }
+
+    /**
+     * 番号に対応するアクション
+     */
+    public CraftingAction getAction(int a) {
+        return actions[a];
+    }
+
+    /**
+     * 番号に対応するアクションの消費CP
+     */
+    public int getCpCost(int a) {
+        return cpCost[a];
+    }
+
+    /**
+     * 状態から到達できる作業進捗の楽観的な上限
+     * 残りCP・耐久度で実行できる作業系アクションの最大回数に、バフがすべて有効な場合の上昇量を掛けて見積もる。
+     * 実際に到達できる作業進捗を下回ることはない（到達不能な状態の判定に使用できる）。
+     * @param resources 圧縮状態（リソース）
+     * @return 作業進捗の上限
+     */
+    public int progressUpperBound(long resources) {
+        return upperBound(PackedState.progress(resources), resources,
+                maxProgressGain, minProgressCpCost, minProgressDurabilityCost);
+    }
+
+    /**
+     * 状態から到達できる品質の楽観的な上限
+     * 残りCP・耐久度で実行できる品質系アクションの最大回数に、バフがすべて最大の場合の上昇量を掛けて見積もる。
+     * 実際に到達できる品質を下回ることはない（枝刈りに使用できる）。
+     * @param resources 圧縮状態（リソース）
+     * @return 品質の上限
+     */
+    public int qualityUpperBound(long resources) {
+        return upperBound(PackedState.quality(resources), resources,
+                maxQualityGain, minQualityCpCost, minQualityDurabilityCost);
+    }
+
+    /**
+     * 状態から作業進捗を達成して到達できる品質の楽観的な上限（分枝限定法の枝刈り用）
+     * {@link #qualityUpperBound(long)} より厳しく、次の点を考慮して見積もる。
+     * <ul>
+     * <li>上昇量・耐久度消費は、現在有効なバフとアクションで付与できるバフの組み合わせの範囲で見積もる</li>
+     * <li>残りの作業進捗に必要な作業系アクションの回数分のCP・耐久度は品質系アクションに使えない</li>
+     * <li>内静スタック数は品質系アクション1回につき最大1増える（付与するアクションがある場合はその値から）ため、
+     *     k回目の上昇量は「現在のスタック数 + k」での最大上昇量を超えない</li>
+     * </ul>
+     * 作業進捗を達成したマクロで到達できる品質を下回ることはない。
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @return 品質の上限（作業進捗を達成できない場合は現在の品質）
+     */
+    public int qualityUpperBound(long resources, long buffs) {
+        int quality = PackedState.quality(resources);
+        int durability = PackedState.durability(resources);
+        if (maxQualityGain == 0 || durability <= 0) {
+            return quality;
+        }
+        long cp = PackedState.cp(resources);
+
+        // 有効になり得るバフ（現在有効なものと、アクションで付与できるもの）
+        int progressBuffs = grantableProgressBuffs
+                | (PackedState.buffTurns(buffs, BuffType.MUSCLE_MEMORY) > 0 ? 1 : 0)
+                | (PackedState.buffTurns(buffs, BuffType.VENERATION) > 0 ? 2 : 0);
+        int qualityBuffs = grantableQualityBuffs
+                | (PackedState.buffTurns(buffs, BuffType.INNOVATION) > 0 ? 1 : 0)
+                | (PackedState.buffTurns(buffs, BuffType.GREAT_STRIDES) > 0 ? 2 : 0);
+        int wasteNot = grantsWasteNot
+                || PackedState.buffTurns(buffs, BuffType.WASTE_NOT) > 0
+                || PackedState.buffTurns(buffs, BuffType.WASTE_NOT_II) > 0 ? 1 : 0;
+        int minQualityDurability = minQualityDurabilityCostByWasteNot[wasteNot];
+
+        // 作業進捗の達成に必要な作業系アクションの分を確保（作業と加工を兼ねるアクションがある場合は確保しない）
+        int remaining = recipe.getRequiredProgress() - PackedState.progress(resources);
+        long reserved = 0;
+        int reservedDurabilityCost = 0;
+        if (remaining > 0 && !hasDualAction) {
+            int progressGainPerAction = maxProgressGainByBuffs[progressBuffs];
+            if (progressGainPerAction == 0) {
+                return quality;
+            }
+            reserved = (remaining + progressGainPerAction - 1) / progressGainPerAction;
+            reservedDurabilityCost = minProgressDurabilityCostByWasteNot[wasteNot];
+            cp -= reserved * minProgressCpCost;
+            if (cp < 0) {
+                return quality;
+            }
+        }
+
+        long count = minQualityCpCost > 0 ? cp / minQualityCpCost : Long.MAX_VALUE;
+        if (minQualityDurability > 0) {
+            // 最後の1回以外は耐久度を残す必要がある（最後の1回は耐久度が足りなくてもよい）
+            long budget = durability - 1L + Math.max(minQualityDurability, reservedDurabilityCost)
+                    - reserved * reservedDurabilityCost;
+            count = Math.min(count, Math.max(budget, 0) / minQualityDurability);
+        }
+        if (count == 0) {
+            return quality;
+        }
+
+        // 内静スタック数の増加を考慮した上昇量の合計
+        int[] gains = maxQualityGainByBuffs[qualityBuffs];
+        long[] prefix = qualityGainPrefix[qualityBuffs];
+        int innerQuiet = PackedState.buffTurns(buffs, BuffType.INNER_QUIET);
+        long gain;
+        if (innerQuiet == 0 && maxGrantedInnerQuiet == 0) {
+            gain = saturatedMultiply(count, gains[0]);
+        } else {
+            int start = Math.max(innerQuiet, maxGrantedInnerQuiet);
+            int growing = (int) Math.min(count, MAX_INNER_QUIET - start);
+            gain = prefix[start + growing] - prefix[start]
+                    + saturatedMultiply(count - growing, gains[MAX_INNER_QUIET]);
+        }
+        return (int) Math.min(quality + gain, Integer.MAX_VALUE);
+    }
+
+    private static long saturatedMultiply(long count, int gain) {
+        return count > Long.MAX_VALUE / Math.max(gain, 1) / 2 ? Long.MAX_VALUE / 2 : count * gain;
+    }
+
+    /**
+     * 現在値に「実行できるアクションの最大回数 × 1回あたりの最大上昇量」を加えた上限
+     * 耐久度・CPを回復するアクションはないため、回数は残りCP・耐久度で抑えられる。
+     */
+    private static int upperBound(int current, long resources, int maxGain, int minCpCost, int minDurabilityCost) {
+        if (maxGain == 0) {
+            return current;
+        }
+        int durability = PackedState.durability(resources);
+        if (durability <= 0) {
+            return current;
+        }
+        long count = Long.MAX_VALUE;
+        if (minCpCost > 0) {
+            count = PackedState.cp(resources) / minCpCost;
+        }
+        if (minDurabilityCost > 0) {
+            // 耐久度が残っている間は実行できるため、最後の1回は耐久度が足りなくてもよい
+            count = Math.min(count, (durability + minDurabilityCost - 1) / minDurabilityCost);
+        }
+        if (count > (Integer.MAX_VALUE - current) / maxGain) {
+            return Integer.MAX_VALUE;
+        }
+        return current + (int) count * maxGain;
+    }
+
+    /**
+     * 作業進捗の仕上げの表（初回参照時に作成）
+     */
+    public FinisherTablebase getFinisherTablebase() {
+        FinisherTablebase tablebase = finisherTablebase;
+        if (tablebase == null) {
+            synchronized (this) {
+                tablebase = finisherTablebase;
+                if (tablebase == null) {
+                    tablebase = new FinisherTablebase(this, FINISHER_CAPACITY);
+                    finisherTablebase = tablebase;
+                }
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * アクション x の直後に実行した場合と、x より先に実行した場合で同じ状態になるアクションの集合
+     * （x より番号が小さいもののみ。どちらの順でも実行できる場合に限り、到達する状態が同じになる）
+     * 上昇量と耐久度消費はバフの有無だけで決まるため、次の場合を除き実行順を入れ替えても結果は変わらない。
+     * <ul>
+     * <li>どちらかがバフを付与する、または実行条件がある</li>
+     * <li>どちらかが参照するバフの残りが1ターン（1つ目のアクションの後に切れる）</li>
+     * <li>両方が作業系で真価発揮がある、両方が品質系で内静・グレートストライドがある（1つ目で消費・変化する）</li>
+     * </ul>
+     * 探索では x の子で、x の前に実行しても同じ状態になる番号の小さいアクションを展開しないことで、
+     * 同じ状態に至る並べ替えのうち番号順の1つだけを展開する。
+     * @param x 直前に実行したアクション番号
+     * @param buffs x を実行する前の状態（バフ）
+     * @return アクション番号のビット集合
+     */
+    public long commutingPredecessors(int x, long buffs) {
+        if (x >= Long.SIZE) {
+            return 0L;
+        }
+        long candidates = commutingLowerActions[x];
+        if (candidates == 0L) {
+            return 0L;
+        }
+
+        // 残り1ターンのバフのスロット（値が1のスロットの最上位ビット）
+        long t = buffs ^ SLOT_LOW_BITS;
+        long expiring = ~(((t & SLOT_VALUE_BITS) + SLOT_VALUE_BITS) | t) & TICKING_HIGH_BITS;
+        if (expiring != 0L) {
+            if ((readBuffSlots[x] & expiring) != 0L) {
+                return 0L;
+            }
+            for (long rest = candidates; rest != 0L; rest &= rest - 1) {
+                int y = Long.numberOfTrailingZeros(rest);
+                if ((readBuffSlots[y] & expiring) != 0L) {
+                    candidates &= ~(1L << y);
+                }
+            }
+        }
+
+        // 1つ目のアクションで消費・変化するバフ
+        if (raisesProgress[x] && PackedState.buffTurns(buffs, BuffType.MUSCLE_MEMORY) > 0) {
+            candidates &= ~progressActionSet;
+        }
+        if (raisesQuality[x] && (PackedState.buffTurns(buffs, BuffType.INNER_QUIET) > 0
+                || PackedState.buffTurns(buffs, BuffType.GREAT_STRIDES) > 0)) {
+            candidates &= ~qualityActionSet;
+        }
+        return candidates;
+    }
+
+    /**
+     * 品質を上げる余地がないか（作業進捗を達成するマクロで品質の上限が現在の品質と等しい）
+     * この状態からは作業進捗の仕上げだけが残るため、終盤表で末端の探索を置き換えられる。
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     */
+    public boolean isQualityPhaseOver(long resources, long buffs) {
+        return qualityUpperBound(resources, buffs) <= PackedState.quality(resources);
+    }
+
+    /**
+     * 作業系アクションの1回あたりの最大上昇量（作業系アクションがない場合は0）
+     */
+    public int getMaxProgressGain() {
+        return maxProgressGain;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public int getBaseProgress() {
+        return baseProgress;
+    }
+
+    public int getBaseQuality() {
+        return baseQuality;
+    }
+}
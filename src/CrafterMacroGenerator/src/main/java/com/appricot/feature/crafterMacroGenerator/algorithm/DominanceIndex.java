@@ -0,0 +1,218 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.Arrays;
+
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+
+/**
+ * 支配される状態を枝刈りするためのパレートフロンティアの索引
+ * バフの残りターン（圧縮値）と作業進捗が同じ2つの状態で、一方が品質・耐久度・CPのすべてで
+ * 他方以上、かつコスト（手数またはg値）が他方以下の場合、劣る方の状態から
+ * より良いマクロに到達することはない（劣る方で実行できるアクション列は優る方でも実行できる）。
+ * 作業進捗は大小で比較しない。目標に達した時点で製作が終わるため、作業進捗の多い状態は
+ * 少ない状態に残る加工の機会を失うことがある（目標達成した状態が未達成の状態を支配することもない）。
+ * バフの圧縮値と作業進捗の組ごとに支配されない状態の集合（フロンティア）を保持し、
+ * 追加時に既存の状態に支配されるものは拒否し、新しい状態が支配する既存の状態は取り除く。
+ *
+ * バフの圧縮値と作業進捗の組はオープンアドレス法でフロンティアに割り当て、フロンティアはプリミティブ配列で保持する。
+ * 状態は各項目の上に番兵ビットを置いた比較用の値（{@link #comparable(long)}）で保持し、
+ * 3項目の大小比較を1回の減算で行う。
+ * 全体の状態数が容量に達した場合や、フロンティアが上限の大きさに達した場合は記録せずに受け入れる
+ * （枝刈りが減るだけで、結果の正しさには影響しない）。
+ * スレッドセーフではない（参照のみであれば、追加と同時に行わない限り複数スレッドから呼び出せる）。
+ */
+public final class DominanceIndex {
+
+    // 1つのフロンティアが保持する状態数の上限（追加時の走査コストを抑える）
+    private static final int MAX_FRONTIER_SIZE = 64;
+
+    // フロンティア配列の初期サイズ
+    private static final int INITIAL_FRONTIER_SIZE = 4;
+
+    // 比較用の値の各項目の位置（品質20bit・耐久度8bit・CP12bit、各項目の直上が番兵ビット）
+    private static final int DURABILITY_SHIFT = 21;
+    private static final int CP_SHIFT = 30;
+
+    // 番兵ビット
+    private static final long GUARDS = 1L << 20 | 1L << 29 | 1L << 42;
+
+    private final int capacity;
+
+    // (バフの圧縮値, 作業進捗) → フロンティア（比較用の値とコスト、[スロット]、frontierResources が null は空き）
+    private long[] keys;
+    private int[] keyProgress;
+    private long[][] frontierResources;
+    private int[][] frontierCosts;
+    private int[] frontierSizes;
+    private int mask;
+    private int signatures;
+
+    // 記録している状態数（全フロンティアの合計）
+    private int size;
+
+    /**
+     * @param capacity 記録する状態数の上限
+     */
+    public DominanceIndex(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        allocate(16);
+    }
+
+    /**
+     * 状態がフロンティアの状態に支配されない場合に追加する
+     * 同じ状態が同じかより低いコストで記録済みの場合も支配されているとみなす。
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @param cost 状態に到達するまでのコスト（小さいほど良い）
+     * @return 追加した（または容量の上限で記録せずに受け入れた）場合は true、支配されている場合は false
+     */
+    public boolean insert(long resources, long buffs, int cost) {
+        long value = comparable(resources);
+        int progress = PackedState.progress(resources);
+        int slot = find(buffs, progress);
+        if (frontierResources[slot] != null) {
+            long[] entries = frontierResources[slot];
+            int[] costs = frontierCosts[slot];
+            int n = frontierSizes[slot];
+
+            // 1回の走査で、支配されているかの判定と新しい状態が支配する状態の除去を行う
+            // （支配されている場合、除去済みの状態も推移的に既存の状態に支配されるため問題ない）
+            for (int i = 0; i < n; ) {
+                if (costs[i] <= cost && covers(entries[i], value)) {
+                    frontierSizes[slot] = n;
+                    return false;
+                }
+                if (cost <= costs[i] && covers(value, entries[i])) {
+                    // 末尾の状態で詰める
+                    n--;
+                    entries[i] = entries[n];
+                    costs[i] = costs[n];
+                    size--;
+                } else {
+                    i++;
+                }
+            }
+            frontierSizes[slot] = n;
+        }
+
+        if (size >= capacity) {
+            return true;
+        }
+
+        if (frontierResources[slot] == null) {
+            // 新しいバフの組み合わせと作業進捗の組（使用率が1/2を超えたら拡張）
+            if ((signatures + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+                slot = find(buffs, progress);
+            }
+            keys[slot] = buffs;
+            keyProgress[slot] = progress;
+            frontierResources[slot] = new long[INITIAL_FRONTIER_SIZE];
+            frontierCosts[slot] = new int[INITIAL_FRONTIER_SIZE];
+            signatures++;
+        }
+
+        int n = frontierSizes[slot];
+        if (n == MAX_FRONTIER_SIZE) {
+            return true;
+        }
+        if (n == frontierResources[slot].length) {
+            int grown = Math.min(n * 2, MAX_FRONTIER_SIZE);
+            frontierResources[slot] = Arrays.copyOf(frontierResources[slot], grown);
+            frontierCosts[slot] = Arrays.copyOf(frontierCosts[slot], grown);
+        }
+        frontierResources[slot][n] = value;
+        frontierCosts[slot][n] = cost;
+        frontierSizes[slot] = n + 1;
+        size++;
+        return true;
+    }
+
+    /**
+     * 状態がフロンティアの状態に支配されているか（索引は変更しない）
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @param cost 状態に到達するまでのコスト（小さいほど良い）
+     */
+    public boolean isDominated(long resources, long buffs, int cost) {
+        int slot = find(buffs, PackedState.progress(resources));
+        long[] entries = frontierResources[slot];
+        if (entries == null) {
+            return false;
+        }
+        long value = comparable(resources);
+        int[] costs = frontierCosts[slot];
+        int n = frontierSizes[slot];
+        for (int i = 0; i < n; i++) {
+            if (costs[i] <= cost && covers(entries[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 圧縮状態（リソース）を比較用の値に変換する（番兵ビットは0、耐久度は負にならないようずらす）
+     * 作業進捗はフロンティアのキーのため含めない。
+     */
+    static long comparable(long resources) {
+        return PackedState.quality(resources)
+                | (long) (PackedState.durability(resources) - PackedState.MIN_DURABILITY) << DURABILITY_SHIFT
+                | (long) PackedState.cp(resources) << CP_SHIFT;
+    }
+
+    /**
+     * 比較用の値 a の各項目が b の対応する項目以上か
+     * 各項目を番兵ビットを立てた状態で引き算すると、a の項目が b 未満の場合のみ番兵ビットが借りで消える。
+     */
+    static boolean covers(long a, long b) {
+        return (((a | GUARDS) - b) & GUARDS) == GUARDS;
+    }
+
+    /**
+     * 記録している状態数
+     */
+    public int size() {
+        return size;
+    }
+
+    private int find(long buffs, int progress) {
+        int i = (int) TranspositionTable.hash(progress, buffs) & mask;
+        while (frontierResources[i] != null && (keys[i] != buffs || keyProgress[i] != progress)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void allocate(int slots) {
+        keys = new long[slots];
+        keyProgress = new int[slots];
+        frontierResources = new long[slots][];
+        frontierCosts = new int[slots][];
+        frontierSizes = new int[slots];
+        mask = slots - 1;
+    }
+
+    private void rehash(int slots) {
+        long[] oldKeys = keys;
+        int[] oldProgress = keyProgress;
+        long[][] oldResources = frontierResources;
+        int[][] oldCosts = frontierCosts;
+        int[] oldSizes = frontierSizes;
+        allocate(slots);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldResources[i] == null) {
+                continue;
+            }
+            int slot = find(oldKeys[i], oldProgress[i]);
+            keys[slot] = oldKeys[i];
+            keyProgress[slot] = oldProgress[i];
+            frontierResources[slot] = oldResources[i];
+            frontierCosts[slot] = oldCosts[i];
+            frontierSizes[slot] = oldSizes[i];
+        }
+    }
+}
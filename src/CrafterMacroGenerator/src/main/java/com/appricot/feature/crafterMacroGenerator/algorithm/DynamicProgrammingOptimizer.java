@@ -1,181 +1,147 @@
 package com.appricot.feature.crafterMacroGenerator.algorithm;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
 import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
 import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 動的計画法を使用したマクロ最適化アルゴリズムの実装
+ * 再帰の代わりに深さごとのフレームを持つ明示的なスタックで探索し、
+ * 状態（圧縮値）ごとに「最良の次アクションと到達できる最良スコア」だけをメモ化する。
+ * メモは容量固定で、満杯時は残り深さが小さい（再計算が安い）エントリから置換する。
+ * 経路は探索後に初期状態からメモの最良アクションをたどって復元する。
+ * 同じバフで資源がすべて同じか多い状態に、同じか浅い深さで到達済みの状態は評価しない
+ * （支配する状態を経由する経路の方が良いため、初期状態から到達できる最良スコアは変わらない）。
+ * 品質優先の場合、品質を上げる余地がなくなった状態は {@link FinisherTablebase} の仕上げで終端まで進める。
+ * また分枝限定法として、品質の楽観的な上限が暫定解（他の探索のものを含む）の品質に届かない状態も評価しない。
+ * 締め切りを過ぎた場合は、それまでに到達した最良の終端状態への経路（暫定解）を返す。
  */
 @Slf4j
 @Component
 public class DynamicProgrammingOptimizer implements MacroOptimizer {
 
-    // メモ化用のマップ
-    private Map<CraftingState, OptimizationResult> memo;
-    
-    // 探索した状態数のカウンター
-    private int exploredStatesCount;
-    
-    // 最大再帰深度（マクロの最大長に相当）
+    // 最大探索深度（マクロの最大長に相当）のデフォルト値
     private static final int MAX_RECURSION_DEPTH = 90;
 
+    // メモのスロット数のデフォルト値
+    private static final int MEMO_CAPACITY = 1 << 18;
+
+    private final int maxDepth;
+    private final int memoCapacity;
+    private final int dominanceCapacity;
+
+    // 最後に終了した探索の状態数（診断用、結果には呼び出しごとに数えた値を使用する）
+    private volatile int exploredStatesCount;
+
+    public DynamicProgrammingOptimizer() {
+        this(AlgorithmSettings.builder()
+                .maxRecursionDepth(MAX_RECURSION_DEPTH)
+                .dpMemoCapacity(MEMO_CAPACITY)
+                .build());
+    }
+
+    @Autowired
+    public DynamicProgrammingOptimizer(AlgorithmSettings settings) {
+        this.maxDepth = settings.getMaxRecursionDepth();
+        this.memoCapacity = settings.getDpMemoCapacity();
+        this.dominanceCapacity = settings.getDominanceCapacity();
+    }
+
     @Override
     public OptimizationResult findOptimalMacroPath(
-            CraftingState initialState, 
-            List<CraftingAction> availableActions, 
-            Recipe recipe, 
-            boolean qualityFocus, 
-            boolean durabilityConstraint) {
-        
-        // メモとカウンターの初期化
-        memo = new HashMap<>();
-        exploredStatesCount = 0;
-        
+            CraftingState initialState,
+            CompiledActionTable actionTable,
+            boolean qualityFocus,
+            boolean durabilityConstraint,
+            SearchContext context) {
+
         // 最適化実行
-        return findOptimalPath(
-                initialState, 
-                availableActions, 
-                recipe, 
-                qualityFocus, 
-                durabilityConstraint, 
-                0);
-    }
-    
-    /**
-     * 再帰的に最適パスを探索する内部メソッド
-     */
-    private OptimizationResult findOptimalPath(
-            CraftingState currentState, 
-            List<CraftingAction> availableActions, 
-            Recipe recipe, 
-            boolean qualityFocus, 
-            boolean durabilityConstraint, 
-            int depth) {
-        
-        // 探索状態数をカウント
-        exploredStatesCount++;
-        
-        // メモ化チェック（同じ状態が既に計算済みかどうか）
-        if (memo.containsKey(currentState)) {
-            return memo.get(currentState);
-        }
-        
-        // 再帰の深さ（アクション数）制限をチェック
-        if (depth >= MAX_RECURSION_DEPTH) {
-            return createTerminalResult(currentState, recipe);
-        }
-        
-        // 終了条件：作業進捗が目標を達成した場合
-        if (currentState.getCurrentProgress() >= recipe.getRequiredProgress()) {
-            return createTerminalResult(currentState, recipe);
-        }
-        
-        // 利用可能なアクションを評価
-        OptimizationResult bestResult = null;
-        CraftingState initialState = currentState;
-        
-        for (CraftingAction action : availableActions) {
-            // アクションが実行可能かチェック
-            if (!action.canExecute(currentState)) {
-                continue;
-            }
-            
-            // 耐久度制約チェック（必要であれば）
-            if (durabilityConstraint) {
-                CraftingState nextState = action.apply(currentState.clone());
-                if (nextState.getRemainingDurability() <= 0) {
-                    continue;
-                }
-            }
-            
-            // アクションを適用した次の状態を取得
-            CraftingState nextState = action.apply(currentState.clone());
-            nextState.getUsedActions().add(action.getName());
-            
-            // 次の状態から最適結果を再帰的に計算
-            OptimizationResult subResult = findOptimalPath(
-                    nextState, 
-                    availableActions, 
-                    recipe, 
-                    qualityFocus, 
-                    durabilityConstraint, 
-                    depth + 1);
-            
-            // サブパスにこのアクションを追加
-            List<CraftingAction> actionPath = new ArrayList<>();
-            actionPath.add(action);
-            if (subResult.getActionPath() != null) {
-                actionPath.addAll(subResult.getActionPath());
+        Search search = new Search(actionTable, qualityFocus, durabilityConstraint, context);
+        PackedState initialPacked = PackedState.of(initialState);
+        double bestScore = search.solve(initialPacked.getResources(), initialPacked.getBuffs(), maxDepth);
+
+        // 最良アクションをたどって経路を復元（暫定解の更新と枝刈りは探索の完了時のみ）
+        search.recordIncumbent = false;
+        search.prune = false;
+        int[] path = new int[maxDepth];
+        int pathLength = 0;
+        PackedState state = initialPacked.copy();
+        // 初期状態から枝刈りされた場合（他の探索の暫定解に届かない場合）は経路を復元しない
+        boolean pruned = !search.aborted && bestScore == Double.NEGATIVE_INFINITY;
+        while (!search.aborted && !pruned && pathLength < maxDepth) {
+            int action = search.bestAction(state.getResources(), state.getBuffs(), maxDepth - pathLength);
+            if (action < 0) {
+                break;
             }
-            
-            // 結果スコアの更新
-            double score = calculateScore(nextState, recipe, qualityFocus);
-            
-            // 結果オブジェクトの作成
-            OptimizationResult result = OptimizationResult.builder()
-                    .actionPath(actionPath)
-                    .score(score)
-                    .finalQuality(nextState.getCurrentQuality())
-                    .finalProgress(nextState.getCurrentProgress())
-                    .usedCP(initialState.getCurrentCP() - nextState.getCurrentCP())
-                    .totalActions(actionPath.size())
-                    .build();
-            
-            // 現在の最良結果と比較して更新
-            if (bestResult == null || result.getScore() > bestResult.getScore()) {
-                bestResult = result;
+            actionTable.apply(action, state, durabilityConstraint);
+            path[pathLength++] = action;
+        }
+        if (!search.aborted && !pruned) {
+            // メモから追い出された状態を再計算した場合に備え、復元した経路の終端から求める
+            bestScore = calculateScore(state.getResources(), actionTable.getRecipe(), qualityFocus);
+        }
+
+        // 締め切りで打ち切った場合は暫定解を使用
+        if (search.aborted || pruned) {
+            path = search.incumbentPath;
+            pathLength = Math.max(search.incumbentLength, 0);
+            bestScore = search.incumbentLength >= 0
+                    ? search.incumbentScore
+                    : calculateScore(initialPacked.getResources(), actionTable.getRecipe(), qualityFocus);
+            state = initialPacked.copy();
+            for (int i = 0; i < pathLength; i++) {
+                actionTable.apply(path[i], state, durabilityConstraint);
             }
         }
-        
-        // 有効なアクションがない場合は終端結果を返す
-        if (bestResult == null) {
-            bestResult = createTerminalResult(currentState, recipe);
+
+        List<CraftingAction> actionPath = new ArrayList<>(pathLength);
+        for (int i = 0; i < pathLength; i++) {
+            actionPath.add(actionTable.getAction(path[i]));
         }
-        
-        // 結果をメモ化して返す
-        memo.put(currentState, bestResult);
-        return bestResult;
-    }
-    
-    /**
-     * 終端状態の結果オブジェクトを作成
-     */
-    private OptimizationResult createTerminalResult(CraftingState state, Recipe recipe) {
+
+        int explored = search.exploredStates;
+        exploredStatesCount = explored;
+        log.debug("DP 探索: 探索状態数 = {}, メモ = {}, 打ち切り = {}",
+                explored, search.memo.size(), search.aborted);
+
         return OptimizationResult.builder()
-                .actionPath(new ArrayList<>())
-                .score(calculateScore(state, recipe, true))
-                .finalQuality(state.getCurrentQuality())
-                .finalProgress(state.getCurrentProgress())
-                .usedCP(0)
-                .totalActions(0)
+                .actionPath(actionPath)
+                .score(bestScore)
+                .finalQuality(state.getQuality())
+                .finalProgress(state.getProgress())
+                .usedCP(initialPacked.getCP() - state.getCP())
+                .totalActions(actionPath.size())
+                .exploredStates(explored)
+                .budgetLimited(search.aborted)
                 .build();
     }
-    
+
     /**
      * 状態のスコアを計算
      * TODO 実行時間（マクロ長*<wait. n>）を考慮したい
      */
-    private double calculateScore(CraftingState state, Recipe recipe, boolean qualityFocus) {
-        double progressScore = (double) state.getCurrentProgress() / recipe.getRequiredProgress();
-        double qualityScore = (double) state.getCurrentQuality() / recipe.getMaxQuality();
-        double cpEfficiencyScore = (double) state.getCurrentCP() / 1000; // 1000を最大値と仮定
-        
+    private static double calculateScore(long resources, Recipe recipe, boolean qualityFocus) {
+        double progressScore = (double) PackedState.progress(resources) / recipe.getRequiredProgress();
+        double qualityScore = (double) PackedState.quality(resources) / recipe.getMaxQuality();
+        double cpEfficiencyScore = (double) PackedState.cp(resources) / 1000; // 1000を最大値と仮定
+
         if (qualityFocus) {
             // 品質優先の場合
             if (progressScore >= 1.0) {
-                // 進捗達成時は品質を最大化
-                return qualityScore * 10 + cpEfficiencyScore;
+                // 進捗達成時は品質を最大化（品質が同じ間だけ残りCP・耐久度で比較し、品質の上限による枝刈りと一致させる）
+                return FinisherTablebase.completedScore(resources, recipe.getBaseDurability());
             } else {
                 // 進捗未達成時はペナルティ
                 return progressScore - 10;
@@ -196,4 +162,327 @@ public class DynamicProgrammingOptimizer implements MacroOptimizer {
     public int getExploredStatesCount() {
         return exploredStatesCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * 1回の最適化の探索状態（遷移テーブル・メモ・明示的なスタック）
+     */
+    private final class Search {
+        private final CompiledActionTable actionTable;
+        private final Recipe recipe;
+        private final FinisherTablebase finisher;
+        private final boolean qualityFocus;
+        private final boolean durabilityConstraint;
+        private final SearchContext context;
+        private final Memo memo = new Memo(memoCapacity);
+
+        // 評価した状態のパレートフロンティア（コストは初期状態からの深さ）
+        private final DominanceIndex dominance = new DominanceIndex(dominanceCapacity);
+
+        // 支配される状態と暫定解に届かない状態を枝刈りするか（経路の復元時は行わない）
+        private boolean prune = true;
+
+        // スタックのフレーム（[スタック上の位置]）
+        private final long[] stackResources = new long[maxDepth + 1];
+        private final long[] stackBuffs = new long[maxDepth + 1];
+        private final int[] stackNextAction = new int[maxDepth + 1];   // 次に試すアクション（-1は未評価）
+        private final int[] stackBestAction = new int[maxDepth + 1];
+        private final double[] stackBestValue = new double[maxDepth + 1];
+        private final boolean[] stackTruncated = new boolean[maxDepth + 1];
+
+        // 子状態の生成に使い回すスクラッチバッファ
+        private final PackedState nextState = new PackedState();
+
+        // 暫定解（これまでに到達した最良の終端状態への経路、-1は未到達）
+        private final int[] incumbentPath = new int[maxDepth];
+        private int incumbentLength = -1;
+        private double incumbentScore = Double.NEGATIVE_INFINITY;
+        private boolean recordIncumbent = true;
+
+        private int exploredStates;
+
+        // 締め切りで探索を打ち切ったか
+        private boolean aborted;
+
+        Search(CompiledActionTable actionTable, boolean qualityFocus, boolean durabilityConstraint,
+                SearchContext context) {
+            this.actionTable = actionTable;
+            this.recipe = actionTable.getRecipe();
+            this.finisher = actionTable.getFinisherTablebase();
+            this.qualityFocus = qualityFocus;
+            this.durabilityConstraint = durabilityConstraint;
+            this.context = context;
+        }
+
+        /**
+         * 状態から到達できる最良スコアを計算し、経路上の状態をメモに記録する
+         * @param resources 圧縮状態（リソース）
+         * @param buffs 圧縮状態（バフ）
+         * @param horizon 残りの最大アクション数
+         * @return 最良スコア、締め切りで打ち切った場合は NaN
+         */
+        double solve(long resources, long buffs, int horizon) {
+            int sp = 0;
+            push(sp, resources, buffs);
+            double result = 0;
+
+            while (sp >= 0) {
+                int frameHorizon = horizon - sp;
+                long frameResources = stackResources[sp];
+
+                // 新しく積んだフレームの評価
+                if (stackNextAction[sp] < 0) {
+                    exploredStates++;
+                    if (context.isExpired(exploredStates)) {
+                        aborted = true;
+                        return Double.NaN;
+                    }
+
+                    // メモ化チェック
+                    int slot = memo.find(frameResources, stackBuffs[sp], frameHorizon);
+                    if (slot >= 0) {
+                        result = memo.values[slot];
+                        sp = pop(sp, result, memo.truncated[slot]);
+                        continue;
+                    }
+
+                    // 暫定解の品質に届かない状態と支配される状態は評価しない
+                    // （評価値を持たないため、親の値は同じ残り深さでのみ再利用する）
+                    if (prune && ((qualityFocus && actionTable.qualityUpperBound(frameResources, stackBuffs[sp])
+                                    < context.getIncumbentQuality())
+                            || !dominance.insert(frameResources, stackBuffs[sp], sp))) {
+                        sp = pop(sp, Double.NEGATIVE_INFINITY, true);
+                        continue;
+                    }
+
+                    // 終了条件：作業進捗の達成、または深さの上限
+                    boolean completed = PackedState.progress(frameResources) >= recipe.getRequiredProgress();
+                    if (completed || frameHorizon == 0) {
+                        result = calculateScore(frameResources, recipe, qualityFocus);
+                        boolean truncated = !completed;
+                        offerIncumbent(sp, frameResources, result, null);
+                        memo.store(frameResources, stackBuffs[sp], frameHorizon, result, -1, truncated);
+                        sp = pop(sp, result, truncated);
+                        continue;
+                    }
+
+                    // 品質を上げる余地がない場合は、終盤表の最小コストの仕上げで終端まで進める
+                    if (qualityFocus && actionTable.isQualityPhaseOver(frameResources, stackBuffs[sp])) {
+                        int[] finish = finisher.lookup(
+                                frameResources, stackBuffs[sp], frameHorizon, durabilityConstraint);
+                        if (finish != null) {
+                            nextState.set(frameResources, stackBuffs[sp]);
+                            for (int a : finish) {
+                                actionTable.apply(a, nextState, durabilityConstraint);
+                            }
+                            result = calculateScore(nextState.getResources(), recipe, qualityFocus);
+                            offerIncumbent(sp, nextState.getResources(), result, finish);
+                            memo.store(frameResources, stackBuffs[sp], frameHorizon, result, finish[0], false);
+                            sp = pop(sp, result, false);
+                            continue;
+                        }
+                    }
+
+                    stackNextAction[sp] = 0;
+                }
+
+                // 次の実行可能なアクションの子状態を積む
+                boolean pushed = false;
+                while (stackNextAction[sp] < actionTable.size()) {
+                    int a = stackNextAction[sp]++;
+                    nextState.set(frameResources, stackBuffs[sp]);
+                    if (actionTable.apply(a, nextState, durabilityConstraint)) {
+                        push(sp + 1, nextState.getResources(), nextState.getBuffs());
+                        sp++;
+                        pushed = true;
+                        break;
+                    }
+                }
+                if (pushed) {
+                    continue;
+                }
+
+                // すべてのアクションを評価済み（実行可能なアクションがない場合は終端）
+                int bestAction = stackBestAction[sp];
+                result = bestAction >= 0
+                        ? stackBestValue[sp]
+                        : calculateScore(frameResources, recipe, qualityFocus);
+                if (bestAction < 0) {
+                    offerIncumbent(sp, frameResources, result, null);
+                }
+                boolean truncated = stackTruncated[sp];
+                memo.store(frameResources, stackBuffs[sp], frameHorizon, result, bestAction, truncated);
+                sp = pop(sp, result, truncated);
+            }
+            return result;
+        }
+
+        /**
+         * 状態の最良の次アクションを取得（メモから追い出されている場合は再計算）
+         * @return アクション番号、終端の場合または締め切りで打ち切った場合は-1
+         */
+        int bestAction(long resources, long buffs, int horizon) {
+            int slot = memo.find(resources, buffs, horizon);
+            if (slot < 0) {
+                solve(resources, buffs, horizon);
+                if (aborted) {
+                    return -1;
+                }
+                slot = memo.find(resources, buffs, horizon);
+            }
+            return memo.actions[slot];
+        }
+
+        /**
+         * 終端状態のスコアが暫定解を上回る場合、スタック上の経路を暫定解として記録する
+         * 作業進捗を達成した暫定解はリスナーに通知する
+         * @param finish スタック上の経路に続く終盤表の仕上げ（ない場合は null）
+         */
+        private void offerIncumbent(int sp, long resources, double value, int[] finish) {
+            if (!recordIncumbent || value <= incumbentScore) {
+                return;
+            }
+            for (int i = 0; i < sp; i++) {
+                incumbentPath[i] = stackNextAction[i] - 1;
+            }
+            int length = sp;
+            if (finish != null) {
+                System.arraycopy(finish, 0, incumbentPath, sp, finish.length);
+                length += finish.length;
+            }
+            incumbentLength = length;
+            incumbentScore = value;
+
+            if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+                int totalActions = length;
+                context.publish(PackedState.quality(resources), () -> {
+                    List<CraftingAction> actionPath = new ArrayList<>(totalActions);
+                    for (int i = 0; i < totalActions; i++) {
+                        actionPath.add(actionTable.getAction(incumbentPath[i]));
+                    }
+                    return OptimizationResult.builder()
+                            .actionPath(actionPath)
+                            .score(value)
+                            .finalQuality(PackedState.quality(resources))
+                            .finalProgress(PackedState.progress(resources))
+                            .usedCP(PackedState.cp(stackResources[0]) - PackedState.cp(resources))
+                            .totalActions(totalActions)
+                            .exploredStates(exploredStates)
+                            .build();
+                });
+            }
+        }
+
+        private void push(int sp, long resources, long buffs) {
+            stackResources[sp] = resources;
+            stackBuffs[sp] = buffs;
+            stackNextAction[sp] = -1;
+            stackBestAction[sp] = -1;
+            stackBestValue[sp] = Double.NEGATIVE_INFINITY;
+            stackTruncated[sp] = false;
+        }
+
+        /**
+         * フレームを降ろし、評価値を親フレームに反映する
+         * @return 親フレームの位置
+         */
+        private int pop(int sp, double value, boolean truncated) {
+            int parent = sp - 1;
+            if (parent >= 0) {
+                // 親が直前に試したアクションの評価値として比較（同点は番号の小さいアクションを優先）
+                if (value > stackBestValue[parent]) {
+                    stackBestValue[parent] = value;
+                    stackBestAction[parent] = stackNextAction[parent] - 1;
+                }
+                stackTruncated[parent] |= truncated;
+            }
+            return parent;
+        }
+    }
+
+    /**
+     * 容量固定のメモ（オープンアドレス法）
+     * 状態ごとに最良の次アクションと最良スコア、計算時の残り深さを保持する。
+     * 深さの上限で打ち切られた部分木を含む値は、同じ残り深さでのみ再利用する。
+     */
+    private static final class Memo {
+        // 1回の検索で調べるスロット数の上限
+        private static final int MAX_PROBES = 8;
+
+        private final long[] keys;   // [スロット * 2] = resources, [スロット * 2 + 1] = buffs
+        private final double[] values;
+        private final int[] actions;
+        private final int[] horizons; // 計算時の残り深さ（-1は空き）
+        private final boolean[] truncated;
+        private final int mask;
+        private int size;
+
+        Memo(int capacity) {
+            int slots = 1;
+            while (slots < capacity) {
+                slots <<= 1;
+            }
+            this.keys = new long[slots * 2];
+            this.values = new double[slots];
+            this.actions = new int[slots];
+            this.horizons = new int[slots];
+            this.truncated = new boolean[slots];
+            this.mask = slots - 1;
+            Arrays.fill(horizons, -1);
+        }
+
+        /**
+         * 再利用できるエントリを検索
+         * @return スロット番号、見つからない場合は-1
+         */
+        int find(long resources, long buffs, int horizon) {
+            int home = slotOf(resources, buffs);
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int i = (home + probe) & mask;
+                if (horizons[i] < 0) {
+                    return -1;
+                }
+                if (keys[i * 2] == resources && keys[i * 2 + 1] == buffs) {
+                    return !truncated[i] || horizons[i] == horizon ? i : -1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * エントリを記録（探索範囲が埋まっている場合は残り深さが最小のエントリを置換）
+         */
+        void store(long resources, long buffs, int horizon, double value, int action, boolean isTruncated) {
+            int home = slotOf(resources, buffs);
+            int victim = -1;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int i = (home + probe) & mask;
+                if (horizons[i] < 0) {
+                    size++;
+                    victim = i;
+                    break;
+                }
+                if (keys[i * 2] == resources && keys[i * 2 + 1] == buffs) {
+                    victim = i;
+                    break;
+                }
+                if (victim < 0 || horizons[i] < horizons[victim]) {
+                    victim = i;
+                }
+            }
+            keys[victim * 2] = resources;
+            keys[victim * 2 + 1] = buffs;
+            values[victim] = value;
+            actions[victim] = action;
+            horizons[victim] = horizon;
+            truncated[victim] = isTruncated;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int slotOf(long resources, long buffs) {
+            return (int) TranspositionTable.hash(resources, buffs) & mask;
+        }
+    }
+}
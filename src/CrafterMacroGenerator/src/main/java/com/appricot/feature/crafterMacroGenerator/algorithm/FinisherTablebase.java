@@ -0,0 +1,203 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.util.LruCache;
+
+/**
+ * 作業進捗を仕上げる最小コストのアクション列の表（終盤表）
+ * 品質を上げる余地がなくなった後は、残りの作業進捗・耐久度・CPと作業に関係するバフ
+ * （確信・真価発揮・倹約・長期倹約）だけで最良の仕上げが決まる。
+ * 状態ごとの「残りアクション数以内で仕上げる最小コストと最初のアクション」を、
+ * 後続の状態の値から後ろ向きに求めて記録し、探索の末端を表の参照に置き換える。
+ *
+ * 状態の組み合わせはCP・耐久度の値域が広く全件を事前に計算できないため、
+ * 参照された状態から必要な分だけ計算し、容量上限付きのLRUキャッシュに保持する。
+ * コストは仕上げで失う残りCP・耐久度の評価値（{@link #remainingValue(long, int)}）とし、
+ * 品質が同じ完成状態を順位付けする探索（A*・DP）の評価と一致させる。
+ * 遷移テーブルごとに1つ作成し（{@link CompiledActionTable#getFinisherTablebase()}）、スレッド間で共有できる。
+ */
+public final class FinisherTablebase {
+
+    /**
+     * 仕上げに使用するアクション数の上限
+     */
+    public static final int MAX_FINISH_ACTIONS = 10;
+
+    // 仕上げに関係するバフ
+    private static final Set<BuffType> RELEVANT_BUFFS = EnumSet.of(
+            BuffType.WASTE_NOT, BuffType.WASTE_NOT_II, BuffType.VENERATION, BuffType.MUSCLE_MEMORY);
+
+    // 仕上げに関係するバフのビットマスク
+    private static final long RELEVANT_BUFF_MASK = relevantBuffMask();
+
+    // 仕上げられない状態のコスト
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final Entry FINISHED = new Entry(0, -1);
+    private static final Entry NOT_FINISHABLE = new Entry(UNREACHABLE, -1);
+
+    private final CompiledActionTable actionTable;
+    private final int requiredProgress;
+    // 仕上げに使用するアクション（品質を上げず、作業進捗を上げるか仕上げに関係するバフを付与する）
+    private final int[] finishingActions;
+    private final int baseDurability;
+    private final LruCache<Key, Entry> entries;
+
+    /**
+     * @param actionTable 遷移テーブル
+     * @param capacity 記録する状態数の上限
+     */
+    public FinisherTablebase(CompiledActionTable actionTable, int capacity) {
+        this.actionTable = actionTable;
+        this.requiredProgress = actionTable.getRecipe().getRequiredProgress();
+        this.baseDurability = actionTable.getRecipe().getBaseDurability();
+        this.entries = new LruCache<>(capacity);
+
+        List<Integer> finishing = new ArrayList<>();
+        for (int a = 0; a < actionTable.size(); a++) {
+            CraftingAction action = actionTable.getAction(a);
+            if (action.getQualityEfficiency() > 0) {
+                continue;
+            }
+            if (action.getProgressEfficiency() > 0 || RELEVANT_BUFFS.contains(action.getGrantedBuff())) {
+                finishing.add(a);
+            }
+        }
+        this.finishingActions = finishing.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 完成状態の残りCP・耐久度の評価値（品質が同じ完成状態の順位付けに使用）
+     * 残りCP1000と残り耐久度（初期耐久度）を同じ重みとし、整数で比較できるよう
+     * 「残りCP×初期耐久度 ＋ 残り耐久度×1000」とする（耐久度が0未満の場合は0とみなす）。
+     * @param resources 圧縮状態（リソース）
+     * @param baseDurability 初期耐久度
+     */
+    public static long remainingValue(long resources, int baseDurability) {
+        return (long) PackedState.cp(resources) * baseDurability
+                + (long) Math.max(PackedState.durability(resources), 0) * 1000;
+    }
+
+    /**
+     * 完成状態の評価（品質優先）
+     * 品質を最優先し、同じ品質の間だけ残りCP・耐久度（{@link #remainingValue(long, int)}）で比較する。
+     * 残りCP・耐久度の分は1未満のため、品質の上限が暫定解の品質に届かない状態は評価でも暫定解を上回らない。
+     * @param resources 圧縮状態（リソース）
+     * @param baseDurability 初期耐久度
+     */
+    public static double completedScore(long resources, int baseDurability) {
+        long maxRemainingValue = (long) PackedState.MAX_CP * baseDurability
+                + (long) PackedState.MAX_DURABILITY * 1000;
+        return PackedState.quality(resources)
+                + (double) remainingValue(resources, baseDurability) / (maxRemainingValue + 1);
+    }
+
+    /**
+     * 状態から作業進捗を達成する最小コストのアクション列を取得
+     * 表は仕上げに関係しないバフを無視して作成するため、実際の状態に順に適用して実行できることを確認する。
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @param maxActions 使用できるアクション数の上限（{@link #MAX_FINISH_ACTIONS} を超える分は無視）
+     * @param durabilityConstraint 耐久度を0にしない制約
+     * @return アクション番号の列（達成済みの場合は空）、上限内で仕上げられない場合は null
+     */
+    public int[] lookup(long resources, long buffs, int maxActions, boolean durabilityConstraint) {
+        int limit = Math.min(maxActions, MAX_FINISH_ACTIONS);
+        if (solve(normalize(resources), buffs & RELEVANT_BUFF_MASK, limit, durabilityConstraint).cost == UNREACHABLE) {
+            return null;
+        }
+
+        // 最初のアクションをたどって列を復元
+        int[] path = new int[limit];
+        int length = 0;
+        PackedState state = new PackedState(resources, buffs);
+        while (PackedState.progress(state.getResources()) < requiredProgress) {
+            Entry entry = solve(normalize(state.getResources()), state.getBuffs() & RELEVANT_BUFF_MASK,
+                    limit - length, durabilityConstraint);
+            if (entry.action < 0 || !actionTable.apply(entry.action, state, durabilityConstraint)) {
+                return null;
+            }
+            path[length++] = entry.action;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * 記録している状態数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 残りアクション数以内で仕上げる最小コストと最初のアクション（後続の状態の値から求める）
+     */
+    private Entry solve(long resources, long buffs, int remainingActions, boolean durabilityConstraint) {
+        if (PackedState.progress(resources) >= requiredProgress) {
+            return FINISHED;
+        }
+        if (remainingActions == 0 || PackedState.durability(resources) <= 0) {
+            return NOT_FINISHABLE;
+        }
+        Key key = new Key(resources, buffs, remainingActions, durabilityConstraint);
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // キャッシュの計算中に再帰でキャッシュを更新するため、computeIfAbsent は使用しない
+        int bestCost = UNREACHABLE;
+        int bestAction = -1;
+        PackedState next = new PackedState();
+        for (int a : finishingActions) {
+            next.set(resources, buffs);
+            if (!actionTable.apply(a, next, durabilityConstraint)) {
+                continue;
+            }
+            Entry rest = solve(normalize(next.getResources()), next.getBuffs() & RELEVANT_BUFF_MASK,
+                    remainingActions - 1, durabilityConstraint);
+            if (rest.cost == UNREACHABLE) {
+                continue;
+            }
+            // 仕上げで失う評価値（倹約で耐久度消費が変わるため、実際の遷移から求める）
+            int cost = (int) (remainingValue(resources, baseDurability)
+                    - remainingValue(next.getResources(), baseDurability)) + rest.cost;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestAction = a;
+            }
+        }
+        Entry entry = bestAction >= 0 ? new Entry(bestCost, bestAction) : NOT_FINISHABLE;
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 仕上げに関係しない品質を除いた圧縮状態
+     */
+    private static long normalize(long resources) {
+        return PackedState.withQuality(resources, 0);
+    }
+
+    private static long relevantBuffMask() {
+        long mask = 0L;
+        for (BuffType type : RELEVANT_BUFFS) {
+            mask = PackedState.withBuffTurns(mask, type, (int) PackedState.BUFF_MASK);
+        }
+        return mask;
+    }
+
+    private record Key(long resources, long buffs, int remainingActions, boolean durabilityConstraint) {
+    }
+
+    private record Entry(int cost, int action) {
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
 import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
 import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
 
 /**
@@ -12,21 +13,64 @@ import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
  */
 public interface MacroOptimizer {
     
+    /**
+     * 遷移テーブルを使用して最適なマクロパスを探索する
+     * 締め切りを過ぎるか中断が要求された場合は、それまでに見つけた最良のマクロを
+     * {@link OptimizationResult#isBudgetLimited()} を true にして返す。
+     * @param initialState 初期状態
+     * @param actionTable 利用可能なアクションとレシピから作成した遷移テーブル
+     * @param qualityFocus 品質優先フラグ
+     * @param durabilityConstraint 耐久度制約フラグ
+     * @param context 探索の実行予算
+     * @return 最適化結果
+     */
+    OptimizationResult findOptimalMacroPath(
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            boolean qualityFocus, 
+            boolean durabilityConstraint,
+            SearchContext context);
+    
+    /**
+     * 遷移テーブルを使用して最適なマクロパスを探索する（締め切りなし）
+     * @param initialState 初期状態
+     * @param actionTable 利用可能なアクションとレシピから作成した遷移テーブル
+     * @param qualityFocus 品質優先フラグ
+     * @param durabilityConstraint 耐久度制約フラグ
+     * @return 最適化結果
+     */
+    default OptimizationResult findOptimalMacroPath(
+            CraftingState initialState, 
+            CompiledActionTable actionTable, 
+            boolean qualityFocus, 
+            boolean durabilityConstraint) {
+        return findOptimalMacroPath(
+                initialState, actionTable, qualityFocus, durabilityConstraint, SearchContext.unlimited());
+    }
+    
     /**
      * 最適なマクロパスを探索する
      * @param initialState 初期状態
+     * @param playerStatus プレイヤーステータス
      * @param availableActions 利用可能なアクション
      * @param recipe レシピ情報
      * @param qualityFocus 品質優先フラグ
      * @param durabilityConstraint 耐久度制約フラグ
      * @return 最適化結果
      */
-    OptimizationResult findOptimalMacroPath(
+    default OptimizationResult findOptimalMacroPath(
             CraftingState initialState, 
+            PlayerStatus playerStatus, 
             List<CraftingAction> availableActions, 
             Recipe recipe, 
             boolean qualityFocus, 
-            boolean durabilityConstraint);
+            boolean durabilityConstraint) {
+        return findOptimalMacroPath(
+                initialState, 
+                CompiledActionTable.compile(playerStatus, recipe, availableActions), 
+                qualityFocus, 
+                durabilityConstraint);
+    }
     
     /**
      * 探索した状態の数を取得
@@ -0,0 +1,331 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+
+/**
+ * マクロの序盤（定跡）のアクション列の表
+ * 多くのマクロは同じ数手で始まるため、ステータス帯・レシピ区分・使用できるスキル・探索条件ごとに
+ * 事前に求めた最良マクロの先頭数手と、その到達状態を記録する。
+ * 探索時は序盤を表の手順で進め、残りの手順のみを探索する。
+ *
+ * ステータス帯とレシピ区分は、遷移テーブルの基本値に対するレシピの数値の比（必要な手数）で分ける。
+ * 同じ区分でも実際のステータスでは手順を実行できない場合があるため、
+ * 使用時は必ず {@link #replay} で実際の初期状態に適用して確認する。
+ *
+ * ファイルは先頭のマジックナンバーとバージョンで形式を確認するバイナリ形式で、
+ * スキル名を1回だけ記録し、手順はスキル名の番号の列で保持する。
+ * 作成後は変更しないため、スレッド間で共有できる。
+ */
+public final class OpeningBook {
+
+    /**
+     * ファイル形式のバージョン（形式を変更した場合は上げる）
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    // ファイル先頭のマジックナンバー（"OBK" + 0）
+    private static final int MAGIC = 0x4F424B00;
+
+    // CPの帯の幅
+    private static final int CP_TIER_WIDTH = 50;
+
+    // 品質の手数の区分の幅
+    private static final int QUALITY_STEP_WIDTH = 5;
+
+    private static final OpeningBook EMPTY = new OpeningBook(Map.of());
+
+    private final Map<Key, Opening> openings;
+
+    private OpeningBook(Map<Key, Opening> openings) {
+        this.openings = openings;
+    }
+
+    /**
+     * 定跡のない表
+     */
+    public static OpeningBook empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 定跡の一覧から表を作成する（同じキーは先のものを優先）
+     */
+    public static OpeningBook of(List<Opening> openings) {
+        Map<Key, Opening> map = new LinkedHashMap<>();
+        for (Opening opening : openings) {
+            map.putIfAbsent(opening.key(), opening);
+        }
+        return new OpeningBook(Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * 遷移テーブル・初期状態・探索条件から表のキーを作成
+     * @param actionTable 遷移テーブル（ステータスから算出した基本値・レシピ・アクション）
+     * @param initialState 初期状態（CPを使用）
+     * @param qualityFocus 品質優先フラグ
+     * @param durabilityConstraint 耐久度制約フラグ
+     * @return 表のキー
+     */
+    public static Key keyOf(
+            CompiledActionTable actionTable,
+            CraftingState initialState,
+            boolean qualityFocus,
+            boolean durabilityConstraint) {
+        int requiredProgress = actionTable.getRecipe().getRequiredProgress();
+        int maxQuality = actionTable.getRecipe().getMaxQuality();
+        return new Key(
+                initialState.getCurrentCP() / CP_TIER_WIDTH,
+                ceilDiv(requiredProgress, actionTable.getBaseProgress()),
+                ceilDiv(maxQuality, actionTable.getBaseQuality()) / QUALITY_STEP_WIDTH,
+                actionTable.getRecipe().getBaseDurability(),
+                skillSetHash(actionTable),
+                qualityFocus,
+                durabilityConstraint);
+    }
+
+    /**
+     * 使用できるスキルの組み合わせのハッシュ（スキル名を並べ替えた FNV-1a）
+     */
+    static long skillSetHash(CompiledActionTable actionTable) {
+        List<String> names = new ArrayList<>(actionTable.size());
+        for (int a = 0; a < actionTable.size(); a++) {
+            names.add(actionTable.getAction(a).getName());
+        }
+        Collections.sort(names);
+
+        long hash = 0xcbf29ce484222325L;
+        for (String name : names) {
+            for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            // スキル名の区切り
+            hash = (hash ^ 0xff) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * キーに対応する定跡を取得
+     * @return 定跡、ない場合は null
+     */
+    public Opening find(Key key) {
+        return openings.get(key);
+    }
+
+    /**
+     * 定跡の手順を初期状態に順に適用する
+     * @param opening 定跡
+     * @param actionTable 遷移テーブル
+     * @param initialState 初期状態
+     * @param durabilityConstraint 耐久度制約フラグ
+     * @return 手順を適用した状態、テーブルにないスキルを含むか実行できない場合は null
+     */
+    public static PackedState replay(
+            Opening opening,
+            CompiledActionTable actionTable,
+            CraftingState initialState,
+            boolean durabilityConstraint) {
+        PackedState state = PackedState.of(initialState);
+        for (String name : opening.actionNames()) {
+            int a = actionTable.indexOf(name);
+            if (a < 0 || !actionTable.apply(a, state, durabilityConstraint)) {
+                return null;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 定跡の手順をアクションに変換
+     * @throws IllegalArgumentException テーブルにないスキルを含む場合
+     */
+    public static List<CraftingAction> actionsOf(Opening opening, CompiledActionTable actionTable) {
+        List<CraftingAction> actions = new ArrayList<>(opening.actionNames().size());
+        for (String name : opening.actionNames()) {
+            int a = actionTable.indexOf(name);
+            if (a < 0) {
+                throw new IllegalArgumentException("Unknown action: " + name);
+            }
+            actions.add(actionTable.getAction(a));
+        }
+        return actions;
+    }
+
+    /**
+     * 記録している定跡の数
+     */
+    public int size() {
+        return openings.size();
+    }
+
+    /**
+     * ファイルから読み込む
+     * @throws IOException 読み込みに失敗した場合、形式・バージョンが異なる場合
+     */
+    public static OpeningBook read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * ストリームから読み込む
+     * @throws IOException 読み込みに失敗した場合、形式・バージョンが異なる場合
+     */
+    public static OpeningBook read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an opening book file");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported opening book version: " + version);
+        }
+
+        String[] names = new String[data.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = data.readUTF();
+        }
+
+        int count = data.readInt();
+        List<Opening> openings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = data.readUnsignedByte();
+            Key key = new Key(
+                    data.readInt(),
+                    data.readInt(),
+                    data.readInt(),
+                    data.readInt(),
+                    data.readLong(),
+                    (flags & 1) != 0,
+                    (flags & 2) != 0);
+            long resources = data.readLong();
+            long buffs = data.readLong();
+            int length = data.readUnsignedByte();
+            List<String> actionNames = new ArrayList<>(length);
+            for (int j = 0; j < length; j++) {
+                actionNames.add(names[data.readUnsignedShort()]);
+            }
+            openings.add(new Opening(key, List.copyOf(actionNames), resources, buffs));
+        }
+        return of(openings);
+    }
+
+    /**
+     * ファイルに書き込む（親ディレクトリがない場合は作成）
+     */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    /**
+     * ストリームに書き込む（同じ内容の表からは同じバイト列を出力するよう、キーの順に並べる）
+     */
+    public void write(OutputStream out) throws IOException {
+        List<Opening> sorted = new ArrayList<>(openings.values());
+        sorted.sort(Comparator.comparing(Opening::key, Key.ORDER));
+
+        // スキル名の番号（名前順）
+        TreeSet<String> names = new TreeSet<>();
+        for (Opening opening : sorted) {
+            names.addAll(opening.actionNames());
+        }
+        Map<String, Integer> nameIndex = new HashMap<>();
+        for (String name : names) {
+            nameIndex.put(name, nameIndex.size());
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(names.size());
+        for (String name : names) {
+            data.writeUTF(name);
+        }
+        data.writeInt(sorted.size());
+        for (Opening opening : sorted) {
+            Key key = opening.key();
+            data.writeByte((key.qualityFocus() ? 1 : 0) | (key.durabilityConstraint() ? 2 : 0));
+            data.writeInt(key.cpTier());
+            data.writeInt(key.progressSteps());
+            data.writeInt(key.qualityTier());
+            data.writeInt(key.durability());
+            data.writeLong(key.skillSetHash());
+            data.writeLong(opening.resources());
+            data.writeLong(opening.buffs());
+            data.writeByte(opening.actionNames().size());
+            for (String name : opening.actionNames()) {
+                data.writeShort(nameIndex.get(name));
+            }
+        }
+        data.flush();
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return divisor <= 0 ? 0 : (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * 表のキー
+     * @param cpTier CPの帯
+     * @param progressSteps 効率100%の作業で作業進捗を達成する手数
+     * @param qualityTier 効率100%の加工で最大品質に達する手数の区分
+     * @param durability レシピの耐久度
+     * @param skillSetHash 使用できるスキルの組み合わせのハッシュ
+     * @param qualityFocus 品質優先フラグ
+     * @param durabilityConstraint 耐久度制約フラグ
+     */
+    public record Key(
+            int cpTier,
+            int progressSteps,
+            int qualityTier,
+            int durability,
+            long skillSetHash,
+            boolean qualityFocus,
+            boolean durabilityConstraint) {
+
+        static final Comparator<Key> ORDER = Comparator.comparingInt(Key::cpTier)
+                .thenComparingInt(Key::progressSteps)
+                .thenComparingInt(Key::qualityTier)
+                .thenComparingInt(Key::durability)
+                .thenComparingLong(Key::skillSetHash)
+                .thenComparing(Key::qualityFocus)
+                .thenComparing(Key::durabilityConstraint);
+    }
+
+    /**
+     * 定跡
+     * @param key 表のキー
+     * @param actionNames 序盤の手順（スキル名）
+     * @param resources 作成時の条件で手順を適用した状態（リソース）
+     * @param buffs 作成時の条件で手順を適用した状態（バフ）
+     */
+    public record Opening(Key key, List<String> actionNames, long resources, long buffs) {
+    }
+}
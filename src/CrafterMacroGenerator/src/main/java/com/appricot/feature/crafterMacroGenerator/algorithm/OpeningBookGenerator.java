@@ -0,0 +1,122 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook.Opening;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 定跡の表（{@link OpeningBook}）をオフラインで作成するクラス
+ * 条件（ステータス・レシピ・探索条件）ごとに最良のマクロを探索し、先頭の数手を定跡として記録する。
+ * 条件ごとの探索は独立しているため、全コアで並列に実行する。
+ */
+@Slf4j
+public class OpeningBookGenerator {
+
+    private final MacroOptimizer optimizer;
+    private final int prefixLength;
+    private final long maxExecutionTimeMs;
+
+    /**
+     * @param optimizer 最良のマクロの探索に使用するオプティマイザー
+     * @param prefixLength 定跡として記録する手数
+     * @param maxExecutionTimeMs 条件ごとの最大実行時間（ミリ秒）、0以下の場合は無制限
+     */
+    public OpeningBookGenerator(MacroOptimizer optimizer, int prefixLength, long maxExecutionTimeMs) {
+        if (prefixLength <= 0 || prefixLength > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("prefixLength must be between 1 and 127: " + prefixLength);
+        }
+        this.optimizer = optimizer;
+        this.prefixLength = prefixLength;
+        this.maxExecutionTimeMs = maxExecutionTimeMs;
+    }
+
+    /**
+     * 条件ごとに定跡を作成する
+     * 同じキーになる条件が複数ある場合は一覧の先のものを使用する。
+     * @param scenarios 条件の一覧
+     * @param actions 使用できるアクション
+     * @return 定跡の表（作業進捗を達成できなかった条件は含まない）
+     */
+    public OpeningBook generate(List<Scenario> scenarios, List<CraftingAction> actions) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Opening> openings = pool.submit(() -> scenarios.parallelStream()
+                    .map(scenario -> generate(scenario, actions))
+                    .filter(Objects::nonNull)
+                    .toList()).join();
+            log.info("定跡を作成: 条件数 = {}, 定跡数 = {}", scenarios.size(), openings.size());
+            return OpeningBook.of(openings);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 1つの条件の定跡を作成
+     * @return 定跡、作業進捗を達成できない場合は null
+     */
+    Opening generate(Scenario scenario, List<CraftingAction> actions) {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                scenario.playerStatus(), scenario.recipe(), actions);
+        CraftingState initialState = CraftingState.builder()
+                .currentProgress(0)
+                .currentQuality(0)
+                .remainingDurability(scenario.recipe().getBaseDurability())
+                .currentCP(scenario.playerStatus().getCp())
+                .appliedBuffs(new ArrayList<>())
+                .usedActions(new ArrayList<>())
+                .build();
+
+        OptimizationResult result = optimizer.findOptimalMacroPath(
+                initialState,
+                actionTable,
+                scenario.qualityFocus(),
+                scenario.durabilityConstraint(),
+                SearchContext.withTimeout(maxExecutionTimeMs));
+        if (result.getFinalProgress() < scenario.recipe().getRequiredProgress()) {
+            return null;
+        }
+
+        // 残りの探索が1手以上残るよう、最後の手は定跡に含めない
+        int length = Math.min(prefixLength, result.getActionPath().size() - 1);
+        if (length <= 0) {
+            return null;
+        }
+        List<String> actionNames = result.getActionPath().subList(0, length).stream()
+                .map(CraftingAction::getName)
+                .toList();
+        OpeningBook.Key key = OpeningBook.keyOf(
+                actionTable, initialState, scenario.qualityFocus(), scenario.durabilityConstraint());
+        Opening opening = new Opening(key, actionNames, 0L, 0L);
+        PackedState state = OpeningBook.replay(opening, actionTable, initialState, scenario.durabilityConstraint());
+        if (state == null) {
+            return null;
+        }
+        return new Opening(key, actionNames, state.getResources(), state.getBuffs());
+    }
+
+    /**
+     * 定跡を作成する条件
+     * @param playerStatus プレイヤーステータス（ステータス帯の代表値）
+     * @param recipe レシピ
+     * @param qualityFocus 品質優先フラグ
+     * @param durabilityConstraint 耐久度制約フラグ
+     */
+    public record Scenario(
+            PlayerStatus playerStatus,
+            Recipe recipe,
+            boolean qualityFocus,
+            boolean durabilityConstraint) {
+    }
+}
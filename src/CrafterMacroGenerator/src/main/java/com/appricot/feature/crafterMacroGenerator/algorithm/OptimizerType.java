@@ -0,0 +1,11 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+/**
+ * 最適化アルゴリズムの種類（設定ファイルでの選択に使用）
+ */
+public enum OptimizerType {
+    A_STAR,               // A*
+    BEAM_SEARCH,          // ビームサーチ
+    DYNAMIC_PROGRAMMING,  // 動的計画法
+    PORTFOLIO             // 複数のアルゴリズムを同時に実行して最良の結果を採用
+}
@@ -0,0 +1,64 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+
+/**
+ * 探索ノードのアクション経路（親ポインタの連鎖）
+ * 子ノードは親の経路を共有し、追加したアクション1つ分だけを確保する。
+ * リストへの展開は最良ノードの結果作成時にのみ行う。
+ */
+final class PathNode {
+
+    // 空の経路（探索の開始ノード）
+    static final PathNode ROOT = new PathNode(null, null, 0);
+
+    private final PathNode parent;
+    private final CraftingAction action;
+    private final int length;
+
+    private PathNode(PathNode parent, CraftingAction action, int length) {
+        this.parent = parent;
+        this.action = action;
+        this.length = length;
+    }
+
+    /**
+     * この経路の末尾にアクションを追加した経路を作成
+     * @param nextAction 追加するアクション
+     * @return 新しい経路（この経路は変更されない）
+     */
+    PathNode append(CraftingAction nextAction) {
+        return new PathNode(this, nextAction, length + 1);
+    }
+
+    /**
+     * 経路のアクション数
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * 末尾のアクション（空の経路の場合はnull）
+     */
+    CraftingAction lastAction() {
+        return action;
+    }
+
+    /**
+     * 先頭から順に並べたアクションのリストに展開
+     * @return アクションのリスト
+     */
+    List<CraftingAction> toList() {
+        List<CraftingAction> actions = new ArrayList<>(length);
+        for (PathNode node = this; node.length > 0; node = node.parent) {
+            actions.add(node.action);
+        }
+        Collections.reverse(actions);
+        return actions;
+    }
+}
@@ -0,0 +1,168 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 複数の最適化アルゴリズムを仮想スレッドで同時に実行し、最良の結果を採用する実装
+ * レシピによって有利なアルゴリズムが異なるため、1つを選ぶ代わりに同じ予算で競わせる。
+ * 各アルゴリズムは {@link SearchContext#fork()} で作成した子で実行し、締め切りと暫定解の品質を共有する
+ * （他のアルゴリズムが見つけたマクロの品質に届かない状態を枝刈りできる）。
+ * アルゴリズムごとにスコアの尺度が異なるため、結果は共通の順位付けで比較する。
+ * 1つのアルゴリズムが探索を完了した時点で、他のアルゴリズムは中断してそれまでの結果を使用する。
+ */
+@Slf4j
+public class PortfolioOptimizer implements MacroOptimizer {
+
+    private final List<MacroOptimizer> strategies;
+
+    // 探索状態数カウンター（全アルゴリズムの合計）
+    private int exploredStatesCount;
+
+    /**
+     * @param strategies 同時に実行するアルゴリズム
+     */
+    public PortfolioOptimizer(List<MacroOptimizer> strategies) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("strategies must not be empty");
+        }
+        this.strategies = List.copyOf(strategies);
+    }
+
+    @Override
+    public OptimizationResult findOptimalMacroPath(
+            CraftingState initialState,
+            CompiledActionTable actionTable,
+            boolean qualityFocus,
+            boolean durabilityConstraint,
+            SearchContext context) {
+
+        Comparator<OptimizationResult> ranking = ranking(actionTable.getRecipe(), qualityFocus);
+
+        // 各アルゴリズムの改善通知は、全体の最良を更新した場合のみ呼び出し元へ転送する
+        Object lock = new Object();
+        OptimizationResult[] published = new OptimizationResult[1];
+        List<SearchContext> children = new ArrayList<>(strategies.size());
+        for (int i = 0; i < strategies.size(); i++) {
+            SearchContext child = context.fork();
+            child.setListener(incumbent -> {
+                synchronized (lock) {
+                    if (published[0] == null || ranking.compare(incumbent, published[0]) > 0) {
+                        published[0] = incumbent;
+                        context.publish(incumbent.getFinalQuality(), () -> incumbent);
+                    }
+                }
+            });
+            children.add(child);
+        }
+
+        // 結果は設定順に並べる（同順位の比較で設定順を使用する）
+        OptimizationResult[] results = new OptimizationResult[strategies.size()];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Integer>> futures = new ArrayList<>(strategies.size());
+            for (int i = 0; i < strategies.size(); i++) {
+                int index = i;
+                MacroOptimizer strategy = strategies.get(i);
+                SearchContext child = children.get(i);
+                futures.add(completion.submit(() -> {
+                    results[index] = strategy.findOptimalMacroPath(
+                            initialState, actionTable, qualityFocus, durabilityConstraint, child);
+                    return index;
+                }));
+            }
+
+            // 終了した順に受け取り、探索を完了したアルゴリズムがあれば他のアルゴリズムを中断する
+            // （中断されたアルゴリズムはそれまでの最良の結果を返す）
+            try {
+                for (int i = 0; i < strategies.size(); i++) {
+                    Future<Integer> done = completion.take();
+                    try {
+                        OptimizationResult result = results[done.get()];
+                        if (!result.isBudgetLimited()) {
+                            children.forEach(SearchContext::cancel);
+                        }
+                    } catch (ExecutionException e) {
+                        log.warn("最適化アルゴリズムが失敗しました: {}",
+                                strategies.get(futures.indexOf(done)).getClass().getSimpleName(), e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // 実行器が全タスクの終了を待つ前に、実行中のアルゴリズムを中断
+                children.forEach(SearchContext::cancel);
+            }
+        }
+
+        // 共通の順位付けで最良の結果を採用（同順位は設定順で先のアルゴリズムを優先）
+        // 探索を完了したアルゴリズムが1つでもあれば、打ち切りとはみなさない
+        OptimizationResult best = null;
+        int explored = 0;
+        boolean budgetLimited = true;
+        for (OptimizationResult result : results) {
+            if (result == null) {
+                continue;
+            }
+            if (best == null || ranking.compare(result, best) > 0) {
+                best = result;
+            }
+            explored += result.getExploredStates();
+            budgetLimited &= result.isBudgetLimited();
+        }
+        if (best == null) {
+            throw new IllegalStateException("All optimization strategies failed");
+        }
+        exploredStatesCount = explored;
+
+        log.debug("ポートフォリオ探索: 探索状態数 = {}, 打ち切り = {}", explored, budgetLimited);
+
+        return OptimizationResult.builder()
+                .actionPath(best.getActionPath())
+                .score(best.getScore())
+                .finalQuality(best.getFinalQuality())
+                .finalProgress(best.getFinalProgress())
+                .usedCP(best.getUsedCP())
+                .totalActions(best.getTotalActions())
+                .exploredStates(explored)
+                .budgetLimited(budgetLimited)
+                .build();
+    }
+
+    /**
+     * アルゴリズムによらない結果の順位付け（大きいほど良い）
+     * 作業進捗の達成を最優先とし、品質優先の場合は「品質 → 消費CP → アクション数」、
+     * 進捗優先の場合は「アクション数 → 品質 → 消費CP」の順で比較する。
+     */
+    static Comparator<OptimizationResult> ranking(Recipe recipe, boolean qualityFocus) {
+        int requiredProgress = recipe.getRequiredProgress();
+        Comparator<OptimizationResult> progress = Comparator
+                .comparingInt((OptimizationResult r) -> Math.min(r.getFinalProgress(), requiredProgress));
+        Comparator<OptimizationResult> quality = Comparator.comparingInt(OptimizationResult::getFinalQuality);
+        Comparator<OptimizationResult> cp = Comparator.comparingInt(OptimizationResult::getUsedCP).reversed();
+        Comparator<OptimizationResult> length = Comparator.comparingInt(OptimizationResult::getTotalActions).reversed();
+
+        if (qualityFocus) {
+            return progress.thenComparing(quality).thenComparing(cp).thenComparing(length);
+        }
+        return progress.thenComparing(length).thenComparing(quality).thenComparing(cp);
+    }
+
+    @Override
+    public int getExploredStatesCount() {
+        return exploredStatesCount;
+    }
+}
@@ -0,0 +1,163 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+
+/**
+ * 1回の探索の実行予算（締め切りと中断要求）
+ * 締め切りは単調増加する System.nanoTime() で管理し、壁時計の変更の影響を受けない。
+ * 最適化アルゴリズムはホットループで {@link #CHECK_INTERVAL} 回ごとに {@link #isExpired()} を確認し、
+ * 予算切れの場合はそれまでに見つけた最良のマクロを返す。
+ * リスナーを設定した場合、探索中により良いマクロが見つかるたびに通知する。
+ *
+ * {@link #fork()} で作成した子は締め切りと暫定解（作業進捗を達成したマクロの最高品質）を親と共有し、
+ * 親の中断に従う。複数の探索を同時に実行する場合、各探索は他の探索の暫定解を枝刈りに使用できる。
+ */
+public final class SearchContext {
+
+    /**
+     * ホットループで締め切りを確認する間隔（2のべき乗、探索状態数に対するマスクとして使用）
+     */
+    public static final int CHECK_INTERVAL = 1 << 10;
+
+    /**
+     * 暫定解がない場合の品質
+     */
+    public static final int NO_INCUMBENT = -1;
+
+    // 締め切り（System.nanoTime() 基準）、無制限の場合は null
+    private final Long deadlineNanos;
+
+    // 親（fork で作成した場合のみ）
+    private final SearchContext parent;
+
+    // 作業進捗を達成したマクロの最高品質（親子で共有）
+    private final AtomicInteger incumbentQuality;
+
+    private volatile boolean cancelled;
+
+    // 満たした場合に中断したとみなす条件、ない場合は null
+    private volatile BooleanSupplier cancelCondition;
+
+    private volatile SearchListener listener;
+
+    private SearchContext(Long deadlineNanos, SearchContext parent, AtomicInteger incumbentQuality) {
+        this.deadlineNanos = deadlineNanos;
+        this.parent = parent;
+        this.incumbentQuality = incumbentQuality;
+    }
+
+    /**
+     * 締め切りのない探索
+     */
+    public static SearchContext unlimited() {
+        return new SearchContext(null, null, new AtomicInteger(NO_INCUMBENT));
+    }
+
+    /**
+     * 現在時刻から指定時間後を締め切りとする探索
+     * @param maxExecutionTimeMs 最大実行時間（ミリ秒）、0以下の場合は無制限
+     */
+    public static SearchContext withTimeout(long maxExecutionTimeMs) {
+        if (maxExecutionTimeMs <= 0) {
+            return unlimited();
+        }
+        return new SearchContext(
+                System.nanoTime() + maxExecutionTimeMs * 1_000_000L, null, new AtomicInteger(NO_INCUMBENT));
+    }
+
+    /**
+     * 締め切りと暫定解を共有する子を作成する（リスナーは引き継がない）
+     * 子の中断は親に影響しないが、親の中断は子に伝わる。
+     */
+    public SearchContext fork() {
+        return new SearchContext(deadlineNanos, this, incumbentQuality);
+    }
+
+    /**
+     * 締め切りだけを共有する別の探索を作成する（中断・暫定解・リスナーは引き継がない）
+     * 複数の呼び出し元で1つの探索を共有する場合に、呼び出し元の中断と切り離して使用する。
+     */
+    public SearchContext detach() {
+        return new SearchContext(deadlineNanos, null, new AtomicInteger(NO_INCUMBENT));
+    }
+
+    /**
+     * 条件を満たした場合に中断したとみなす（探索開始前に設定すること）
+     * 条件は中断・締め切りの確認ごとに評価するため、軽い処理にすること。
+     */
+    public SearchContext cancelWhen(BooleanSupplier condition) {
+        this.cancelCondition = condition;
+        return this;
+    }
+
+    /**
+     * 探索の中断を要求する（他のスレッドから呼び出し可能）
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        if (cancelled || (parent != null && parent.isCancelled())) {
+            return true;
+        }
+        BooleanSupplier condition = cancelCondition;
+        return condition != null && condition.getAsBoolean();
+    }
+
+    /**
+     * 改善通知のリスナーを設定する（探索開始前に設定すること）
+     */
+    public SearchContext setListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 作業進捗を達成したより良いマクロが見つかったことを記録し、リスナーに通知する
+     * @param quality マクロの最終品質（暫定解の更新に使用）
+     * @param incumbent 最良のマクロ（リスナーがある場合のみ構築）
+     */
+    public void publish(int quality, Supplier<OptimizationResult> incumbent) {
+        incumbentQuality.accumulateAndGet(quality, Math::max);
+        SearchListener current = listener;
+        if (current != null) {
+            current.onImprovement(incumbent.get());
+        }
+    }
+
+    /**
+     * 共有している暫定解の品質（他の探索が見つけたものを含む）
+     * @return 作業進捗を達成したマクロの最高品質、ない場合は {@link #NO_INCUMBENT}
+     */
+    public int getIncumbentQuality() {
+        return incumbentQuality.get();
+    }
+
+    /**
+     * 締め切りを過ぎたか、中断が要求されたか
+     */
+    public boolean isExpired() {
+        return isCancelled() || (deadlineNanos != null && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * 締め切りまでの残り時間
+     * @return 残り時間（ナノ秒、過ぎた場合は0以下）、締め切りがない場合は Long.MAX_VALUE
+     */
+    public long remainingNanos() {
+        return deadlineNanos == null ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * 探索状態数が確認の間隔に達した場合のみ締め切りを確認する
+     * @param exploredStates これまでの探索状態数
+     */
+    public boolean isExpired(int exploredStates) {
+        return (exploredStates & (CHECK_INTERVAL - 1)) == 0 && isExpired();
+    }
+}
@@ -0,0 +1,16 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+
+/**
+ * 探索中により良いマクロ（作業進捗を達成したもの）が見つかるたびに通知を受けるリスナー
+ * 最適化アルゴリズムの探索スレッドから呼び出されるため、重い処理は避けること
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * @param incumbent その時点での最良のマクロ
+     */
+    void onImprovement(OptimizationResult incumbent);
+}
@@ -10,7 +10,11 @@ import org.springframework.stereotype.Service;
 import com.appricot.exception.MacroGenerationException;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
-import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationStatus;
+import com.appricot.util.PerformanceUtils;
+import com.appricot.util.PerformanceUtils.ParallelSearchTask;
 
 /**
  * クラフトシミュレーターサービス
@@ -22,135 +26,71 @@ public class SimulatorService {
     
     /**
      * アクションシーケンスをシミュレート
+     * 生成・一括シミュレーションと同じ遷移テーブルで実行する（ステータスから求めた上昇量を使用）。
      * @param initialState 初期状態
+     * @param actionTable 遷移テーブル（プレイヤーステータス・レシピ・利用可能なアクションから作成）
      * @param actions シミュレートするアクション配列
-     * @param recipe レシピ情報
      * @return シミュレーション結果（各ステップの状態リスト）
+     * @throws MacroGenerationException 遷移テーブルにないアクション・実行できないアクションが含まれる場合
      */
     public List<CraftingState> simulateActionSequence(
             CraftingState initialState,
-            List<CraftingAction> actions,
-            Recipe recipe) {
-        
-        List<CraftingState> stateHistory = new ArrayList<>();
-        
-        // 初期状態をコピー
-        CraftingState currentState = initialState.clone();
-        stateHistory.add(currentState.clone());
-        
-        // 各アクションを順に適用
-        for (CraftingAction action : actions) {
-            // アクションが実行可能かチェック
-            if (!action.canExecute(currentState)) {
-                throw new MacroGenerationException(
-                        "アクション '" + action.getName() + "' は現在の状態では実行できません");
-            }
-            
-            // アクションを適用
-            currentState = action.apply(currentState);
-            
-            // バフの持続時間を減少
-            decrementBuffDurations(currentState);
-            
-            // 使用したアクションを記録
-            currentState.getUsedActions().add(action.getName());
-            
-            // 状態履歴に追加
-            stateHistory.add(currentState.clone());
-            
-            // 耐久度チェック
-            if (currentState.getRemainingDurability() <= 0) {
-                break;
-            }
-            
-            // 作業進捗達成チェック
-            if (currentState.getCurrentProgress() >= recipe.getRequiredProgress()) {
-                break;
-            }
-        }
-        
-        return stateHistory;
+            CompiledActionTable actionTable,
+            List<CraftingAction> actions) {
+        return simulateSkillNameSequence(
+                initialState, actionTable, actions.stream().map(CraftingAction::getName).toList());
     }
     
     /**
      * 指定されたスキル名のシーケンスをシミュレート
+     * 耐久度切れ・作業進捗の達成以降のアクションは実行しない。
      * @param initialState 初期状態
+     * @param actionTable 遷移テーブル（プレイヤーステータス・レシピ・利用可能なアクションから作成）
      * @param skillNames シミュレートするスキル名配列
-     * @param availableSkills 利用可能なスキルマップ（名前→アクション）
-     * @param recipe レシピ情報
      * @return シミュレーション結果（各ステップの状態リスト）
+     * @throws MacroGenerationException 遷移テーブルにないスキル・実行できないスキルが含まれる場合
      */
     public List<CraftingState> simulateSkillNameSequence(
             CraftingState initialState,
-            List<String> skillNames,
-            Map<String, CraftingAction> availableSkills,
-            Recipe recipe) {
+            CompiledActionTable actionTable,
+            List<String> skillNames) {
         
-        // スキル名からアクションリストを作成
-        List<CraftingAction> actions = new ArrayList<>();
-        for (String skillName : skillNames) {
-            CraftingAction action = availableSkills.get(skillName);
-            if (action == null) {
-                throw new MacroGenerationException("スキル '" + skillName + "' は存在しません");
-            }
-            actions.add(action);
+        SimulationResult result = simulate(PackedState.of(initialState), actionTable, skillNames, true);
+        if (result.getStatus() == SimulationStatus.UNKNOWN_ACTION) {
+            throw new MacroGenerationException("スキル '" + result.getFailedAction() + "' は存在しません");
         }
-        
-        // アクションシーケンスをシミュレート
-        return simulateActionSequence(initialState, actions, recipe);
-    }
-    
-    /**
-     * バフの持続時間を減少させる
-     * @param state 現在の状態
-     */
-    private void decrementBuffDurations(CraftingState state) {
-        List<String> currentBuffs = state.getAppliedBuffs();
-        List<String> newBuffs = new ArrayList<>();
-        
-        // 各バフを処理
-        for (String buff : currentBuffs) {
-            // バフ名と持続時間（存在する場合）を分離
-            String[] parts = buff.split(":");
-            String buffName = parts[0];
-            
-            if (parts.length > 1) {
-                // 持続時間のあるバフ
-                int duration = Integer.parseInt(parts[1]);
-                if (duration > 1) {
-                    // 持続時間を減少して追加
-                    newBuffs.add(buffName + ":" + (duration - 1));
-                }
-                // 持続時間が1以下になった場合はバフを削除（何もしない）
-            } else {
-                // 持続時間のないバフはそのまま維持
-                newBuffs.add(buff);
-            }
+        if (result.getStatus() == SimulationStatus.NOT_EXECUTABLE) {
+            throw new MacroGenerationException(
+                    "アクション '" + result.getFailedAction() + "' は現在の状態では実行できません");
         }
         
-        state.setAppliedBuffs(newBuffs);
+        // 初期状態までに使用したアクションを各ステップの前に付ける
+        List<CraftingState> stateHistory = result.getHistory();
+        for (CraftingState step : stateHistory) {
+            List<String> usedActions = new ArrayList<>(initialState.getUsedActions());
+            usedActions.addAll(step.getUsedActions());
+            step.setUsedActions(usedActions);
+        }
+        return stateHistory;
     }
     
     /**
      * マクロテキストとシミュレーション結果から最終状態を計算
      * @param initialState 初期状態
      * @param macroText マクロテキスト
-     * @param availableSkills 利用可能なスキルマップ
-     * @param recipe レシピ情報
+     * @param actionTable 遷移テーブル（プレイヤーステータス・レシピ・利用可能なアクションから作成）
      * @return 最終状態
      */
     public CraftingState calculateFinalStateFromMacroText(
             CraftingState initialState,
             String macroText,
-            Map<String, CraftingAction> availableSkills,
-            Recipe recipe) {
+            CompiledActionTable actionTable) {
         
         // マクロテキストからスキル名のリストを抽出
         List<String> skillNames = extractSkillNamesFromMacroText(macroText);
         
         // スキルシーケンスをシミュレート
-        List<CraftingState> stateHistory = simulateSkillNameSequence(
-                initialState, skillNames, availableSkills, recipe);
+        List<CraftingState> stateHistory = simulateSkillNameSequence(initialState, actionTable, skillNames);
         
         // 最終状態を返す
         return stateHistory.get(stateHistory.size() - 1);
@@ -194,4 +134,151 @@ public class SimulatorService {
         }
         return map;
     }
+    
+    /**
+     * 複数のマクロ（スキル名の列）を並列にシミュレート
+     * 実行できないマクロは例外ではなく結果のステータスで通知する
+     * @param initialState 初期状態
+     * @param actionTable 遷移テーブル（スキル名の解決と状態遷移に使用）
+     * @param macros シミュレートするマクロのリスト
+     * @param includeHistory 各ステップの状態を結果に含めるか
+     * @return マクロごとのシミュレーション結果（入力と同じ順序）
+     */
+    public List<SimulationResult> simulateBatch(
+            CraftingState initialState,
+            CompiledActionTable actionTable,
+            List<List<String>> macros,
+            boolean includeHistory) {
+        
+        SimulationResult[] results = new SimulationResult[macros.size()];
+        PackedState initialPacked = PackedState.of(initialState);
+        
+        PerformanceUtils.runParallel(new BatchSimulationTask(
+                initialPacked, actionTable, macros, includeHistory, results, 0, macros.size()));
+        
+        return List.of(results);
+    }
+    
+    /**
+     * 1つのマクロをシミュレート（例外を送出しない）
+     * @param initialState 初期状態
+     * @param actionTable 遷移テーブル
+     * @param skillNames シミュレートするスキル名の列
+     * @param includeHistory 各ステップの状態を結果に含めるか
+     * @return シミュレーション結果
+     */
+    public SimulationResult simulate(
+            PackedState initialState,
+            CompiledActionTable actionTable,
+            List<String> skillNames,
+            boolean includeHistory) {
+        
+        int requiredProgress = actionTable.getRecipe().getRequiredProgress();
+        PackedState state = initialState.copy();
+        List<CraftingState> history = includeHistory ? new ArrayList<>(skillNames.size() + 1) : null;
+        if (includeHistory) {
+            history.add(state.toCraftingState());
+        }
+        
+        SimulationStatus failure = null;
+        int executed = 0;
+        for (String skillName : skillNames) {
+            // 作業進捗の達成または耐久度切れで終了（以降のアクションは実行しない）
+            if (state.getProgress() >= requiredProgress || state.getDurability() <= 0) {
+                break;
+            }
+            
+            int a = actionTable.indexOf(skillName);
+            if (a < 0) {
+                failure = SimulationStatus.UNKNOWN_ACTION;
+                break;
+            }
+            if (!actionTable.apply(a, state, false)) {
+                failure = SimulationStatus.NOT_EXECUTABLE;
+                break;
+            }
+            executed++;
+            
+            if (includeHistory) {
+                CraftingState step = state.toCraftingState();
+                step.setUsedActions(new ArrayList<>(skillNames.subList(0, executed)));
+                history.add(step);
+            }
+        }
+        
+        SimulationStatus status;
+        if (failure != null) {
+            status = failure;
+        } else if (state.getProgress() >= requiredProgress) {
+            status = SimulationStatus.COMPLETED;
+        } else if (state.getDurability() <= 0) {
+            status = SimulationStatus.DURABILITY_DEPLETED;
+        } else {
+            status = SimulationStatus.PROGRESS_INCOMPLETE;
+        }
+        
+        return SimulationResult.builder()
+                .status(status)
+                .executedActions(executed)
+                .failedStep(failure != null ? executed : -1)
+                .failedAction(failure != null ? skillNames.get(executed) : null)
+                .finalQuality(state.getQuality())
+                .finalProgress(state.getProgress())
+                .totalCPUsed(initialState.getCP() - state.getCP())
+                .durabilityRemaining(state.getDurability())
+                .progressComplete(state.getProgress() >= requiredProgress)
+                .history(history)
+                .build();
+    }
+    
+    /**
+     * マクロの範囲を分割して並列にシミュレートするタスク
+     * 結果は入力と同じ位置の配列要素に書き込む
+     */
+    private class BatchSimulationTask extends ParallelSearchTask<Void> {
+        private final PackedState initialState;
+        private final CompiledActionTable actionTable;
+        private final List<List<String>> macros;
+        private final boolean includeHistory;
+        private final SimulationResult[] results;
+        private final int from;
+        private final int to;
+        
+        BatchSimulationTask(
+                PackedState initialState,
+                CompiledActionTable actionTable,
+                List<List<String>> macros,
+                boolean includeHistory,
+                SimulationResult[] results,
+                int from,
+                int to) {
+            this.initialState = initialState;
+            this.actionTable = actionTable;
+            this.macros = macros;
+            this.includeHistory = includeHistory;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected Void compute() {
+            if (shouldComputeDirectly(to - from)) {
+                for (int i = from; i < to; i++) {
+                    results[i] = simulate(initialState, actionTable, macros.get(i), includeHistory);
+                }
+                return null;
+            }
+            
+            int mid = (from + to) >>> 1;
+            BatchSimulationTask left = new BatchSimulationTask(
+                    initialState, actionTable, macros, includeHistory, results, from, mid);
+            BatchSimulationTask right = new BatchSimulationTask(
+                    initialState, actionTable, macros, includeHistory, results, mid, to);
+            left.fork();
+            right.compute();
+            left.join();
+            return null;
+        }
+    }
 }
@@ -0,0 +1,161 @@
+package com.appricot.feature.crafterMacroGenerator.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * 探索済み状態の最良コスト（g値）を記録するトランスポジションテーブル
+ * 圧縮状態（long 2つ）を 64bit ハッシュでスロットに割り当て、オープンアドレス法で
+ * プリミティブ配列に格納する。容量は固定で、満杯時は置換ポリシーに従う。
+ * キーは状態そのものを格納するため、ハッシュの衝突で別の状態と混同することはない。
+ */
+public final class TranspositionTable {
+
+    /**
+     * 探索範囲のスロットがすべて埋まっている場合の置換ポリシー
+     */
+    public enum ReplacementPolicy {
+        KEEP_EXISTING,        // 既存のエントリを残し、新しい状態は記録しない
+        REPLACE_HIGHER_COST,  // 探索範囲で最もコストが高いエントリを、新しい状態の方が低ければ置換
+        ALWAYS_REPLACE        // ハッシュ位置のエントリを常に置換
+    }
+
+    // 1回の検索で調べるスロット数の上限
+    private static final int MAX_PROBES = 16;
+
+    // スロット数の上限
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    // 空きスロットの印（コストに格納）
+    private static final double EMPTY = Double.NaN;
+
+    private final long[] keys;   // [スロット * 2] = resources, [スロット * 2 + 1] = buffs
+    private final double[] costs;
+    private final int mask;
+    private final ReplacementPolicy policy;
+    private int size;
+
+    /**
+     * @param capacity スロット数（2のべき乗に切り上げる）
+     * @param policy 置換ポリシー
+     */
+    public TranspositionTable(int capacity, ReplacementPolicy policy) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        int slots = 1;
+        while (slots < capacity) {
+            slots <<= 1;
+        }
+        this.keys = new long[slots * 2];
+        this.costs = new double[slots];
+        this.mask = slots - 1;
+        this.policy = policy;
+        Arrays.fill(costs, EMPTY);
+    }
+
+    /**
+     * 記録されている最良コストを取得
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @return 最良コスト、記録がない場合は正の無限大
+     */
+    public double get(long resources, long buffs) {
+        int slot = slotOf(resources, buffs);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            if (Double.isNaN(costs[i])) {
+                break;
+            }
+            if (keys[i * 2] == resources && keys[i * 2 + 1] == buffs) {
+                return costs[i];
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * 状態のコストを記録する（既存の記録より低い場合のみ更新）
+     * @param resources 圧縮状態（リソース）
+     * @param buffs 圧縮状態（バフ）
+     * @param cost コスト（g値）
+     * @return 同じかより低いコストの記録が既にある場合はfalse、それ以外はtrue
+     *         （満杯で記録できなかった場合もtrue）
+     */
+    public boolean offer(long resources, long buffs, double cost) {
+        int slot = slotOf(resources, buffs);
+        int worst = -1;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            if (Double.isNaN(costs[i])) {
+                store(i, resources, buffs, cost);
+                size++;
+                return true;
+            }
+            if (keys[i * 2] == resources && keys[i * 2 + 1] == buffs) {
+                if (costs[i] <= cost) {
+                    return false;
+                }
+                costs[i] = cost;
+                return true;
+            }
+            if (worst < 0 || costs[i] > costs[worst]) {
+                worst = i;
+            }
+        }
+
+        // 探索範囲が埋まっている場合は置換ポリシーに従う
+        switch (policy) {
+            case REPLACE_HIGHER_COST:
+                if (costs[worst] > cost) {
+                    store(worst, resources, buffs, cost);
+                }
+                break;
+            case ALWAYS_REPLACE:
+                store(slot, resources, buffs, cost);
+                break;
+            case KEEP_EXISTING:
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * 記録されている状態数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * スロット数
+     */
+    public int capacity() {
+        return costs.length;
+    }
+
+    public void clear() {
+        Arrays.fill(costs, EMPTY);
+        size = 0;
+    }
+
+    private void store(int i, long resources, long buffs, double cost) {
+        keys[i * 2] = resources;
+        keys[i * 2 + 1] = buffs;
+        costs[i] = cost;
+    }
+
+    private int slotOf(long resources, long buffs) {
+        return (int) hash(resources, buffs) & mask;
+    }
+
+    /**
+     * 圧縮状態の 64bit ハッシュ（SplitMix64 の最終化関数で混合）
+     */
+    static long hash(long resources, long buffs) {
+        long h = resources * 0x9E3779B97F4A7C15L ^ buffs;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,82 @@
+package com.appricot.feature.crafterMacroGenerator.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 近いステータスの結果を返したリクエストを、バックグラウンドで探索し直すコンポーネント
+ * 探索結果はキャッシュに登録され、同じ条件の次のリクエストから使用される。
+ * 同じ識別子の探索は同時に1つだけ実行し、実行待ちが満杯の場合は探索しない。
+ * スレッド数が0以下の場合は探索しない。
+ */
+@Slf4j
+@Component
+public class BackgroundRefiner {
+
+    private final ThreadPoolTaskExecutor executor;
+    // 実行中・実行待ちの探索の識別子
+    private final Set<RequestFingerprint> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param poolSize 同時に実行する探索数（0以下の場合は探索しない）
+     * @param queueCapacity 実行待ちの探索数の上限
+     */
+    public BackgroundRefiner(
+            @Value("${macro.result-cache.neighbor.refine-pool-size:1}") int poolSize,
+            @Value("${macro.result-cache.neighbor.refine-queue-capacity:16}") int queueCapacity) {
+        if (poolSize <= 0) {
+            this.executor = null;
+            return;
+        }
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("macro-refine-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+    }
+
+    /**
+     * 探索を実行待ちに追加
+     * @param fingerprint リクエストの識別子
+     * @param search 探索（結果をキャッシュに登録する）
+     * @return 追加した場合は true、無効・同じ識別子の探索が実行中・実行待ちが満杯の場合は false
+     */
+    public boolean submit(RequestFingerprint fingerprint, Runnable search) {
+        if (executor == null || !inFlight.add(fingerprint)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    search.run();
+                } catch (RuntimeException e) {
+                    log.warn("バックグラウンドの探索に失敗しました", e);
+                } finally {
+                    inFlight.remove(fingerprint);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            inFlight.remove(fingerprint);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
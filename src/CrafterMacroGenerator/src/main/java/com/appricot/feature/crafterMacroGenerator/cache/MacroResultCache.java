@@ -0,0 +1,227 @@
+package com.appricot.feature.crafterMacroGenerator.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.util.LruCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * マクロ生成結果のキャッシュ
+ * 同じ装備・レシピ・条件のリクエストには、正規化した識別子（{@link RequestFingerprint}）で
+ * 以前の探索結果を返す。容量を超えた場合は最も長く参照されていない結果から削除し、
+ * 有効期間を過ぎた結果は参照時に削除する。
+ * スキル一覧のバージョンが変わった場合は、古いバージョンの結果をすべて削除する。
+ * 容量が0以下の場合はキャッシュしない。
+ *
+ * 完全一致の結果がない場合に備えて、結果を近いステータスの索引（{@link NeighborIndex}）にも登録する。
+ * 近いステータスの結果は呼び出し元で検証してから使用する（{@link #findNeighbor}）。
+ */
+@Slf4j
+@Component
+public class MacroResultCache {
+
+    private final LruCache<RequestFingerprint, Entry> cache;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // 近いステータスの結果の索引（使用しない場合は null）
+    private final NeighborIndex neighborIndex;
+    // 検証する近いステータスの結果数の上限
+    private final int neighborCandidates;
+
+    // 保持している結果のスキル一覧のバージョン
+    private volatile long catalogueVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder neighborHits = new LongAdder();
+    private final LongAdder neighborRejections = new LongAdder();
+
+    @Autowired
+    public MacroResultCache(
+            @Value("${macro.result-cache.capacity:1024}") int capacity,
+            @Value("${macro.result-cache.ttl-ms:3600000}") long ttlMs,
+            @Value("${macro.result-cache.neighbor.candidates:4}") int neighborCandidates) {
+        this(capacity, ttlMs, neighborCandidates, System::nanoTime);
+    }
+
+    /**
+     * @param capacity 保持する結果数の上限（0以下の場合はキャッシュしない）
+     * @param ttlMs 結果の有効期間（ミリ秒）、0以下の場合は無期限
+     * @param neighborCandidates 検証する近いステータスの結果数の上限（0以下の場合は近いステータスの結果を使用しない）
+     * @param clock 現在時刻（ナノ秒）
+     */
+    public MacroResultCache(int capacity, long ttlMs, int neighborCandidates, LongSupplier clock) {
+        this.cache = capacity > 0 ? new LruCache<>(capacity) : null;
+        this.ttlNanos = ttlMs > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMs) : Long.MAX_VALUE;
+        this.clock = clock;
+        this.neighborIndex = capacity > 0 && neighborCandidates > 0 ? new NeighborIndex(capacity) : null;
+        this.neighborCandidates = neighborCandidates;
+    }
+
+    /**
+     * キャッシュした結果を取得
+     * @param fingerprint リクエストの識別子
+     * @return 結果、ない場合・有効期間を過ぎた場合は null
+     */
+    public MacroGenerationResponse get(RequestFingerprint fingerprint) {
+        if (cache == null) {
+            return null;
+        }
+        validateCatalogue(fingerprint.catalogueVersion());
+        Entry entry = cache.get(fingerprint);
+        if (entry != null && clock.getAsLong() - entry.createdNanos() >= ttlNanos) {
+            cache.remove(fingerprint);
+            expirations.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response();
+    }
+
+    /**
+     * 結果をキャッシュ
+     * @param fingerprint リクエストの識別子
+     * @param response 探索した結果（キャッシュ後に変更しないこと）
+     */
+    public void put(RequestFingerprint fingerprint, MacroGenerationResponse response) {
+        if (cache == null) {
+            return;
+        }
+        validateCatalogue(fingerprint.catalogueVersion());
+        MacroGenerationResponse copy = response.toBuilder()
+                .macroText(List.copyOf(response.getMacroText()))
+                .actionSequence(List.copyOf(response.getActionSequence()))
+                .build();
+        long now = clock.getAsLong();
+        cache.put(fingerprint, new Entry(copy, now));
+        if (neighborIndex != null) {
+            neighborIndex.add(fingerprint, copy, now);
+        }
+    }
+
+    /**
+     * 近いステータスで求めた結果のうち、検証に成功した最も近いものを取得
+     * @param fingerprint リクエストの識別子
+     * @param verifier 結果を呼び出し元のステータスで検証し、使用できる場合はリクエストへの結果を返す関数
+     *                 （使用できない場合は null）
+     * @return 検証した結果、ない場合は null
+     */
+    public MacroGenerationResponse findNeighbor(
+            RequestFingerprint fingerprint,
+            Function<MacroGenerationResponse, MacroGenerationResponse> verifier) {
+        if (neighborIndex == null) {
+            return null;
+        }
+        validateCatalogue(fingerprint.catalogueVersion());
+        for (MacroGenerationResponse candidate : neighborIndex.find(
+                fingerprint, clock.getAsLong(), ttlNanos, neighborCandidates)) {
+            MacroGenerationResponse verified = verifier.apply(candidate);
+            if (verified != null) {
+                neighborHits.increment();
+                return verified;
+            }
+            neighborRejections.increment();
+        }
+        return null;
+    }
+
+    /**
+     * すべての結果を削除
+     */
+    public void clear() {
+        if (cache != null) {
+            cache.clear();
+        }
+        if (neighborIndex != null) {
+            neighborIndex.clear();
+        }
+    }
+
+    /**
+     * キャッシュの統計
+     */
+    public Stats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new Stats(
+                cache != null,
+                cache != null ? cache.size() : 0,
+                cache != null ? cache.getCapacity() : 0,
+                hitCount,
+                missCount,
+                total > 0 ? (double) hitCount / total : 0.0,
+                expirations.sum(),
+                invalidations.sum(),
+                neighborHits.sum(),
+                neighborRejections.sum());
+    }
+
+    /**
+     * スキル一覧のバージョンが変わった場合は、保持している結果をすべて削除する
+     */
+    private void validateCatalogue(long version) {
+        if (version == catalogueVersion) {
+            return;
+        }
+        synchronized (this) {
+            if (version == catalogueVersion) {
+                return;
+            }
+            if (cache.size() > 0) {
+                log.info("スキル一覧が変更されたため、マクロ生成結果のキャッシュを削除: {} 件", cache.size());
+                invalidations.increment();
+            }
+            cache.clear();
+            if (neighborIndex != null) {
+                neighborIndex.clear();
+            }
+            catalogueVersion = version;
+        }
+    }
+
+    private record Entry(MacroGenerationResponse response, long createdNanos) {
+    }
+
+    /**
+     * キャッシュの統計
+     * @param enabled キャッシュが有効か
+     * @param size 保持している結果数
+     * @param capacity 保持する結果数の上限
+     * @param hits キャッシュから返したリクエスト数
+     * @param misses キャッシュになかったリクエスト数
+     * @param hitRate ヒット率
+     * @param expirations 有効期間を過ぎて削除した結果数
+     * @param invalidations スキル一覧の変更でキャッシュを削除した回数
+     * @param neighborHits 完全一致の結果がなく、近いステータスの結果を返したリクエスト数
+     * @param neighborRejections 検証に失敗した近いステータスの結果数
+     */
+    public record Stats(
+            boolean enabled,
+            int size,
+            int capacity,
+            long hits,
+            long misses,
+            double hitRate,
+            long expirations,
+            long invalidations,
+            long neighborHits,
+            long neighborRejections) {
+    }
+}
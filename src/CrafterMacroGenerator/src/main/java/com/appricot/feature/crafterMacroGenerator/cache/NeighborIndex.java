@@ -0,0 +1,135 @@
+package com.appricot.feature.crafterMacroGenerator.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.util.LruCache;
+
+/**
+ * 近いステータスで求めたマクロの索引
+ * 装備の差が数ポイントのリクエストは完全一致のキャッシュに当たらないため、
+ * レシピ・スキル・探索条件とステータスの帯（作業・加工の基本値とCPの範囲）ごとに結果を分類し、
+ * 隣接する帯を含めてステータスの近い順に候補を返す。
+ * 候補はステータスが異なるため、使用前に呼び出し元のステータスで実行できるか確認すること。
+ * すべての操作は同期化されており、複数スレッドから共有できる。
+ */
+class NeighborIndex {
+
+    // 作業進捗・品質の基本値の帯の幅
+    static final int BASE_VALUE_TIER_WIDTH = 8;
+
+    // CPの帯の幅
+    static final int CP_TIER_WIDTH = 40;
+
+    // 1つの帯に保持する結果数の上限
+    static final int BUCKET_SIZE = 8;
+
+    private final LruCache<BucketKey, List<Entry>> buckets;
+
+    /**
+     * @param capacity 保持する帯の数の上限
+     */
+    NeighborIndex(int capacity) {
+        this.buckets = new LruCache<>(capacity);
+    }
+
+    /**
+     * 結果を索引に追加（同じ識別子の結果は置き換え、帯が満杯の場合は最も古い結果を削除）
+     */
+    synchronized void add(RequestFingerprint fingerprint, MacroGenerationResponse response, long createdNanos) {
+        List<Entry> bucket = buckets.computeIfAbsent(bucketKey(fingerprint, 0, 0, 0), k -> new ArrayList<>());
+        bucket.removeIf(entry -> entry.fingerprint().equals(fingerprint));
+        if (bucket.size() >= BUCKET_SIZE) {
+            bucket.remove(0);
+        }
+        bucket.add(new Entry(fingerprint, response, createdNanos));
+    }
+
+    /**
+     * ステータスの近い結果を近い順に取得（同じ識別子の結果は含まない）
+     * 各ステータスの差が帯の幅以内のものを対象とする。
+     * @param fingerprint リクエストの識別子
+     * @param nowNanos 現在時刻
+     * @param ttlNanos 結果の有効期間（追加からの経過時間がこれ以上の結果は含まない）
+     * @param limit 取得する結果数の上限
+     * @return 近い順の結果
+     */
+    synchronized List<MacroGenerationResponse> find(
+            RequestFingerprint fingerprint, long nowNanos, long ttlNanos, int limit) {
+        List<Entry> candidates = new ArrayList<>();
+        for (int dp = -1; dp <= 1; dp++) {
+            for (int dq = -1; dq <= 1; dq++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    List<Entry> bucket = buckets.get(bucketKey(fingerprint, dp, dq, dc));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (Entry entry : bucket) {
+                        if (nowNanos - entry.createdNanos() < ttlNanos
+                                && !entry.fingerprint().equals(fingerprint)
+                                && Double.isFinite(distance(fingerprint, entry.fingerprint()))) {
+                            candidates.add(entry);
+                        }
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(entry -> distance(fingerprint, entry.fingerprint())));
+        return candidates.stream()
+                .limit(limit)
+                .map(Entry::response)
+                .toList();
+    }
+
+    synchronized void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * ステータスの距離（各ステータスの差を帯の幅で割った和、帯の幅を超える差がある場合は無限大）
+     */
+    private static double distance(RequestFingerprint a, RequestFingerprint b) {
+        double dp = (double) Math.abs(a.baseProgress() - b.baseProgress()) / BASE_VALUE_TIER_WIDTH;
+        double dq = (double) Math.abs(a.baseQuality() - b.baseQuality()) / BASE_VALUE_TIER_WIDTH;
+        double dc = (double) Math.abs(a.cp() - b.cp()) / CP_TIER_WIDTH;
+        if (dp > 1.0 || dq > 1.0 || dc > 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return dp + dq + dc;
+    }
+
+    private static BucketKey bucketKey(RequestFingerprint fingerprint, int dp, int dq, int dc) {
+        return new BucketKey(
+                fingerprint.requiredProgress(),
+                fingerprint.maxQuality(),
+                fingerprint.baseDurability(),
+                fingerprint.skillNames(),
+                fingerprint.qualityFocus(),
+                fingerprint.durabilityConstraint(),
+                fingerprint.catalogueVersion(),
+                Math.floorDiv(fingerprint.baseProgress(), BASE_VALUE_TIER_WIDTH) + dp,
+                Math.floorDiv(fingerprint.baseQuality(), BASE_VALUE_TIER_WIDTH) + dq,
+                Math.floorDiv(fingerprint.cp(), CP_TIER_WIDTH) + dc);
+    }
+
+    /**
+     * 帯のキー（ステータス以外の識別子の値とステータスの帯）
+     */
+    private record BucketKey(
+            int requiredProgress,
+            int maxQuality,
+            int baseDurability,
+            List<String> skillNames,
+            boolean qualityFocus,
+            boolean durabilityConstraint,
+            long catalogueVersion,
+            int progressTier,
+            int qualityTier,
+            int cpTier) {
+    }
+
+    private record Entry(RequestFingerprint fingerprint, MacroGenerationResponse response, long createdNanos) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.appricot.feature.crafterMacroGenerator.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+
+/**
+ * マクロ生成リクエストを正規化した識別子
+ * 探索結果に影響する値だけで構成するため、探索結果が同じになるリクエストは同じ識別子になる。
+ * <ul>
+ * <li>作業精度・加工精度は、遷移テーブルで使用する基本値（効率100%あたりの上昇量）に変換する</li>
+ * <li>レシピ名・難易度・製作レベルは探索に使用しないため含めない</li>
+ * <li>使用できるスキルは、スキル一覧で絞り込んだ後のスキル名を名前順に並べる</li>
+ * </ul>
+ * スキル一覧の内容が変わった場合に古い結果を使用しないよう、スキル一覧のバージョンを含める。
+ * @param baseProgress 効率100%あたりの作業進捗上昇量
+ * @param baseQuality 効率100%あたりの品質上昇量
+ * @param cp CP
+ * @param requiredProgress 必要作業進捗値
+ * @param maxQuality 最大品質値
+ * @param baseDurability 基本耐久度
+ * @param skillNames 使用できるスキル名（名前順）
+ * @param qualityFocus 品質優先フラグ
+ * @param durabilityConstraint 耐久度制約フラグ
+ * @param catalogueVersion スキル一覧のバージョン
+ */
+public record RequestFingerprint(
+        int baseProgress,
+        int baseQuality,
+        int cp,
+        int requiredProgress,
+        int maxQuality,
+        int baseDurability,
+        List<String> skillNames,
+        boolean qualityFocus,
+        boolean durabilityConstraint,
+        long catalogueVersion) {
+
+    public RequestFingerprint {
+        skillNames = List.copyOf(skillNames);
+    }
+
+    /**
+     * リクエストの識別子を作成
+     * @param request マクロ生成リクエスト
+     * @param availableActions リクエストで使用できるアクション（スキル一覧で絞り込んだもの）
+     * @param catalogueVersion スキル一覧のバージョン
+     * @return 識別子
+     */
+    public static RequestFingerprint of(
+            MacroGenerationRequest request,
+            List<CraftingAction> availableActions,
+            long catalogueVersion) {
+        return new RequestFingerprint(
+                CompiledActionTable.baseProgressOf(request.getPlayerStatus()),
+                CompiledActionTable.baseQualityOf(request.getPlayerStatus()),
+                request.getPlayerStatus().getCp(),
+                request.getRecipe().getRequiredProgress(),
+                request.getRecipe().getMaxQuality(),
+                request.getRecipe().getBaseDurability(),
+                availableActions.stream().map(CraftingAction::getName).sorted().toList(),
+                request.isQualityFocus(),
+                request.isDurabilityConstraint(),
+                catalogueVersion);
+    }
+
+    /**
+     * 識別子の64ビットのハッシュ（FNV-1a、実行環境によらず同じ値）
+     * ファイルやデータベースなど、プロセスの外で識別子を使用する場合に使用する。
+     */
+    public long digest() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, baseProgress);
+        hash = mix(hash, baseQuality);
+        hash = mix(hash, cp);
+        hash = mix(hash, requiredProgress);
+        hash = mix(hash, maxQuality);
+        hash = mix(hash, baseDurability);
+        hash = mix(hash, (qualityFocus ? 1 : 0) | (durabilityConstraint ? 2 : 0));
+        hash = mix(hash, (int) catalogueVersion);
+        hash = mix(hash, (int) (catalogueVersion >>> 32));
+        for (String name : skillNames) {
+            for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            // スキル名の区切り
+            hash = (hash ^ 0xff) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 識別子のすべての値を並べた文字列（ハッシュの衝突を確認する場合に使用）
+     */
+    public String canonicalKey() {
+        return baseProgress + ":" + baseQuality + ":" + cp
+                + ":" + requiredProgress + ":" + maxQuality + ":" + baseDurability
+                + ":" + (qualityFocus ? 1 : 0) + ":" + (durabilityConstraint ? 1 : 0)
+                + ":" + Long.toHexString(catalogueVersion)
+                + ":" + String.join(",", skillNames);
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ (value >>> shift & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
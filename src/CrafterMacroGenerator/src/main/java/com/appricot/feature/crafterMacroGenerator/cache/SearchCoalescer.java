@@ -0,0 +1,211 @@
+package com.appricot.feature.crafterMacroGenerator.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.feature.crafterMacroGenerator.entity.ResultSource;
+
+/**
+ * 同じ識別子の探索を同時に1つだけ実行し、実行中の探索の結果を同じ条件のリクエストで共有するコンポーネント
+ * 最初のリクエストが自分のスレッドで探索し、探索中に来たリクエストはその結果を待つ。
+ *
+ * 共有する探索は最初のリクエストの締め切りを使用し、中断はリクエストごとに扱う。
+ * 中断したリクエストはその時点の途中経過を受け取って待つのをやめ、
+ * 待っているリクエストがすべて中断した場合にのみ探索を中断する。
+ * すべて中断した探索には新しいリクエストを追加せず、次のリクエストから探索し直す。
+ */
+@Component
+public class SearchCoalescer {
+
+    // 待っているリクエストが中断したかを確認する間隔（ミリ秒）
+    private static final long WAIT_POLL_INTERVAL_MS = 50;
+
+    // 実行中の探索
+    private final ConcurrentMap<RequestFingerprint, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * 同じ識別子の探索が実行中の場合はその結果を待ち、ない場合は探索する
+     * @param fingerprint リクエストの識別子
+     * @param context リクエストの実行予算（中断はリクエストごとに扱う）
+     * @param onImprovement 途中経過の通知先、不要な場合は null
+     * @param search 共有する実行予算と途中経過の通知先で探索する処理
+     * @param noResult 途中経過がないまま中断した場合の結果
+     * @return 探索結果（他のリクエストの探索の結果を共有した場合は取得元を {@link ResultSource#SHARED} とする）
+     */
+    public MacroGenerationResponse run(
+            RequestFingerprint fingerprint,
+            SearchContext context,
+            Consumer<MacroGenerationResponse> onImprovement,
+            BiFunction<SearchContext, Consumer<MacroGenerationResponse>, MacroGenerationResponse> search,
+            Supplier<MacroGenerationResponse> noResult) {
+        long startNanos = System.nanoTime();
+        while (true) {
+            Flight created = new Flight(context.detach());
+            Flight flight = inFlight.putIfAbsent(fingerprint, created);
+            if (flight == null) {
+                return lead(fingerprint, created, context, onImprovement, search);
+            }
+            if (flight.attach(context, onImprovement)) {
+                shared.increment();
+                return await(flight, context, noResult, startNanos);
+            }
+            // すべてのリクエストが中断した探索は置き換える
+            if (inFlight.replace(fingerprint, flight, created)) {
+                return lead(fingerprint, created, context, onImprovement, search);
+            }
+        }
+    }
+
+    /**
+     * 実行した探索の数
+     */
+    public long getSearchCount() {
+        return searches.sum();
+    }
+
+    /**
+     * 実行中の探索の結果を共有したリクエストの数
+     */
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    private MacroGenerationResponse lead(
+            RequestFingerprint fingerprint,
+            Flight flight,
+            SearchContext context,
+            Consumer<MacroGenerationResponse> onImprovement,
+            BiFunction<SearchContext, Consumer<MacroGenerationResponse>, MacroGenerationResponse> search) {
+        searches.increment();
+        flight.attach(context, onImprovement);
+        try {
+            MacroGenerationResponse response = search.apply(flight.context, flight::publish);
+            flight.result.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fingerprint, flight);
+        }
+    }
+
+    private static MacroGenerationResponse await(
+            Flight flight,
+            SearchContext context,
+            Supplier<MacroGenerationResponse> noResult,
+            long startNanos) {
+        MacroGenerationResponse response;
+        try {
+            while (true) {
+                try {
+                    response = flight.result.get(WAIT_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // 中断したリクエストはそれまでの途中経過を返す（探索は他のリクエストのために続ける）
+                    if (context.isCancelled()) {
+                        MacroGenerationResponse latest = flight.latest.get();
+                        response = latest != null ? latest : noResult.get();
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.cancel();
+            MacroGenerationResponse latest = flight.latest.get();
+            response = latest != null ? latest : noResult.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shared search failed", e.getCause());
+        }
+        return response.toBuilder()
+                .resultSource(ResultSource.SHARED)
+                .responseTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos))
+                .build();
+    }
+
+    /**
+     * 実行中の1つの探索と、その結果を待つリクエスト
+     */
+    private static final class Flight {
+
+        private final SearchContext context;
+        private final CompletableFuture<MacroGenerationResponse> result = new CompletableFuture<>();
+        // 最後の途中経過
+        private final AtomicReference<MacroGenerationResponse> latest = new AtomicReference<>();
+
+        // 結果を待つリクエストの実行予算と途中経過の通知先（this で同期）
+        private final List<SearchContext> waiters = new ArrayList<>();
+        private final List<Waiter> listeners = new ArrayList<>();
+        private boolean abandoned;
+
+        private Flight(SearchContext context) {
+            this.context = context.cancelWhen(this::isAbandoned);
+        }
+
+        /**
+         * 結果を待つリクエストを追加
+         * @return 追加した場合は true、すべてのリクエストが中断した探索の場合は false
+         */
+        private synchronized boolean attach(SearchContext waiter, Consumer<MacroGenerationResponse> onImprovement) {
+            if (isAbandoned()) {
+                return false;
+            }
+            waiters.add(waiter);
+            if (onImprovement != null) {
+                listeners.add(new Waiter(waiter, onImprovement));
+            }
+            return true;
+        }
+
+        /**
+         * 待っているリクエストがすべて中断したか（一度中断した探索は再開しない）
+         */
+        private synchronized boolean isAbandoned() {
+            if (!abandoned && !waiters.isEmpty() && waiters.stream().allMatch(SearchContext::isCancelled)) {
+                abandoned = true;
+            }
+            return abandoned;
+        }
+
+        /**
+         * 途中経過を中断していないリクエストに通知
+         */
+        private void publish(MacroGenerationResponse improvement) {
+            latest.set(improvement);
+            List<Waiter> targets;
+            synchronized (this) {
+                targets = List.copyOf(listeners);
+            }
+            for (Waiter target : targets) {
+                if (!target.context().isCancelled()) {
+                    target.onImprovement().accept(improvement);
+                }
+            }
+        }
+    }
+
+    private record Waiter(SearchContext context, Consumer<MacroGenerationResponse> onImprovement) {
+    }
+}
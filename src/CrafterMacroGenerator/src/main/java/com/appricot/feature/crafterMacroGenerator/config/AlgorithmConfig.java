@@ -1,12 +1,19 @@
 package com.appricot.feature.crafterMacroGenerator.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import com.appricot.feature.crafterMacroGenerator.algorithm.AStarOptimizer;
 import com.appricot.feature.crafterMacroGenerator.algorithm.BeamSearchOptimizer;
 import com.appricot.feature.crafterMacroGenerator.algorithm.DynamicProgrammingOptimizer;
 import com.appricot.feature.crafterMacroGenerator.algorithm.MacroOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OptimizerType;
+import com.appricot.feature.crafterMacroGenerator.algorithm.PortfolioOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.TranspositionTable.ReplacementPolicy;
 
 /**
  * アルゴリズム関連の設定クラス
@@ -16,32 +23,113 @@ public class AlgorithmConfig {
 
     /**
      * デフォルトの最適化アルゴリズムを提供
+     * @param optimizerType 使用するアルゴリズム
+     * @param aStarOptimizer A*オプティマイザー
      * @param dpOptimizer 動的計画法オプティマイザー
      * @param beamSearchOptimizer ビームサーチオプティマイザー
+     * @param portfolioOptimizer ポートフォリオオプティマイザー
      * @return 最適化アルゴリズム
      */
     @Bean
     @Primary
     public MacroOptimizer defaultOptimizer(
+            @Value("${macro.algorithm.strategy:PORTFOLIO}") OptimizerType optimizerType,
+            AStarOptimizer aStarOptimizer,
+            DynamicProgrammingOptimizer dpOptimizer,
+            BeamSearchOptimizer beamSearchOptimizer,
+            PortfolioOptimizer portfolioOptimizer) {
+        
+        // レシピによって有利なアルゴリズムが異なるため、デフォルトでは複数を同時に実行する
+        if (optimizerType == OptimizerType.PORTFOLIO) {
+            return portfolioOptimizer;
+        }
+        return select(optimizerType, aStarOptimizer, dpOptimizer, beamSearchOptimizer);
+    }
+    
+    /**
+     * 複数のアルゴリズムを同時に実行するオプティマイザーを提供
+     * @param strategies 同時に実行するアルゴリズム
+     * @param aStarOptimizer A*オプティマイザー
+     * @param dpOptimizer 動的計画法オプティマイザー
+     * @param beamSearchOptimizer ビームサーチオプティマイザー
+     * @return ポートフォリオオプティマイザー
+     */
+    @Bean
+    public PortfolioOptimizer portfolioOptimizer(
+            @Value("${macro.algorithm.portfolio.strategies:A_STAR,BEAM_SEARCH}") List<OptimizerType> strategies,
+            AStarOptimizer aStarOptimizer,
             DynamicProgrammingOptimizer dpOptimizer,
             BeamSearchOptimizer beamSearchOptimizer) {
         
-        // 設定やレシピの複雑さに応じて切り替える
-        // デフォルトではビームサーチを使用
-        return beamSearchOptimizer;
+        return new PortfolioOptimizer(strategies.stream()
+                .map(type -> select(type, aStarOptimizer, dpOptimizer, beamSearchOptimizer))
+                .toList());
+    }
+    
+    private static MacroOptimizer select(
+            OptimizerType optimizerType,
+            AStarOptimizer aStarOptimizer,
+            DynamicProgrammingOptimizer dpOptimizer,
+            BeamSearchOptimizer beamSearchOptimizer) {
+        switch (optimizerType) {
+            case A_STAR:
+                return aStarOptimizer;
+            case DYNAMIC_PROGRAMMING:
+                return dpOptimizer;
+            case BEAM_SEARCH:
+                return beamSearchOptimizer;
+            default:
+                throw new IllegalArgumentException("Unsupported optimizer type: " + optimizerType);
+        }
     }
     
     /**
      * アルゴリズム設定を提供
+     * @param maxDepth 最大探索深度（最大アクション数）
+     * @param maxBeamWidth ビーム幅（幅を調整する場合は最初の幅）
+     * @param minBeamWidth 調整するビーム幅の下限
+     * @param beamWidthLimit 調整するビーム幅の上限
+     * @param beamTargetLatencyMs ビームサーチの目標時間（ミリ秒）、0以下の場合は幅を調整しない
+     * @param beamIterative 幅を広げながらビームサーチを繰り返し、最良の結果を使用するか
+     * @param useParallelization 探索を複数コアで並列に行うか
+     * @param maxExploredNodes A*の最大探索ノード数
+     * @param transpositionTableCapacity トランスポジションテーブルのスロット数
+     * @param replacementPolicy トランスポジションテーブルの置換ポリシー
+     * @param dpMemoCapacity 動的計画法のメモのスロット数
+     * @param dominanceCapacity 支配関係の索引に記録する状態数の上限
+     * @param maxExecutionTimeMs 1回の探索の最大実行時間（ミリ秒）
      * @return アルゴリズム設定
      */
     @Bean
-    public AlgorithmSettings algorithmSettings(int maxDepth, int maxBeamWidth) {
+    public AlgorithmSettings algorithmSettings(
+            @Value("${macro.algorithm.max-depth:90}") int maxDepth,
+            @Value("${macro.algorithm.beam-width:1000}") int maxBeamWidth,
+            @Value("${macro.algorithm.beam.min-width:64}") int minBeamWidth,
+            @Value("${macro.algorithm.beam.max-width:16384}") int beamWidthLimit,
+            @Value("${macro.algorithm.beam.target-latency-ms:0}") long beamTargetLatencyMs,
+            @Value("${macro.algorithm.beam.iterative:false}") boolean beamIterative,
+            @Value("${macro.algorithm.use-parallelization:true}") boolean useParallelization,
+            @Value("${macro.algorithm.max-explored-nodes:100000}") int maxExploredNodes,
+            @Value("${macro.algorithm.transposition-table.capacity:262144}") int transpositionTableCapacity,
+            @Value("${macro.algorithm.transposition-table.replacement-policy:REPLACE_HIGHER_COST}")
+                    ReplacementPolicy replacementPolicy,
+            @Value("${macro.algorithm.dp.memo-capacity:262144}") int dpMemoCapacity,
+            @Value("${macro.algorithm.dominance.capacity:262144}") int dominanceCapacity,
+            @Value("${macro.algorithm.max-execution-time-ms:10000}") long maxExecutionTimeMs) {
         return AlgorithmSettings.builder()
                 .maxRecursionDepth(maxDepth)
                 .beamWidth(maxBeamWidth)
-                .useParallelization(true)
-                .maxExecutionTimeMs(1200000) // 最大実行時間 2分
+                .minBeamWidth(minBeamWidth)
+                .maxBeamWidth(beamWidthLimit)
+                .beamTargetLatencyMs(beamTargetLatencyMs)
+                .beamIterative(beamIterative)
+                .useParallelization(useParallelization)
+                .maxExploredNodes(maxExploredNodes)
+                .transpositionTableCapacity(transpositionTableCapacity)
+                .replacementPolicy(replacementPolicy)
+                .dpMemoCapacity(dpMemoCapacity)
+                .dominanceCapacity(dominanceCapacity)
+                .maxExecutionTimeMs(maxExecutionTimeMs)
                 .build();
     }
     
@@ -51,14 +139,32 @@ public class AlgorithmConfig {
     public static class AlgorithmSettings {
         private final int maxRecursionDepth;
         private final int beamWidth;
+        private final int minBeamWidth;
+        private final int maxBeamWidth;
+        private final long beamTargetLatencyMs;
+        private final boolean beamIterative;
         private final boolean useParallelization;
         private final long maxExecutionTimeMs;
+        private final int maxExploredNodes;
+        private final int transpositionTableCapacity;
+        private final ReplacementPolicy replacementPolicy;
+        private final int dpMemoCapacity;
+        private final int dominanceCapacity;
         
         private AlgorithmSettings(Builder builder) {
             this.maxRecursionDepth = builder.maxRecursionDepth;
             this.beamWidth = builder.beamWidth;
+            this.minBeamWidth = builder.minBeamWidth;
+            this.maxBeamWidth = builder.maxBeamWidth;
+            this.beamTargetLatencyMs = builder.beamTargetLatencyMs;
+            this.beamIterative = builder.beamIterative;
             this.useParallelization = builder.useParallelization;
             this.maxExecutionTimeMs = builder.maxExecutionTimeMs;
+            this.maxExploredNodes = builder.maxExploredNodes;
+            this.transpositionTableCapacity = builder.transpositionTableCapacity;
+            this.replacementPolicy = builder.replacementPolicy;
+            this.dpMemoCapacity = builder.dpMemoCapacity;
+            this.dominanceCapacity = builder.dominanceCapacity;
         }
         
         public int getMaxRecursionDepth() {
@@ -69,6 +175,22 @@ public class AlgorithmConfig {
             return beamWidth;
         }
         
+        public int getMinBeamWidth() {
+            return minBeamWidth;
+        }
+        
+        public int getMaxBeamWidth() {
+            return maxBeamWidth;
+        }
+        
+        public long getBeamTargetLatencyMs() {
+            return beamTargetLatencyMs;
+        }
+        
+        public boolean isBeamIterative() {
+            return beamIterative;
+        }
+        
         public boolean isUseParallelization() {
             return useParallelization;
         }
@@ -77,6 +199,26 @@ public class AlgorithmConfig {
             return maxExecutionTimeMs;
         }
         
+        public int getMaxExploredNodes() {
+            return maxExploredNodes;
+        }
+        
+        public int getTranspositionTableCapacity() {
+            return transpositionTableCapacity;
+        }
+        
+        public ReplacementPolicy getReplacementPolicy() {
+            return replacementPolicy;
+        }
+        
+        public int getDpMemoCapacity() {
+            return dpMemoCapacity;
+        }
+        
+        public int getDominanceCapacity() {
+            return dominanceCapacity;
+        }
+        
         public static Builder builder() {
             return new Builder();
         }
@@ -84,8 +226,17 @@ public class AlgorithmConfig {
         public static class Builder {
             private int maxRecursionDepth = 50;
             private int beamWidth = 1000;
+            private int minBeamWidth = 64;
+            private int maxBeamWidth = 1 << 14;
+            private long beamTargetLatencyMs = 0;
+            private boolean beamIterative = false;
             private boolean useParallelization = true;
             private long maxExecutionTimeMs = 1200000;
+            private int maxExploredNodes = 100000;
+            private int transpositionTableCapacity = 1 << 18;
+            private ReplacementPolicy replacementPolicy = ReplacementPolicy.REPLACE_HIGHER_COST;
+            private int dpMemoCapacity = 1 << 18;
+            private int dominanceCapacity = 1 << 18;
             
             public Builder maxRecursionDepth(int maxRecursionDepth) {
                 this.maxRecursionDepth = maxRecursionDepth;
@@ -97,6 +248,26 @@ public class AlgorithmConfig {
                 return this;
             }
             
+            public Builder minBeamWidth(int minBeamWidth) {
+                this.minBeamWidth = minBeamWidth;
+                return this;
+            }
+            
+            public Builder maxBeamWidth(int maxBeamWidth) {
+                this.maxBeamWidth = maxBeamWidth;
+                return this;
+            }
+            
+            public Builder beamTargetLatencyMs(long beamTargetLatencyMs) {
+                this.beamTargetLatencyMs = beamTargetLatencyMs;
+                return this;
+            }
+            
+            public Builder beamIterative(boolean beamIterative) {
+                this.beamIterative = beamIterative;
+                return this;
+            }
+            
             public Builder useParallelization(boolean useParallelization) {
                 this.useParallelization = useParallelization;
                 return this;
@@ -107,6 +278,31 @@ public class AlgorithmConfig {
                 return this;
             }
             
+            public Builder maxExploredNodes(int maxExploredNodes) {
+                this.maxExploredNodes = maxExploredNodes;
+                return this;
+            }
+            
+            public Builder transpositionTableCapacity(int transpositionTableCapacity) {
+                this.transpositionTableCapacity = transpositionTableCapacity;
+                return this;
+            }
+            
+            public Builder replacementPolicy(ReplacementPolicy replacementPolicy) {
+                this.replacementPolicy = replacementPolicy;
+                return this;
+            }
+            
+            public Builder dpMemoCapacity(int dpMemoCapacity) {
+                this.dpMemoCapacity = dpMemoCapacity;
+                return this;
+            }
+            
+            public Builder dominanceCapacity(int dominanceCapacity) {
+                this.dominanceCapacity = dominanceCapacity;
+                return this;
+            }
+            
             public AlgorithmSettings build() {
                 return new AlgorithmSettings(this);
             }
@@ -0,0 +1,117 @@
+package com.appricot.feature.crafterMacroGenerator.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.appricot.feature.crafterMacroGenerator.SkillService;
+import com.appricot.feature.crafterMacroGenerator.algorithm.MacroOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBookGenerator;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBookGenerator.Scenario;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 定跡の表（オープニングブック）の設定クラス
+ */
+@Slf4j
+@Configuration
+public class OpeningBookConfig {
+
+    /**
+     * 起動時に読み込む定跡の表を提供
+     * ファイルを指定しない場合、ファイルがない場合、形式・バージョンが異なる場合は定跡を使用しない。
+     * @param path 定跡の表のファイル（空の場合は使用しない）
+     * @return 定跡の表
+     */
+    @Bean
+    public OpeningBook openingBook(@Value("${macro.opening-book.path:}") String path) {
+        if (path.isBlank()) {
+            return OpeningBook.empty();
+        }
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file)) {
+            log.warn("定跡の表のファイルがありません: {}", file);
+            return OpeningBook.empty();
+        }
+        try {
+            OpeningBook book = OpeningBook.read(file);
+            log.info("定跡の表を読み込み: {}, 定跡数 = {}", file, book.size());
+            return book;
+        } catch (IOException e) {
+            log.warn("定跡の表を読み込めません: {}", file, e);
+            return OpeningBook.empty();
+        }
+    }
+
+    /**
+     * 定跡の表を作成してファイルに書き込むジョブ（opening-book プロファイルでのみ実行）
+     * ステータス帯の代表値とレシピの組み合わせごとに、品質優先・耐久度制約ありの条件で作成する。
+     * @param optimizer 最良のマクロの探索に使用するオプティマイザー
+     * @param skillService スキルの一覧
+     * @param output 書き込み先のファイル
+     * @param prefixLength 定跡として記録する手数
+     * @param maxExecutionTimeMs 条件ごとの最大実行時間（ミリ秒）
+     * @param statTiers ステータス帯の代表値（"作業精度:加工精度:CP" の一覧）
+     * @param recipes レシピ（"必要作業進捗:最大品質:耐久度" の一覧）
+     * @return ジョブ
+     */
+    @Bean
+    @Profile("opening-book")
+    public ApplicationRunner openingBookGenerationJob(
+            MacroOptimizer optimizer,
+            SkillService skillService,
+            @Value("${macro.opening-book.output:opening-book.bin}") String output,
+            @Value("${macro.opening-book.prefix-length:4}") int prefixLength,
+            @Value("${macro.opening-book.max-execution-time-ms:60000}") long maxExecutionTimeMs,
+            @Value("${macro.opening-book.stat-tiers:}") List<String> statTiers,
+            @Value("${macro.opening-book.recipes:}") List<String> recipes) {
+        return args -> {
+            List<Scenario> scenarios = new ArrayList<>();
+            for (String statTier : statTiers) {
+                int[] stats = parse(statTier);
+                PlayerStatus playerStatus = PlayerStatus.builder()
+                        .craftsmanship(stats[0])
+                        .control(stats[1])
+                        .cp(stats[2])
+                        .build();
+                for (String recipe : recipes) {
+                    int[] values = parse(recipe);
+                    scenarios.add(new Scenario(playerStatus, Recipe.builder()
+                            .requiredProgress(values[0])
+                            .maxQuality(values[1])
+                            .baseDurability(values[2])
+                            .build(), true, true));
+                }
+            }
+
+            OpeningBook book = new OpeningBookGenerator(optimizer, prefixLength, maxExecutionTimeMs)
+                    .generate(scenarios, skillService.getAllSkills());
+            book.write(Path.of(output));
+            log.info("定跡の表を書き込み: {}, 定跡数 = {}", output, book.size());
+        };
+    }
+
+    private static int[] parse(String values) {
+        String[] parts = values.trim().split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected 3 values separated by ':': " + values);
+        }
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
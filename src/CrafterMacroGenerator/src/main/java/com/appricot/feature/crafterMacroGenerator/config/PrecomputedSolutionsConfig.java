@@ -0,0 +1,139 @@
+package com.appricot.feature.crafterMacroGenerator.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.appricot.feature.crafterMacroGenerator.MacroGeneratorService;
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.store.PrecomputedSolutions;
+import com.appricot.feature.crafterMacroGenerator.store.PrecomputedSolutionsGenerator;
+import com.appricot.feature.crafterMacroGenerator.store.StoredSolution;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 事前に探索した結果の表の設定クラス
+ */
+@Slf4j
+@Configuration
+public class PrecomputedSolutionsConfig {
+
+    // すべてのスキルを使用するスキルの組み合わせ
+    private static final String ALL_SKILLS = "*";
+
+    /**
+     * 起動時にメモリにマップする事前に探索した結果の表を提供
+     * ファイルを指定しない場合、ファイルがない場合、形式・バージョンが異なる場合は使用しない。
+     * @param path 結果の表のファイル（空の場合は使用しない）
+     * @return 事前に探索した結果の表
+     */
+    @Bean
+    public PrecomputedSolutions precomputedSolutions(@Value("${macro.precomputed.path:}") String path) {
+        if (path.isBlank()) {
+            return PrecomputedSolutions.empty();
+        }
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file)) {
+            log.warn("事前に探索した結果の表のファイルがありません: {}", file);
+            return PrecomputedSolutions.empty();
+        }
+        try {
+            PrecomputedSolutions solutions = PrecomputedSolutions.open(file);
+            log.info("事前に探索した結果の表をマップ: {}, 結果数 = {}", file, solutions.size());
+            return solutions;
+        } catch (IOException e) {
+            log.warn("事前に探索した結果の表を読み込めません: {}", file, e);
+            return PrecomputedSolutions.empty();
+        }
+    }
+
+    /**
+     * 事前に探索した結果の表を作成してファイルに書き込むジョブ（precompute プロファイルでのみ実行）
+     * ステータス帯の代表値・レシピ・スキルの組み合わせのすべての組み合わせを、品質優先・耐久度制約ありの条件で探索する。
+     * 結果はスキル一覧のバージョンを含む識別子で記録するため、スキル一覧を変更した場合は作成し直す。
+     * @param macroGeneratorService 探索に使用するサービス
+     * @param output 書き込み先のファイル
+     * @param maxExecutionTimeMs リクエストごとの最大実行時間（ミリ秒）
+     * @param statTiers ステータス帯の代表値（"作業精度:加工精度:CP" の一覧）
+     * @param recipes レシピ（"必要作業進捗:最大品質:耐久度" の一覧）
+     * @param skillSets スキルの組み合わせ（"+" 区切りのスキル名の一覧、"*" はすべてのスキル）
+     * @return ジョブ
+     */
+    @Bean
+    @Profile("precompute")
+    public ApplicationRunner precomputeJob(
+            MacroGeneratorService macroGeneratorService,
+            @Value("${macro.precompute.output:precomputed.bin}") String output,
+            @Value("${macro.precompute.max-execution-time-ms:60000}") long maxExecutionTimeMs,
+            @Value("${macro.precompute.stat-tiers:}") List<String> statTiers,
+            @Value("${macro.precompute.recipes:}") List<String> recipes,
+            @Value("${macro.precompute.skill-sets:*}") List<String> skillSets) {
+        return args -> {
+            List<MacroGenerationRequest> requests = new ArrayList<>();
+            for (String statTier : statTiers) {
+                int[] stats = parse(statTier);
+                PlayerStatus playerStatus = PlayerStatus.builder()
+                        .craftsmanship(stats[0])
+                        .control(stats[1])
+                        .cp(stats[2])
+                        .build();
+                for (String recipe : recipes) {
+                    int[] values = parse(recipe);
+                    Recipe target = Recipe.builder()
+                            .requiredProgress(values[0])
+                            .maxQuality(values[1])
+                            .baseDurability(values[2])
+                            .build();
+                    for (String skillSet : skillSets) {
+                        requests.add(MacroGenerationRequest.builder()
+                                .playerStatus(playerStatus)
+                                .recipe(target)
+                                .availableSkills(skillsOf(skillSet))
+                                .build());
+                    }
+                }
+            }
+
+            Map<RequestFingerprint, StoredSolution> solutions =
+                    new PrecomputedSolutionsGenerator(macroGeneratorService, maxExecutionTimeMs).generate(requests);
+            PrecomputedSolutions.write(solutions, Path.of(output));
+            log.info("事前に探索した結果の表を書き込み: {}, 結果数 = {}", output, solutions.size());
+        };
+    }
+
+    private static List<String> skillsOf(String skillSet) {
+        if (skillSet.isBlank() || skillSet.trim().equals(ALL_SKILLS)) {
+            return null;
+        }
+        return Arrays.stream(skillSet.split("\\+"))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    private static int[] parse(String values) {
+        String[] parts = values.trim().split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected 3 values separated by ':': " + values);
+        }
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.appricot.feature.crafterMacroGenerator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appricot.feature.crafterMacroGenerator.store.JdbcSolutionStore;
+import com.appricot.feature.crafterMacroGenerator.store.SolutionStore;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 探索結果の保存先の設定クラス
+ */
+@Slf4j
+@Configuration
+public class SolutionStoreConfig {
+
+    /**
+     * 探索結果の保存先を提供
+     * 無効の場合、データベースに接続できない場合は何も保存しない（探索は保存先なしで続行する）。
+     * データソースは保存先専用に作成し、アプリケーションの終了時に保存先と一緒に閉じる。
+     * @param enabled 保存先を使用するか
+     * @param url JDBC URL
+     * @param username ユーザー名
+     * @param password パスワード
+     * @param poolSize 接続数の上限
+     * @param batchSize 1回にまとめて書き込む結果数の上限
+     * @param flushIntervalMs まとめて書き込むまでに待つ時間の上限（ミリ秒）
+     * @param queueCapacity 書き込みの実行待ちの上限
+     * @return 探索結果の保存先
+     */
+    @Bean
+    public SolutionStore solutionStore(
+            @Value("${macro.store.enabled:false}") boolean enabled,
+            @Value("${macro.store.url:}") String url,
+            @Value("${macro.store.username:}") String username,
+            @Value("${macro.store.password:}") String password,
+            @Value("${macro.store.pool-size:4}") int poolSize,
+            @Value("${macro.store.batch-size:64}") int batchSize,
+            @Value("${macro.store.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${macro.store.queue-capacity:4096}") int queueCapacity) {
+        if (!enabled) {
+            return SolutionStore.disabled();
+        }
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setPoolName("macro-store");
+        try {
+            JdbcSolutionStore store = new JdbcSolutionStore(
+                    new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                    batchSize,
+                    flushIntervalMs,
+                    queueCapacity);
+            log.info("探索結果の保存先に接続: {}", url);
+            return store;
+        } catch (DataAccessException e) {
+            log.error("探索結果の保存先に接続できないため、保存先を使用しません: {}", url, e);
+            dataSource.close();
+            return SolutionStore.disabled();
+        }
+    }
+}
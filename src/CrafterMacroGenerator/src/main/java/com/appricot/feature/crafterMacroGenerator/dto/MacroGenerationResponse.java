@@ -2,13 +2,15 @@ package com.appricot.feature.crafterMacroGenerator.dto;
 
 import java.util.List;
 
+import com.appricot.feature.crafterMacroGenerator.entity.ResultSource;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class MacroGenerationResponse {
@@ -23,6 +25,9 @@ public class MacroGenerationResponse {
     private int qualityPercentage;     // 品質達成率（%）
     private boolean progressComplete;  // 作業進捗が目標を達成したか
     
-    private long calculationTimeMs;    // 計算にかかった時間（ミリ秒）
+    private long calculationTimeMs;    // 計算にかかった時間（ミリ秒、キャッシュから返した場合は元の探索の時間）
+    private long responseTimeMicros;   // このリクエストの処理にかかった時間（マイクロ秒）
+    private ResultSource resultSource; // 結果の取得元
     private int exploredStates;        // 探索した状態数
+    private boolean budgetLimited;     // 予算切れで打ち切った暫定結果か（falseの場合は探索を完了）
 }
@@ -0,0 +1,36 @@
+package com.appricot.feature.crafterMacroGenerator.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacroSimulationBatchRequest {
+    
+    @NotNull(message = "プレイヤーステータスは必須です")
+    @Valid
+    private PlayerStatus playerStatus;
+    
+    @NotNull(message = "レシピ情報は必須です")
+    @Valid
+    private Recipe recipe;
+    
+    @NotEmpty(message = "マクロは1つ以上指定してください")
+    private List<@NotNull List<String>> macros; // シミュレートするマクロ（スキル名の列）のリスト
+    
+    @Builder.Default
+    private boolean includeHistory = false; // true: 各ステップの状態を結果に含める
+}
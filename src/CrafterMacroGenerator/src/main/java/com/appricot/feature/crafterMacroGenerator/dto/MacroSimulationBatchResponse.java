@@ -0,0 +1,21 @@
+package com.appricot.feature.crafterMacroGenerator.dto;
+
+import java.util.List;
+
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationResult;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacroSimulationBatchResponse {
+    private List<SimulationResult> results; // マクロごとの結果（リクエストと同じ順序）
+    
+    private int completedCount;        // 作業進捗を達成したマクロ数
+    private long calculationTimeMs;    // 計算にかかった時間（ミリ秒）
+}
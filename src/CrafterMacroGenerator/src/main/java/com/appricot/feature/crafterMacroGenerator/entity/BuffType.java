@@ -0,0 +1,60 @@
+package com.appricot.feature.crafterMacroGenerator.entity;
+
+/**
+ * バフの種類
+ * ordinal() を圧縮状態（PackedState）内のスロット番号として使用するため、並び順を変更しないこと
+ */
+public enum BuffType {
+    INNER_QUIET("内静", 11, true),               // 加工効率アップ（スタック）
+    WASTE_NOT("倹約", 4, false),                 // 耐久消費半減
+    WASTE_NOT_II("長期倹約", 8, false),          // 耐久消費半減（長期）
+    VENERATION("確信", 4, false),                // 作業効率アップ
+    GREAT_STRIDES("グレートストライド", 3, false), // 次の加工効率アップ
+    INNOVATION("改革", 4, false),                // 加工効率アップ
+    MUSCLE_MEMORY("真価発揮", 5, false),         // 次の作業効率アップ
+    MANIPULATION("マニピュレーション", 8, false), // 毎ターン耐久回復
+    FINAL_APPRAISAL("最終確認", 5, false);       // 作業進捗の完成を防ぐ
+
+    private final String displayName;
+    private final int maxValue;
+    private final boolean stacking;
+
+    BuffType(String displayName, int maxValue, boolean stacking) {
+        this.displayName = displayName;
+        this.maxValue = maxValue;
+        this.stacking = stacking;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 残りターン数（スタック数）の最大値
+     */
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * スタック型のバフかどうか
+     * スタック型はターン経過で減少しない
+     */
+    public boolean isStacking() {
+        return stacking;
+    }
+
+    /**
+     * バフ名から種類を取得
+     * @param displayName バフ名（プレフィックスのみ）
+     * @return バフの種類、該当しない場合はnull
+     */
+    public static BuffType fromDisplayName(String displayName) {
+        for (BuffType type : values()) {
+            if (type.displayName.equals(displayName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
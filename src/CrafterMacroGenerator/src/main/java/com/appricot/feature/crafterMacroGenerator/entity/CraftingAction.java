@@ -1,19 +1,59 @@
 package com.appricot.feature.crafterMacroGenerator.entity;
 
+import java.util.function.Predicate;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * クラフトアクションの基底クラス
+ * アクションの効果は効率・付与バフなどの宣言的な属性で定義し、
+ * 実行可否の判定とターン処理は CompiledActionTable がプレイヤーステータスから求めた上昇量で行う
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public abstract class CraftingAction {
+
     private String name;
     private int cpCost;
     private ActionType type;
     private int baseDurabilityCost;
     private int executeTime;
 
-    public abstract CraftingState apply(CraftingState currentState);
-    public abstract boolean canExecute(CraftingState currentState);
+    /**
+     * 作業効率（%）、作業進捗を上げないアクションは0
+     */
+    public int getProgressEfficiency() {
+        return 0;
+    }
+
+    /**
+     * 加工効率（%）、品質を上げないアクションは0
+     */
+    public int getQualityEfficiency() {
+        return 0;
+    }
+
+    /**
+     * 実行後に付与するバフ、付与しない場合はnull
+     */
+    public BuffType getGrantedBuff() {
+        return null;
+    }
+
+    /**
+     * 付与するバフの持続ターン数
+     */
+    public int getGrantedBuffTurns() {
+        return 0;
+    }
+
+    /**
+     * CP・耐久度以外の実行条件、条件がない場合はnull
+     */
+    public Predicate<PackedState> getExecutionCondition() {
+        return null;
+    }
 }
@@ -18,4 +18,6 @@ public class OptimizationResult {
     private int finalProgress;
     private int usedCP;
     private int totalActions;
+    private int exploredStates;       // 探索した状態数
+    private boolean budgetLimited;    // 予算（時間・探索ノード数）切れで探索を打ち切ったか
 }
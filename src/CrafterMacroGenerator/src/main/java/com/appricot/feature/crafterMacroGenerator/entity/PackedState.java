@@ -0,0 +1,292 @@
+package com.appricot.feature.crafterMacroGenerator.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 探索用の圧縮クラフト状態
+ * 進捗・品質・耐久度・CPを1つのlong（resources）に、
+ * バフの残りターン数をもう1つのlong（buffs）にまとめて保持する。
+ * 最適化アルゴリズム内部ではこのクラスとlong値を使用し、
+ * CraftingState との変換はAPI境界でのみ行う。
+ */
+public final class PackedState {
+
+    // resources のビット配置: 進捗(20bit) | 品質(20bit) | 耐久度(8bit, 符号付き) | CP(12bit)
+    private static final int PROGRESS_SHIFT = 0;
+    private static final int QUALITY_SHIFT = 20;
+    private static final int DURABILITY_SHIFT = 40;
+    private static final int CP_SHIFT = 48;
+
+    private static final long PROGRESS_MASK = (1L << 20) - 1;
+    private static final long QUALITY_MASK = (1L << 20) - 1;
+    private static final long DURABILITY_MASK = (1L << 8) - 1;
+    private static final long CP_MASK = (1L << 12) - 1;
+
+    public static final int MAX_PROGRESS = (int) PROGRESS_MASK;
+    public static final int MAX_QUALITY = (int) QUALITY_MASK;
+    public static final int MIN_DURABILITY = Byte.MIN_VALUE;
+    public static final int MAX_DURABILITY = Byte.MAX_VALUE;
+    public static final int MAX_CP = (int) CP_MASK;
+
+    // buffs のビット配置: BuffType.ordinal() ごとに4bit（最大16種類）
+    public static final int BUFF_BITS = 4;
+    public static final long BUFF_MASK = (1L << BUFF_BITS) - 1;
+
+    private long resources;
+    private long buffs;
+
+    public PackedState() {
+    }
+
+    public PackedState(long resources, long buffs) {
+        this.resources = resources;
+        this.buffs = buffs;
+    }
+
+    /**
+     * CraftingState から圧縮状態を作成
+     * @param state クラフト状態
+     * @return 圧縮状態
+     * @throws IllegalArgumentException 表現できない値が含まれる場合
+     */
+    public static PackedState of(CraftingState state) {
+        checkRange("進捗", state.getCurrentProgress(), 0, MAX_PROGRESS);
+        checkRange("品質", state.getCurrentQuality(), 0, MAX_QUALITY);
+        checkRange("耐久度", state.getRemainingDurability(), MIN_DURABILITY, MAX_DURABILITY);
+        checkRange("CP", state.getCurrentCP(), 0, MAX_CP);
+
+        return new PackedState(
+                packResources(
+                        state.getCurrentProgress(),
+                        state.getCurrentQuality(),
+                        state.getRemainingDurability(),
+                        state.getCurrentCP()),
+                packBuffs(state.getAppliedBuffs()));
+    }
+
+    /**
+     * "バフ名:残りターン数" 形式のバフリストを圧縮値に変換
+     * 未知のバフは無視する（どのアクションの効果にも影響しないため）。
+     * 持続時間のないバフは残り1ターンとする（圧縮値では持続し続けるバフを表現できないため、
+     * CraftingState のバフ操作とは異なり次のターン経過で消える）。
+     * @param appliedBuffs バフリスト
+     * @return バフの圧縮値
+     */
+    public static long packBuffs(List<String> appliedBuffs) {
+        long buffs = 0;
+        for (String buff : appliedBuffs) {
+            int separator = buff.indexOf(':');
+            String buffName = separator < 0 ? buff : buff.substring(0, separator);
+            BuffType type = BuffType.fromDisplayName(buffName);
+            if (type == null) {
+                continue;
+            }
+            // 持続時間が指定されていない場合は1と見なす
+            int turns = separator < 0 ? 1 : Integer.parseInt(buff.substring(separator + 1));
+            buffs = withBuffTurns(buffs, type, Math.min(turns, type.getMaxValue()));
+        }
+        return buffs;
+    }
+
+    /**
+     * バフの圧縮値を "バフ名:残りターン数" 形式のリストに展開
+     * @param buffs バフの圧縮値
+     * @return バフリスト
+     */
+    public static List<String> unpackBuffs(long buffs) {
+        List<String> appliedBuffs = new ArrayList<>();
+        for (BuffType type : BuffType.values()) {
+            int turns = buffTurns(buffs, type);
+            if (turns > 0) {
+                appliedBuffs.add(type.getDisplayName() + ":" + turns);
+            }
+        }
+        return appliedBuffs;
+    }
+
+    /**
+     * CraftingState に展開する（使用済みアクションは空）
+     * @return クラフト状態
+     */
+    public CraftingState toCraftingState() {
+        return toCraftingState(resources, buffs);
+    }
+
+    /**
+     * 圧縮値から CraftingState を作成
+     * @param resources 進捗・品質・耐久度・CPの圧縮値
+     * @param buffs バフの圧縮値
+     * @return クラフト状態（使用済みアクションは空）
+     */
+    public static CraftingState toCraftingState(long resources, long buffs) {
+        return CraftingState.builder()
+                .currentProgress(progress(resources))
+                .currentQuality(quality(resources))
+                .remainingDurability(durability(resources))
+                .currentCP(cp(resources))
+                .appliedBuffs(unpackBuffs(buffs))
+                .usedActions(new ArrayList<>())
+                .build();
+    }
+
+    private static void checkRange(String label, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(
+                    label + "の値が範囲外です: " + value + " (" + min + "～" + max + ")");
+        }
+    }
+
+    // ---- resources のビット操作 ----
+
+    public static long packResources(int progress, int quality, int durability, int cp) {
+        return ((progress & PROGRESS_MASK) << PROGRESS_SHIFT)
+                | ((quality & QUALITY_MASK) << QUALITY_SHIFT)
+                | ((durability & DURABILITY_MASK) << DURABILITY_SHIFT)
+                | ((cp & CP_MASK) << CP_SHIFT);
+    }
+
+    public static int progress(long resources) {
+        return (int) ((resources >>> PROGRESS_SHIFT) & PROGRESS_MASK);
+    }
+
+    public static int quality(long resources) {
+        return (int) ((resources >>> QUALITY_SHIFT) & QUALITY_MASK);
+    }
+
+    public static int durability(long resources) {
+        // 符号付き8bitとして復元
+        return (byte) (resources >>> DURABILITY_SHIFT);
+    }
+
+    public static int cp(long resources) {
+        return (int) ((resources >>> CP_SHIFT) & CP_MASK);
+    }
+
+    public static long withProgress(long resources, int progress) {
+        int clamped = Math.min(Math.max(progress, 0), MAX_PROGRESS);
+        return (resources & ~(PROGRESS_MASK << PROGRESS_SHIFT)) | ((long) clamped << PROGRESS_SHIFT);
+    }
+
+    public static long withQuality(long resources, int quality) {
+        int clamped = Math.min(Math.max(quality, 0), MAX_QUALITY);
+        return (resources & ~(QUALITY_MASK << QUALITY_SHIFT)) | ((long) clamped << QUALITY_SHIFT);
+    }
+
+    public static long withDurability(long resources, int durability) {
+        int clamped = Math.min(Math.max(durability, MIN_DURABILITY), MAX_DURABILITY);
+        return (resources & ~(DURABILITY_MASK << DURABILITY_SHIFT))
+                | ((clamped & DURABILITY_MASK) << DURABILITY_SHIFT);
+    }
+
+    public static long withCP(long resources, int cp) {
+        int clamped = Math.min(Math.max(cp, 0), MAX_CP);
+        return (resources & ~(CP_MASK << CP_SHIFT)) | ((long) clamped << CP_SHIFT);
+    }
+
+    // ---- buffs のビット操作 ----
+
+    public static int buffTurns(long buffs, BuffType type) {
+        return (int) ((buffs >>> (type.ordinal() * BUFF_BITS)) & BUFF_MASK);
+    }
+
+    public static long withBuffTurns(long buffs, BuffType type, int turns) {
+        int shift = type.ordinal() * BUFF_BITS;
+        return (buffs & ~(BUFF_MASK << shift)) | (((long) turns & BUFF_MASK) << shift);
+    }
+
+    // ---- インスタンスアクセサ ----
+
+    public long getResources() {
+        return resources;
+    }
+
+    public long getBuffs() {
+        return buffs;
+    }
+
+    public void setResources(long resources) {
+        this.resources = resources;
+    }
+
+    public void setBuffs(long buffs) {
+        this.buffs = buffs;
+    }
+
+    public void set(long resources, long buffs) {
+        this.resources = resources;
+        this.buffs = buffs;
+    }
+
+    public void set(PackedState other) {
+        this.resources = other.resources;
+        this.buffs = other.buffs;
+    }
+
+    public PackedState copy() {
+        return new PackedState(resources, buffs);
+    }
+
+    public int getProgress() {
+        return progress(resources);
+    }
+
+    public int getQuality() {
+        return quality(resources);
+    }
+
+    public int getDurability() {
+        return durability(resources);
+    }
+
+    public int getCP() {
+        return cp(resources);
+    }
+
+    public void setProgress(int progress) {
+        resources = withProgress(resources, progress);
+    }
+
+    public void setQuality(int quality) {
+        resources = withQuality(resources, quality);
+    }
+
+    public void setDurability(int durability) {
+        resources = withDurability(resources, durability);
+    }
+
+    public void setCP(int cp) {
+        resources = withCP(resources, cp);
+    }
+
+    public int getBuffTurns(BuffType type) {
+        return buffTurns(buffs, type);
+    }
+
+    public void setBuffTurns(BuffType type, int turns) {
+        buffs = withBuffTurns(buffs, type, turns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(resources * 31 + buffs);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PackedState)) return false;
+
+        PackedState other = (PackedState) obj;
+        return resources == other.resources && buffs == other.buffs;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedState(progress=" + getProgress()
+                + ", quality=" + getQuality()
+                + ", durability=" + getDurability()
+                + ", cp=" + getCP()
+                + ", buffs=0x" + Long.toHexString(buffs) + ")";
+    }
+}
@@ -0,0 +1,13 @@
+package com.appricot.feature.crafterMacroGenerator.entity;
+
+/**
+ * マクロ生成結果の取得元
+ */
+public enum ResultSource {
+    SEARCH,   // このリクエストで探索した
+    CACHE,    // 同じ条件のリクエストの結果をキャッシュから返した
+    STORE,    // 同じ条件のリクエストの結果を永続化した保存先から返した
+    PRECOMPUTED, // 同じ条件のリクエストの結果を事前に探索した結果の表から返した
+    NEIGHBOR, // 近いステータスで求めた結果を、リクエストのステータスで検証して返した
+    SHARED    // 同じ条件のリクエストで実行中の探索の結果を共有した
+}
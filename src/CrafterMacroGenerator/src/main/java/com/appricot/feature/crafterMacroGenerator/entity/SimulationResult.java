@@ -0,0 +1,27 @@
+package com.appricot.feature.crafterMacroGenerator.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationResult {
+    private SimulationStatus status;
+    private int executedActions;       // 実行したアクション数
+    private int failedStep;            // 失敗したアクションの位置（0始まり、失敗なしの場合は-1）
+    private String failedAction;       // 失敗したアクション名（失敗なしの場合はnull）
+    
+    private int finalQuality;          // 最終品質
+    private int finalProgress;         // 最終進捗
+    private int totalCPUsed;           // 使用したCP
+    private int durabilityRemaining;   // 残り耐久度
+    private boolean progressComplete;  // 作業進捗が目標を達成したか
+    
+    private List<CraftingState> history; // 各ステップの状態（要求された場合のみ、初期状態を含む）
+}
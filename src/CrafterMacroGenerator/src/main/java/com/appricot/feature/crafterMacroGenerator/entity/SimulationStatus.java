@@ -0,0 +1,9 @@
+package com.appricot.feature.crafterMacroGenerator.entity;
+
+public enum SimulationStatus {
+    COMPLETED,           // 作業進捗が目標を達成した
+    PROGRESS_INCOMPLETE, // すべてのアクションを実行したが作業進捗が未達成
+    DURABILITY_DEPLETED, // 作業進捗の達成前に耐久度が0以下になった
+    NOT_EXECUTABLE,      // 実行できないアクションがあった（CP不足・条件未達など）
+    UNKNOWN_ACTION       // 存在しない・利用できないスキル名が含まれていた
+}
@@ -0,0 +1,247 @@
+package com.appricot.feature.crafterMacroGenerator.store;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBCで探索結果を保存する保存先
+ * 書き込みは実行待ちに追加して呼び出し元に戻り、専用のスレッドがまとめて1つのトランザクションで書き込む。
+ * 同じ識別子の結果は削除してから追加する（データベースごとに異なるUPSERTの構文を使用しない）。
+ * 実行待ちが満杯の場合は書き込みを破棄する（結果はキャッシュに残り、次の探索で再び保存される）。
+ *
+ * 行のキーは識別子のハッシュで、読み込み時に識別子の全体を比較してハッシュの衝突を除く。
+ * テーブルがない場合は作成する。
+ * データソースが {@link AutoCloseable} の場合は、{@link #close()} で残りの書き込みを終えてから閉じる。
+ */
+@Slf4j
+public class JdbcSolutionStore implements SolutionStore {
+
+    static final String TABLE = "macro_solution";
+
+    // アクションのスキル名の区切り
+    private static final String ACTION_SEPARATOR = "\n";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "fingerprint_digest BIGINT NOT NULL PRIMARY KEY, "
+            + "fingerprint VARCHAR(4000) NOT NULL, "
+            + "action_names VARCHAR(4000) NOT NULL, "
+            + "final_progress INTEGER NOT NULL, "
+            + "final_quality INTEGER NOT NULL, "
+            + "durability_remaining INTEGER NOT NULL, "
+            + "total_cp_used INTEGER NOT NULL, "
+            + "calculation_time_ms BIGINT NOT NULL, "
+            + "explored_states INTEGER NOT NULL, "
+            + "budget_limited BOOLEAN NOT NULL, "
+            + "created_at TIMESTAMP NOT NULL)";
+
+    private static final String SELECT = "SELECT fingerprint, action_names, final_progress, final_quality, "
+            + "durability_remaining, total_cp_used, calculation_time_ms, explored_states, budget_limited "
+            + "FROM " + TABLE + " WHERE fingerprint_digest = ?";
+
+    private static final String DELETE = "DELETE FROM " + TABLE + " WHERE fingerprint_digest = ?";
+
+    private static final String INSERT = "INSERT INTO " + TABLE + " (fingerprint_digest, fingerprint, action_names, "
+            + "final_progress, final_quality, durability_remaining, total_cp_used, calculation_time_ms, "
+            + "explored_states, budget_limited, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final BlockingQueue<PendingWrite> pending;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param jdbcTemplate 保存先のデータベース
+     * @param transactionTemplate まとめた書き込みを1つのトランザクションで実行するテンプレート
+     * @param batchSize 1回にまとめて書き込む結果数の上限
+     * @param flushIntervalMs まとめて書き込むまでに待つ時間の上限（ミリ秒）
+     * @param queueCapacity 書き込みの実行待ちの上限
+     */
+    public JdbcSolutionStore(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            int batchSize,
+            long flushIntervalMs,
+            int queueCapacity) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+
+        jdbcTemplate.execute(CREATE_TABLE);
+
+        this.writer = new Thread(this::runWriter, "macro-solution-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public StoredSolution find(RequestFingerprint fingerprint) {
+        try {
+            List<StoredSolution> rows = jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+                // ハッシュが同じ別の識別子の結果は使用しない
+                if (!fingerprint.canonicalKey().equals(rs.getString("fingerprint"))) {
+                    return null;
+                }
+                return new StoredSolution(
+                        Arrays.asList(rs.getString("action_names").split(ACTION_SEPARATOR)),
+                        rs.getInt("final_progress"),
+                        rs.getInt("final_quality"),
+                        rs.getInt("durability_remaining"),
+                        rs.getInt("total_cp_used"),
+                        rs.getLong("calculation_time_ms"),
+                        rs.getInt("explored_states"),
+                        rs.getBoolean("budget_limited"));
+            }, fingerprint.digest());
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (DataAccessException e) {
+            log.warn("保存した探索結果を読み込めません", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(RequestFingerprint fingerprint, StoredSolution solution) {
+        // 空のマクロは保存しない（作業進捗を達成できなかった結果）
+        if (closed || solution.actionNames().isEmpty()) {
+            return;
+        }
+        if (!pending.offer(new PendingWrite(fingerprint, solution, Instant.now()))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 書き込んだ結果数
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 実行待ちが満杯で破棄した書き込み数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        // 書き込み中のJDBCの処理を割り込みで中断しないよう、待ち時間の経過で終了を確認させる
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (jdbcTemplate.getDataSource() instanceof AutoCloseable dataSource) {
+            try {
+                dataSource.close();
+            } catch (Exception e) {
+                log.warn("探索結果の保存先を閉じられません", e);
+            }
+        }
+    }
+
+    /**
+     * 実行待ちの書き込みをまとめて書き込むループ（閉じた後は残りを書き込んで終了）
+     */
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (!closed || !pending.isEmpty()) {
+            try {
+                PendingWrite first = closed
+                        ? pending.poll()
+                        : pending.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 最初の書き込みから一定時間待ち、その間に追加された書き込みもまとめる
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (!closed && batch.size() < batchSize) {
+                    PendingWrite next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+            }
+            pending.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        // 同じ識別子の書き込みは最後のものだけを使用
+        Map<Long, PendingWrite> latest = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            latest.remove(write.fingerprint().digest());
+            latest.put(write.fingerprint().digest(), write);
+        }
+        List<PendingWrite> rows = new ArrayList<>(latest.values());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(DELETE, rows, rows.size(),
+                        (ps, write) -> ps.setLong(1, write.fingerprint().digest()));
+                jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), JdbcSolutionStore::bindInsert);
+            });
+            written.add(rows.size());
+        } catch (DataAccessException e) {
+            log.warn("探索結果を保存できません: {} 件", rows.size(), e);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement ps, PendingWrite write) throws SQLException {
+        StoredSolution solution = write.solution();
+        ps.setLong(1, write.fingerprint().digest());
+        ps.setString(2, write.fingerprint().canonicalKey());
+        ps.setString(3, String.join(ACTION_SEPARATOR, solution.actionNames()));
+        ps.setInt(4, solution.finalProgress());
+        ps.setInt(5, solution.finalQuality());
+        ps.setInt(6, solution.durabilityRemaining());
+        ps.setInt(7, solution.totalCPUsed());
+        ps.setLong(8, solution.calculationTimeMs());
+        ps.setInt(9, solution.exploredStates());
+        ps.setBoolean(10, solution.budgetLimited());
+        ps.setTimestamp(11, Timestamp.from(write.createdAt()));
+    }
+
+    private record PendingWrite(RequestFingerprint fingerprint, StoredSolution solution, Instant createdAt) {
+    }
+}
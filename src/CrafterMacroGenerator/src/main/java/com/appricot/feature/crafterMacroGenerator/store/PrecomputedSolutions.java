@@ -0,0 +1,257 @@
+package com.appricot.feature.crafterMacroGenerator.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+
+/**
+ * 事前に探索した結果の表（読み込み専用）
+ * オフラインのジョブで探索した結果を識別子のハッシュ順に並べたファイルをメモリにマップし、
+ * 二分探索で結果を取得する（ファイル全体を読み込まず、参照したページだけを読む）。
+ *
+ * ファイルは先頭のマジックナンバーとバージョンで形式を確認するバイナリ形式で、次の順に並ぶ。
+ * <ul>
+ * <li>ヘッダー（マジックナンバー・バージョン）とスキル名の表</li>
+ * <li>索引（識別子のハッシュ・識別子の文字列のハッシュ・結果の位置の固定長の行、ハッシュ順）</li>
+ * <li>結果（スキル名の番号の列と最終状態・探索の統計）</li>
+ * </ul>
+ * ハッシュが同じ別の識別子は、識別子の文字列のハッシュ（{@link String#hashCode()}）で区別する。
+ * 作成後は変更しないため、スレッド間で共有できる（読み込みは位置を指定した読み込みのみを使用する）。
+ */
+public final class PrecomputedSolutions {
+
+    /**
+     * ファイル形式のバージョン（形式を変更した場合は上げる）
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    // ファイル先頭のマジックナンバー（"PCS" + 0）
+    private static final int MAGIC = 0x50435300;
+
+    // 索引の1行のバイト数（ハッシュ・文字列のハッシュ・結果の位置）
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final PrecomputedSolutions EMPTY = new PrecomputedSolutions(ByteBuffer.allocate(0), new String[0], 0, 0);
+
+    private final ByteBuffer buffer;
+    private final String[] names;
+    private final int indexStart;
+    private final int count;
+
+    private PrecomputedSolutions(ByteBuffer buffer, String[] names, int indexStart, int count) {
+        this.buffer = buffer;
+        this.names = names;
+        this.indexStart = indexStart;
+        this.count = count;
+    }
+
+    /**
+     * 結果のない表
+     */
+    public static PrecomputedSolutions empty() {
+        return EMPTY;
+    }
+
+    /**
+     * ファイルをメモリにマップして開く（ファイルは2GB未満であること）
+     * @throws IOException 読み込みに失敗した場合、形式・バージョンが異なる場合
+     */
+    public static PrecomputedSolutions open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Precomputed solutions file too large: " + channel.size());
+            }
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * バイト列から開く
+     * @throws IOException 形式・バージョンが異なる場合
+     */
+    public static PrecomputedSolutions of(ByteBuffer buffer) throws IOException {
+        try {
+            ByteBuffer header = buffer.duplicate();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a precomputed solutions file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported precomputed solutions version: " + version);
+            }
+            String[] names = new String[header.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[header.getShort() & 0xffff];
+                header.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int count = header.getInt();
+            int indexStart = header.position();
+            if ((long) count * INDEX_ENTRY_BYTES > header.remaining()) {
+                throw new IOException("Truncated precomputed solutions file");
+            }
+            return new PrecomputedSolutions(buffer, names, indexStart, count);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated precomputed solutions file", e);
+        }
+    }
+
+    /**
+     * 識別子に対応する結果を取得（索引の二分探索）
+     * @return 結果、ない場合は null
+     */
+    public StoredSolution find(RequestFingerprint fingerprint) {
+        long digest = fingerprint.digest();
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(indexStart + mid * INDEX_ENTRY_BYTES) < digest) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int keyHash = fingerprint.canonicalKey().hashCode();
+        for (int i = low; i < count; i++) {
+            int entry = indexStart + i * INDEX_ENTRY_BYTES;
+            if (buffer.getLong(entry) != digest) {
+                break;
+            }
+            if (buffer.getInt(entry + Long.BYTES) == keyHash) {
+                return readSolution(buffer.getInt(entry + Long.BYTES + Integer.BYTES));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 記録している結果の数
+     */
+    public int size() {
+        return count;
+    }
+
+    private StoredSolution readSolution(int offset) {
+        int position = offset;
+        int length = buffer.get(position++) & 0xff;
+        List<String> actionNames = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            actionNames.add(names[buffer.getShort(position) & 0xffff]);
+            position += Short.BYTES;
+        }
+        int finalProgress = buffer.getInt(position);
+        int finalQuality = buffer.getInt(position + 4);
+        int durabilityRemaining = buffer.getInt(position + 8);
+        int totalCPUsed = buffer.getInt(position + 12);
+        long calculationTimeMs = buffer.getLong(position + 16);
+        int exploredStates = buffer.getInt(position + 24);
+        boolean budgetLimited = buffer.get(position + 28) != 0;
+        return new StoredSolution(actionNames, finalProgress, finalQuality, durabilityRemaining,
+                totalCPUsed, calculationTimeMs, exploredStates, budgetLimited);
+    }
+
+    /**
+     * 結果をファイルに書き込む（親ディレクトリがない場合は作成）
+     */
+    public static void write(Map<RequestFingerprint, StoredSolution> solutions, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(solutions, out);
+        }
+    }
+
+    /**
+     * 結果をストリームに書き込む（同じ内容からは同じバイト列を出力するよう、ハッシュ・識別子の順に並べる）
+     * @throws IllegalArgumentException 手数が255を超える結果を含む場合
+     */
+    public static void write(Map<RequestFingerprint, StoredSolution> solutions, OutputStream out) throws IOException {
+        List<Map.Entry<RequestFingerprint, StoredSolution>> sorted = new ArrayList<>(solutions.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<RequestFingerprint, StoredSolution> e) -> e.getKey().digest())
+                .thenComparing(e -> e.getKey().canonicalKey()));
+
+        // スキル名の番号（名前順）
+        TreeSet<String> nameSet = new TreeSet<>();
+        for (StoredSolution solution : solutions.values()) {
+            if (solution.actionNames().size() > 0xff) {
+                throw new IllegalArgumentException("Too many actions: " + solution.actionNames().size());
+            }
+            nameSet.addAll(solution.actionNames());
+        }
+        Map<String, Integer> nameIndex = new HashMap<>();
+        for (String name : nameSet) {
+            nameIndex.put(name, nameIndex.size());
+        }
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.writeInt(nameSet.size());
+        for (String name : nameSet) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            header.writeShort(bytes.length);
+            header.write(bytes);
+        }
+        header.writeInt(sorted.size());
+
+        // 結果の位置は索引の後から
+        Map<RequestFingerprint, Integer> offsets = new LinkedHashMap<>();
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        int payloadStart = header.size() + sorted.size() * INDEX_ENTRY_BYTES;
+        for (Map.Entry<RequestFingerprint, StoredSolution> entry : sorted) {
+            offsets.put(entry.getKey(), payloadStart + payload.size());
+            StoredSolution solution = entry.getValue();
+            payload.writeByte(solution.actionNames().size());
+            for (String name : solution.actionNames()) {
+                payload.writeShort(nameIndex.get(name));
+            }
+            payload.writeInt(solution.finalProgress());
+            payload.writeInt(solution.finalQuality());
+            payload.writeInt(solution.durabilityRemaining());
+            payload.writeInt(solution.totalCPUsed());
+            payload.writeLong(solution.calculationTimeMs());
+            payload.writeInt(solution.exploredStates());
+            payload.writeByte(solution.budgetLimited() ? 1 : 0);
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        headerBytes.writeTo(data);
+        for (Map.Entry<RequestFingerprint, StoredSolution> entry : sorted) {
+            data.writeLong(entry.getKey().digest());
+            data.writeInt(entry.getKey().canonicalKey().hashCode());
+            data.writeInt(offsets.get(entry.getKey()));
+        }
+        payloadBytes.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * 事前に探索した1つのリクエストの結果
+     * @param fingerprint リクエストの識別子
+     * @param solution 探索した結果
+     */
+    public record Solved(RequestFingerprint fingerprint, StoredSolution solution) {
+    }
+}
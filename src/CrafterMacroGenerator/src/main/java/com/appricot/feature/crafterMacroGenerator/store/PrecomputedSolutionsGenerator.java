@@ -0,0 +1,74 @@
+package com.appricot.feature.crafterMacroGenerator.store;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.appricot.feature.crafterMacroGenerator.MacroGeneratorService;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
+import com.appricot.feature.crafterMacroGenerator.store.PrecomputedSolutions.Solved;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 事前に探索した結果の表（{@link PrecomputedSolutions}）をオフラインで作成するクラス
+ * リクエストごとの探索は独立しているため、全コアで並列に実行する。
+ * 探索時間がリクエストごとに大きく異なるため、ワークスティーリングで空いたコアに残りのリクエストを割り当てる。
+ */
+@Slf4j
+public class PrecomputedSolutionsGenerator {
+
+    // 進捗をログに出力する間隔（リクエスト数）
+    private static final int PROGRESS_LOG_INTERVAL = 100;
+
+    private final MacroGeneratorService macroGeneratorService;
+    private final long maxExecutionTimeMs;
+
+    /**
+     * @param macroGeneratorService 探索に使用するサービス
+     * @param maxExecutionTimeMs リクエストごとの最大実行時間（ミリ秒）、0以下の場合は無制限
+     */
+    public PrecomputedSolutionsGenerator(MacroGeneratorService macroGeneratorService, long maxExecutionTimeMs) {
+        this.macroGeneratorService = macroGeneratorService;
+        this.maxExecutionTimeMs = maxExecutionTimeMs;
+    }
+
+    /**
+     * リクエストごとに最良のマクロを探索する
+     * 同じ識別子になるリクエストが複数ある場合は一覧の先のものを使用する。
+     * @param requests リクエストの一覧
+     * @return 識別子ごとの結果（作業進捗を達成できなかったリクエスト・締め切りで打ち切ったリクエストは含まない）
+     */
+    public Map<RequestFingerprint, StoredSolution> generate(List<MacroGenerationRequest> requests) {
+        AtomicInteger completed = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Solved> solved = pool.submit(() -> requests.parallelStream()
+                    .map(request -> {
+                        Solved result = macroGeneratorService.precompute(
+                                request, SearchContext.withTimeout(maxExecutionTimeMs));
+                        int count = completed.incrementAndGet();
+                        if (count % PROGRESS_LOG_INTERVAL == 0) {
+                            log.info("事前探索の進捗: {} / {}", count, requests.size());
+                        }
+                        return result;
+                    })
+                    .filter(Objects::nonNull)
+                    .toList()).join();
+
+            Map<RequestFingerprint, StoredSolution> solutions = new LinkedHashMap<>();
+            for (Solved result : solved) {
+                solutions.putIfAbsent(result.fingerprint(), result.solution());
+            }
+            log.info("事前探索を完了: リクエスト数 = {}, 結果数 = {}", requests.size(), solutions.size());
+            return solutions;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
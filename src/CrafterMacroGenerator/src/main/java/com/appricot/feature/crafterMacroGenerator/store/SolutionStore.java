@@ -0,0 +1,56 @@
+package com.appricot.feature.crafterMacroGenerator.store;
+
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+
+/**
+ * 探索したマクロの永続的な保存先
+ * プロセスの再起動後も以前の探索結果を使用できるよう、リクエストの識別子ごとに結果を保存する。
+ * 書き込みは呼び出し元を待たせないよう非同期に行う。
+ * 保存するのは最後まで探索して作業進捗を達成した結果のみ（締め切りで打ち切った結果は次のリクエストで探索し直す）。
+ */
+public interface SolutionStore extends AutoCloseable {
+
+    /**
+     * 保存した結果を取得
+     * @param fingerprint リクエストの識別子
+     * @return 結果、ない場合・読み込みに失敗した場合は null
+     */
+    StoredSolution find(RequestFingerprint fingerprint);
+
+    /**
+     * 結果の保存を予約（同じ識別子の結果は置き換える）
+     * @param fingerprint リクエストの識別子
+     * @param solution 探索した結果
+     */
+    void save(RequestFingerprint fingerprint, StoredSolution solution);
+
+    /**
+     * 予約済みの書き込みを終えて保存先を閉じる
+     */
+    @Override
+    void close();
+
+    /**
+     * 何も保存しない保存先
+     */
+    static SolutionStore disabled() {
+        return Disabled.INSTANCE;
+    }
+
+    enum Disabled implements SolutionStore {
+        INSTANCE;
+
+        @Override
+        public StoredSolution find(RequestFingerprint fingerprint) {
+            return null;
+        }
+
+        @Override
+        public void save(RequestFingerprint fingerprint, StoredSolution solution) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.appricot.feature.crafterMacroGenerator.store;
+
+import java.util.List;
+
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+
+/**
+ * 保存する探索結果
+ * マクロテキストはスキルの実行時間から作成し直せるため、アクションはスキル名の列で保持する。
+ * @param actionNames アクション（スキル名の列）
+ * @param finalProgress 最終進捗
+ * @param finalQuality 最終品質
+ * @param durabilityRemaining 残り耐久度
+ * @param totalCPUsed 使用したCP
+ * @param calculationTimeMs 探索にかかった時間（ミリ秒）
+ * @param exploredStates 探索した状態数
+ * @param budgetLimited 予算切れで打ち切った暫定結果か
+ */
+public record StoredSolution(
+        List<String> actionNames,
+        int finalProgress,
+        int finalQuality,
+        int durabilityRemaining,
+        int totalCPUsed,
+        long calculationTimeMs,
+        int exploredStates,
+        boolean budgetLimited) {
+
+    public StoredSolution {
+        actionNames = List.copyOf(actionNames);
+    }
+
+    /**
+     * マクロ生成結果から保存する結果を作成
+     */
+    public static StoredSolution of(MacroGenerationResponse response) {
+        return new StoredSolution(
+                response.getActionSequence(),
+                response.getFinalProgress(),
+                response.getFinalQuality(),
+                response.getDurabilityRemaining(),
+                response.getTotalCPUsed(),
+                response.getCalculationTimeMs(),
+                response.getExploredStates(),
+                response.isBudgetLimited());
+    }
+}
@@ -3,117 +3,250 @@ package com.appricot.util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
 
 /**
  * クラフト状態のバフ管理を支援するユーティリティクラス
+ * バフは BuffType ごとに固定のスロット（4bit）を持つ long 値として扱い、
+ * 参照・付与・ターン経過をすべて O(1) かつアロケーションなしで行う
  */
 public class BuffUtils {
-    
-    private static final Pattern BUFF_PATTERN = Pattern.compile("^(.+?)(?::(\\d+))?$");
-    
+
+    // 各スロットの最下位ビット
+    private static final long SLOT_LOW_BITS = 0x1111_1111_1111_1111L;
+
+    // ターン経過で減少するスロットの最下位ビット（スタック型は除外）
+    private static final long TICKING_LOW_BITS = createTickingLowBits();
+
+    private static long createTickingLowBits() {
+        long mask = 0;
+        for (BuffType type : BuffType.values()) {
+            if (!type.isStacking()) {
+                mask |= 1L << (type.ordinal() * PackedState.BUFF_BITS);
+            }
+        }
+        return mask;
+    }
+
+    // ---- 圧縮値（PackedState.buffs）に対する操作 ----
+
     /**
      * バフが存在するかチェック
-     * @param state クラフト状態
-     * @param buffName バフ名（プレフィックスのみ）
+     * @param buffs バフの圧縮値
+     * @param type バフの種類
      * @return バフが存在する場合はtrue
      */
-    public static boolean hasBuff(CraftingState state, String buffName) {
-        for (String buff : state.getAppliedBuffs()) {
-            Matcher matcher = BUFF_PATTERN.matcher(buff);
-            if (matcher.matches() && matcher.group(1).equals(buffName)) {
-                return true;
-            }
+    public static boolean hasBuff(long buffs, BuffType type) {
+        return PackedState.buffTurns(buffs, type) > 0;
+    }
+
+    /**
+     * バフの残りターン数（スタック数）を取得
+     * @param buffs バフの圧縮値
+     * @param type バフの種類
+     * @return 残りターン数、バフが存在しない場合は0
+     */
+    public static int getBuffDuration(long buffs, BuffType type) {
+        return PackedState.buffTurns(buffs, type);
+    }
+
+    /**
+     * バフを付与（既存のバフは上書き）
+     * @param buffs バフの圧縮値
+     * @param type バフの種類
+     * @param duration 持続ターン数（最大値で切り詰める）
+     * @return 付与後の圧縮値
+     */
+    public static long addBuff(long buffs, BuffType type, int duration) {
+        return PackedState.withBuffTurns(buffs, type, Math.min(duration, type.getMaxValue()));
+    }
+
+    /**
+     * バフを削除
+     * @param buffs バフの圧縮値
+     * @param type バフの種類
+     * @return 削除後の圧縮値
+     */
+    public static long removeBuff(long buffs, BuffType type) {
+        return PackedState.withBuffTurns(buffs, type, 0);
+    }
+
+    /**
+     * すべての時間制バフの持続時間を1ターン減少させる
+     * 残りターンが0のスロットとスタック型のバフは変化しない
+     * @param buffs バフの圧縮値
+     * @return 1ターン経過後の圧縮値
+     */
+    public static long decrementBuffDurations(long buffs) {
+        // 各スロットが0でなければ最下位ビットを立てる（スロット間で桁借りは発生しない）
+        long nonZero = (buffs | (buffs >>> 1) | (buffs >>> 2) | (buffs >>> 3)) & SLOT_LOW_BITS;
+        return buffs - (nonZero & TICKING_LOW_BITS);
+    }
+
+    // ---- バフによる効果量の補正 ----
+
+    /**
+     * バフを考慮した作業進捗の上昇量を計算
+     * @param baseIncrease 効率適用後の基本上昇量
+     * @param buffs バフの圧縮値
+     * @return 上昇量
+     */
+    public static int calculateProgressIncrease(int baseIncrease, long buffs) {
+        int increase = baseIncrease;
+
+        // 真価発揮バフがある場合は効果アップ
+        if (hasBuff(buffs, BuffType.MUSCLE_MEMORY)) {
+            increase = (int) (increase * 1.5);
+        }
+
+        // 確信バフがある場合は効果アップ
+        if (hasBuff(buffs, BuffType.VENERATION)) {
+            increase = (int) (increase * 1.2);
+        }
+
+        return increase;
+    }
+
+    /**
+     * バフを考慮した品質の上昇量を計算
+     * @param baseIncrease 効率適用後の基本上昇量
+     * @param buffs バフの圧縮値
+     * @return 上昇量
+     */
+    public static int calculateQualityIncrease(int baseIncrease, long buffs) {
+        // 内静スタック1つにつき効果+10%
+        int increase = baseIncrease * (10 + getBuffDuration(buffs, BuffType.INNER_QUIET)) / 10;
+
+        // 改革バフがある場合は効果アップ
+        if (hasBuff(buffs, BuffType.INNOVATION)) {
+            increase = (int) (increase * 1.5);
+        }
+
+        // グレートストライドバフがある場合は効果アップ
+        if (hasBuff(buffs, BuffType.GREAT_STRIDES)) {
+            increase = increase * 2;
+        }
+
+        return increase;
+    }
+
+    /**
+     * バフを考慮した耐久度の消費量を計算
+     * @param baseCost 基本消費量
+     * @param buffs バフの圧縮値
+     * @return 消費量
+     */
+    public static int calculateDurabilityCost(int baseCost, long buffs) {
+        // 倹約・長期倹約バフがある場合は消費半減
+        if (hasBuff(buffs, BuffType.WASTE_NOT) || hasBuff(buffs, BuffType.WASTE_NOT_II)) {
+            return baseCost / 2;
         }
-        return false;
+        return baseCost;
     }
-    
+
+    // ---- CraftingState（API境界）に対する操作 ----
+
+    /**
+     * バフが存在するかチェック
+     * @param state クラフト状態
+     * @param type バフの種類
+     * @return バフが存在する場合はtrue
+     */
+    public static boolean hasBuff(CraftingState state, BuffType type) {
+        return getBuffDuration(state, type) > 0;
+    }
+
     /**
      * バフの残りターン数を取得
      * @param state クラフト状態
-     * @param buffName バフ名（プレフィックスのみ）
+     * @param type バフの種類
      * @return バフの残りターン数、バフが存在しない場合は0
      */
-    public static int getBuffDuration(CraftingState state, String buffName) {
+    public static int getBuffDuration(CraftingState state, BuffType type) {
+        String buffName = type.getDisplayName();
         for (String buff : state.getAppliedBuffs()) {
-            Matcher matcher = BUFF_PATTERN.matcher(buff);
-            if (matcher.matches() && matcher.group(1).equals(buffName)) {
-                if (matcher.group(2) != null) {
-                    return Integer.parseInt(matcher.group(2));
-                } else {
-                    return 1; // 持続時間が指定されていない場合は1と見なす
-                }
+            // 残りターン数が数字でないバフ（"内静:x" など）はバフ名が一致しないため無視する
+            if (nameOf(buff).equals(buffName)) {
+                int duration = durationOf(buff);
+                return duration < 0 ? 1 : duration; // 持続時間が指定されていない場合は1と見なす
             }
         }
         return 0;
     }
-    
+
     /**
-     * バフを追加
+     * バフを追加（同じ種類のバフは置き換える）
      * @param state クラフト状態
-     * @param buffName バフ名（プレフィックスのみ）
+     * @param type バフの種類
      * @param duration 持続ターン数
      */
-    public static void addBuff(CraftingState state, String buffName, int duration) {
-        // 既存のバフを削除
-        removeBuff(state, buffName);
-        
-        // 新しいバフを追加
+    public static void addBuff(CraftingState state, BuffType type, int duration) {
+        removeBuff(state, type);
         List<String> buffs = new ArrayList<>(state.getAppliedBuffs());
-        buffs.add(buffName + ":" + duration);
+        buffs.add(type.getDisplayName() + ":" + duration);
         state.setAppliedBuffs(buffs);
     }
-    
+
     /**
-     * バフを削除
+     * バフを削除（未知のバフは残す）
      * @param state クラフト状態
-     * @param buffName バフ名（プレフィックスのみ）
+     * @param type バフの種類
      */
-    public static void removeBuff(CraftingState state, String buffName) {
-        List<String> newBuffs = new ArrayList<>();
+    public static void removeBuff(CraftingState state, BuffType type) {
+        String buffName = type.getDisplayName();
+        List<String> buffs = new ArrayList<>();
         for (String buff : state.getAppliedBuffs()) {
-            Matcher matcher = BUFF_PATTERN.matcher(buff);
-            if (!matcher.matches() || !matcher.group(1).equals(buffName)) {
-                newBuffs.add(buff);
+            if (!nameOf(buff).equals(buffName)) {
+                buffs.add(buff);
             }
         }
-        state.setAppliedBuffs(newBuffs);
+        state.setAppliedBuffs(buffs);
     }
-    
+
     /**
      * すべてのバフの持続時間を1ターン減少させる
+     * 持続時間のないバフとスタック型のバフは減少させない（未知のバフも持続時間があれば減少させる）。
      * @param state クラフト状態
      */
     public static void decrementBuffDurations(CraftingState state) {
-        List<String> currentBuffs = state.getAppliedBuffs();
-        List<String> newBuffs = new ArrayList<>();
-        
-        for (String buff : currentBuffs) {
-            Matcher matcher = BUFF_PATTERN.matcher(buff);
-            if (matcher.matches()) {
-                String buffName = matcher.group(1);
-                String durationStr = matcher.group(2);
-                
-                if (durationStr != null) {
-                    int duration = Integer.parseInt(durationStr);
-                    if (duration > 1) {
-                        // 持続時間が残っている場合は減少させる
-                        newBuffs.add(buffName + ":" + (duration - 1));
-                    }
-                    // 持続時間が1以下になった場合はバフを除去（何もしない）
-                } else {
-                    // 持続時間が指定されていないバフはそのまま維持
-                    newBuffs.add(buff);
-                }
-            } else {
-                // パターンに一致しないバフはそのまま維持
-                newBuffs.add(buff);
+        List<String> buffs = new ArrayList<>();
+        for (String buff : state.getAppliedBuffs()) {
+            int duration = durationOf(buff);
+            BuffType type = BuffType.fromDisplayName(nameOf(buff));
+            if (duration < 0 || (type != null && type.isStacking())) {
+                buffs.add(buff);
+            } else if (duration > 1) {
+                buffs.add(nameOf(buff) + ":" + (duration - 1));
+            }
+            // 持続時間が1以下になった場合はバフを除去（何もしない）
+        }
+        state.setAppliedBuffs(buffs);
+    }
+
+    /**
+     * "バフ名:残りターン数" 形式のバフのバフ名
+     */
+    private static String nameOf(String buff) {
+        return durationOf(buff) < 0 ? buff : buff.substring(0, buff.lastIndexOf(':'));
+    }
+
+    /**
+     * "バフ名:残りターン数" 形式のバフの残りターン数
+     * @return 残りターン数、持続時間のないバフの場合は -1
+     */
+    private static int durationOf(String buff) {
+        int separator = buff.lastIndexOf(':');
+        if (separator <= 0 || separator == buff.length() - 1) {
+            return -1;
+        }
+        for (int i = separator + 1; i < buff.length(); i++) {
+            if (!Character.isDigit(buff.charAt(i))) {
+                return -1;
             }
         }
-        
-        state.setAppliedBuffs(newBuffs);
+        return Integer.parseInt(buff, separator + 1, buff.length(), 10);
     }
 }
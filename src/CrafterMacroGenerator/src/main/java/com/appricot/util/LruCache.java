@@ -0,0 +1,83 @@
+package com.appricot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 容量上限付きのLRUキャッシュ
+ * 上限を超えた場合は最も長く参照されていないエントリを削除する。
+ * すべての操作は同期化されており、複数スレッドから共有できる。
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class LruCache<K, V> {
+
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * @param capacity 保持するエントリ数の上限（1以上）
+     */
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * 値を取得（参照順を更新する）
+     * @param key キー
+     * @return 値、存在しない場合はnull
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * 値を登録
+     * @param key キー
+     * @param value 値
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * 値を取得し、存在しない場合は計算して登録する
+     * @param key キー
+     * @param mappingFunction 値の計算関数
+     * @return 値
+     */
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return entries.computeIfAbsent(key, mappingFunction);
+    }
+
+    /**
+     * 値を削除
+     * @param key キー
+     * @return 削除した値、存在しない場合はnull
+     */
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,259 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.AStarHeuristic;
+import com.appricot.feature.crafterMacroGenerator.algorithm.AStarOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.FinisherTablebase;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class AStarHeuristicTest {
+
+    // 加工効率100%のテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+    };
+
+    // 作業効率300%・消費CP 7のテスト用アクション
+    private final CraftingAction groundwork = new CraftingAction("テスト下地作業", 7, ActionType.PROGRESS, 20, 3) {
+        @Override
+        public int getProgressEfficiency() {
+            return 300;
+        }
+    };
+
+    // 2ターン作業効率1.2倍のテスト用アクション
+    private final CraftingAction veneration = new CraftingAction("テスト確信", 18, ActionType.BUFF, 0, 2) {
+        @Override
+        public BuffType getGrantedBuff() {
+            return BuffType.VENERATION;
+        }
+
+        @Override
+        public int getGrantedBuffTurns() {
+            return 2;
+        }
+    };
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(900)
+            .maxQuality(2000)
+            .baseDurability(80)
+            .build();
+
+    private final CraftingState initialState = CraftingState.builder()
+            .currentProgress(0)
+            .currentQuality(0)
+            .remainingDurability(80)
+            .currentCP(60)
+            .appliedBuffs(new ArrayList<>())
+            .usedActions(new ArrayList<>())
+            .build();
+
+    @Test
+    void testEstimate_Admissible() {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), groundwork, veneration, touch));
+        AStarHeuristic heuristic = new AStarHeuristic(actionTable);
+
+        // 実行（全状態の実際の残りコストを網羅的に計算）
+        Map<List<Long>, Double> costToGo = new HashMap<>();
+        PackedState initial = PackedState.of(initialState);
+        solve(actionTable, initial.getResources(), initial.getBuffs(), costToGo);
+
+        // 検証（下限は実際の残りコストを超えず、到達可能な状態を到達不能と判定しない）
+        for (Map.Entry<List<Long>, Double> entry : costToGo.entrySet()) {
+            double estimate = heuristic.estimate(entry.getKey().get(0));
+            assertTrue(estimate <= entry.getValue(), "estimate " + estimate + " > actual " + entry.getValue());
+        }
+        assertTrue(costToGo.values().stream().anyMatch(cost -> cost == Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testEstimate_Consistent() {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), groundwork, veneration, touch));
+        AStarHeuristic heuristic = new AStarHeuristic(actionTable);
+        PackedState state = PackedState.of(initialState);
+
+        // 検証（1アクションでのh値の減少量はそのアクションのコスト以下）
+        for (int a = 0; a < actionTable.size(); a++) {
+            PackedState next = state.copy();
+            assertTrue(actionTable.apply(a, next, true));
+            double cost = AStarHeuristic.actionCost(actionTable.getCpCost(a));
+            assertTrue(heuristic.lowerBound(state.getResources()) <= cost + heuristic.lowerBound(next.getResources()));
+        }
+    }
+
+    @Test
+    void testFindOptimalMacroPath_MinimumCost() {
+        AStarOptimizer optimizer = new AStarOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), groundwork, veneration, touch));
+
+        // 実行（進捗優先では最初に目標達成したマクロで終了）
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, false, true);
+
+        // 検証（網羅的に計算した最小コストと一致）
+        Map<List<Long>, Double> costToGo = new HashMap<>();
+        PackedState initial = PackedState.of(initialState);
+        double expected = solve(actionTable, initial.getResources(), initial.getBuffs(), costToGo);
+        double actual = 0;
+        for (CraftingAction action : result.getActionPath()) {
+            actual += AStarHeuristic.actionCost(action.getCpCost());
+        }
+        assertEquals(900, result.getFinalProgress());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testFindOptimalMacroPath_QualityFocusEndsAtCompletion() {
+        AStarOptimizer optimizer = new AStarOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), groundwork, veneration, touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（作業進捗を達成するのは最後のアクションのみ）
+        PackedState state = PackedState.of(initialState);
+        List<CraftingAction> actionPath = result.getActionPath();
+        for (int i = 0; i < actionPath.size(); i++) {
+            assertTrue(state.getProgress() < recipe.getRequiredProgress(), "作業進捗の達成後に " + actionPath.get(i).getName());
+            assertTrue(actionTable.apply(actionTable.indexOf(actionPath.get(i)), state, true));
+        }
+        assertEquals(result.getFinalProgress(), state.getProgress());
+        assertTrue(result.getFinalProgress() >= recipe.getRequiredProgress());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_FinisherKeepsMostResources() {
+        AStarOptimizer optimizer = new AStarOptimizer();
+        // 品質系アクションがないため、初期状態から終盤表で仕上げる
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), groundwork));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（仕上げは消費CPの合計ではなく、残りCP・耐久度の評価が最大になるものを選ぶ）
+        PackedState state = PackedState.of(initialState);
+        for (CraftingAction action : result.getActionPath()) {
+            assertTrue(actionTable.apply(actionTable.indexOf(action), state, true));
+        }
+        assertTrue(state.getProgress() >= recipe.getRequiredProgress());
+        assertEquals(bestRemainingValue(actionTable, PackedState.of(initialState).getResources(), 0L),
+                FinisherTablebase.remainingValue(state.getResources(), recipe.getBaseDurability()));
+    }
+
+    @Test
+    void testFindOptimalMacroPath_QualityFirst() {
+        AStarOptimizer optimizer = new AStarOptimizer();
+        // 最高品質が大きく、品質の差より残りCP・耐久度の差が大きくなるレシピ
+        Recipe highQualityRecipe = Recipe.builder()
+                .requiredProgress(900)
+                .maxQuality(100000)
+                .baseDurability(80)
+                .build();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, highQualityRecipe, List.of(new BasicSynthesis(), groundwork, touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（網羅的に求めた最高品質に届き、同じ品質の中で残りCP・耐久度の評価が最大）
+        PackedState state = PackedState.of(initialState);
+        for (CraftingAction action : result.getActionPath()) {
+            assertTrue(actionTable.apply(actionTable.indexOf(action), state, true));
+        }
+        assertTrue(state.getProgress() >= highQualityRecipe.getRequiredProgress());
+        long best = bestCompletion(actionTable, PackedState.of(initialState).getResources(), 0L);
+        assertEquals(best >>> 32, state.getQuality());
+        assertEquals(best & 0xFFFFFFFFL,
+                FinisherTablebase.remainingValue(state.getResources(), highQualityRecipe.getBaseDurability()));
+    }
+
+    /**
+     * 状態から目標達成した状態の「品質、残りCP・耐久度の評価値」の順で最良のもの
+     * （品質を上位32ビット、評価値を下位32ビットに格納、到達不能の場合は -1）
+     */
+    private long bestCompletion(CompiledActionTable actionTable, long resources, long buffs) {
+        Recipe tableRecipe = actionTable.getRecipe();
+        if (PackedState.progress(resources) >= tableRecipe.getRequiredProgress()) {
+            return (long) PackedState.quality(resources) << 32
+                    | FinisherTablebase.remainingValue(resources, tableRecipe.getBaseDurability());
+        }
+        long best = -1;
+        PackedState next = new PackedState();
+        for (int a = 0; a < actionTable.size(); a++) {
+            next.set(resources, buffs);
+            if (actionTable.apply(a, next, true)) {
+                best = Math.max(best, bestCompletion(actionTable, next.getResources(), next.getBuffs()));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 状態から目標達成した状態の残りCP・耐久度の評価値の最大（到達不能の場合は -1）
+     */
+    private long bestRemainingValue(CompiledActionTable actionTable, long resources, long buffs) {
+        if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+            return FinisherTablebase.remainingValue(resources, recipe.getBaseDurability());
+        }
+        long best = -1;
+        PackedState next = new PackedState();
+        for (int a = 0; a < actionTable.size(); a++) {
+            next.set(resources, buffs);
+            if (actionTable.apply(a, next, true)) {
+                best = Math.max(best, bestRemainingValue(actionTable, next.getResources(), next.getBuffs()));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 状態から目標達成までの最小コスト（到達不能の場合は正の無限大）
+     */
+    private double solve(CompiledActionTable actionTable, long resources, long buffs, Map<List<Long>, Double> costToGo) {
+        List<Long> key = List.of(resources, buffs);
+        Double cached = costToGo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+            best = 0;
+        } else {
+            PackedState next = new PackedState();
+            for (int a = 0; a < actionTable.size(); a++) {
+                next.set(resources, buffs);
+                if (actionTable.apply(a, next, true)) {
+                    double cost = AStarHeuristic.actionCost(actionTable.getCpCost(a))
+                            + solve(actionTable, next.getResources(), next.getBuffs(), costToGo);
+                    best = Math.min(best, cost);
+                }
+            }
+        }
+        costToGo.put(key, best);
+        return best;
+    }
+}
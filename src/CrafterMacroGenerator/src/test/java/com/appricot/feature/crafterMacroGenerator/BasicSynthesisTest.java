@@ -4,21 +4,31 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
 import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
 import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
 
 class BasicSynthesisTest {
     
-    private BasicSynthesis basicSynthesis;
+    private CompiledActionTable table;
     private CraftingState initialState;
     
     @BeforeEach
     void setUp() {
-        basicSynthesis = new BasicSynthesis();
+        Recipe recipe = Recipe.builder()
+                .requiredProgress(1000)
+                .maxQuality(5000)
+                .baseDurability(40)
+                .build();
+        // 上昇量の基準値100（作業効率120%で120）
+        table = CompiledActionTable.compile(100, 100, recipe, List.of(new BasicSynthesis()));
         initialState = CraftingState.builder()
                 .currentProgress(0)
                 .currentQuality(0)
@@ -29,10 +39,16 @@ class BasicSynthesisTest {
                 .build();
     }
     
+    private CraftingState apply(CraftingState state) {
+        PackedState packed = PackedState.of(state);
+        assertTrue(table.apply(0, packed, false));
+        return packed.toCraftingState();
+    }
+    
     @Test
     void testApply_NoBuffs() {
         // 実行
-        CraftingState result = basicSynthesis.apply(initialState);
+        CraftingState result = apply(initialState);
         
         // 検証
         assertEquals(120, result.getCurrentProgress()); // 基本効率120
@@ -47,7 +63,7 @@ class BasicSynthesisTest {
         initialState.setAppliedBuffs(Arrays.asList("確信:3"));
         
         // 実行
-        CraftingState result = basicSynthesis.apply(initialState);
+        CraftingState result = apply(initialState);
         
         // 検証
         assertEquals(144, result.getCurrentProgress()); // 120 * 1.2 = 144
@@ -62,7 +78,7 @@ class BasicSynthesisTest {
         initialState.setAppliedBuffs(Arrays.asList("真価発揮:5"));
         
         // 実行
-        CraftingState result = basicSynthesis.apply(initialState);
+        CraftingState result = apply(initialState);
         
         // 検証
         assertEquals(180, result.getCurrentProgress()); // 120 * 1.5 = 180
@@ -77,7 +93,7 @@ class BasicSynthesisTest {
         initialState.setAppliedBuffs(Arrays.asList("確信:3", "真価発揮:5"));
         
         // 実行
-        CraftingState result = basicSynthesis.apply(initialState);
+        CraftingState result = apply(initialState);
         
         // 検証 (120 * 1.5 * 1.2 = 216)
         assertEquals(216, result.getCurrentProgress());
@@ -87,20 +103,30 @@ class BasicSynthesisTest {
     }
     
     @Test
-    void testCanExecute_WithSufficientDurability() {
+    void testApply_WithSufficientDurability() {
         // 耐久度が十分ある場合
         initialState.setRemainingDurability(10);
         
         // 検証
-        assertTrue(basicSynthesis.canExecute(initialState));
+        assertTrue(table.apply(0, PackedState.of(initialState), false));
     }
     
     @Test
-    void testCanExecute_WithZeroDurability() {
+    void testApply_WithZeroDurability() {
         // 耐久度が0の場合
         initialState.setRemainingDurability(0);
         
         // 検証
-        assertFalse(basicSynthesis.canExecute(initialState));
+        assertFalse(table.apply(0, PackedState.of(initialState), false));
+    }
+    
+    @Test
+    void testApply_DurabilityConstraint() {
+        // 耐久度が10の場合、適用後に0になる
+        initialState.setRemainingDurability(10);
+        
+        // 検証（耐久度制約ありでは実行不可、制約なしでは実行可能）
+        assertFalse(table.apply(0, PackedState.of(initialState), true));
+        assertTrue(table.apply(0, PackedState.of(initialState), false));
     }
 }
@@ -0,0 +1,233 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.BeamSearchOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class BeamSearchOptimizerTest {
+
+    // 加工効率100%のテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+    };
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(600)
+            .maxQuality(2000)
+            .baseDurability(100)
+            .build();
+
+    private final CraftingState initialState = CraftingState.builder()
+            .currentProgress(0)
+            .currentQuality(0)
+            .remainingDurability(100)
+            .currentCP(100)
+            .appliedBuffs(new ArrayList<>())
+            .usedActions(new ArrayList<>())
+            .build();
+
+    @Test
+    void testFindOptimalMacroPath() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（作業5回で進捗達成、耐久度を0にしない範囲で加工4回）
+        assertEquals(600, result.getFinalProgress());
+        assertEquals(400, result.getFinalQuality());
+        assertEquals(9, result.getTotalActions());
+        assertEquals(result.getTotalActions(), result.getActionPath().size());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_Deterministic() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行（作業領域を再利用して2回探索）
+        OptimizationResult first = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+        OptimizationResult second = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証
+        assertEquals(first.getActionPath(), second.getActionPath());
+        assertEquals(first.getScore(), second.getScore());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_ParallelSameAsSequential() {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        BeamSearchOptimizer sequential = new BeamSearchOptimizer(AlgorithmSettings.builder()
+                .beamWidth(100)
+                .maxRecursionDepth(90)
+                .useParallelization(false)
+                .build());
+        BeamSearchOptimizer parallel = new BeamSearchOptimizer(AlgorithmSettings.builder()
+                .beamWidth(100)
+                .maxRecursionDepth(90)
+                .useParallelization(true)
+                .build());
+
+        // 実行（ビーム幅で枝刈りが発生する条件で比較）
+        OptimizationResult expected = sequential.findOptimalMacroPath(initialState, actionTable, true, true);
+        OptimizationResult actual = parallel.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証
+        assertEquals(expected.getActionPath(), actual.getActionPath());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(sequential.getExploredStatesCount(), parallel.getExploredStatesCount());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_CompletedAtMaxDepth() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer(AlgorithmSettings.builder()
+                .beamWidth(100)
+                .maxRecursionDepth(4)
+                .build());
+        Recipe shortRecipe = Recipe.builder()
+                .requiredProgress(240)
+                .maxQuality(2000)
+                .baseDurability(100)
+                .build();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, shortRecipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（最大深度で目標達成した加工2回・作業2回のマクロを選択）
+        assertEquals(240, result.getFinalProgress());
+        assertEquals(200, result.getFinalQuality());
+        assertEquals(4, result.getTotalActions());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_ConcurrentExploredStates() throws Exception {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        int expected = optimizer.findOptimalMacroPath(initialState, actionTable, true, true).getExploredStates();
+
+        // 実行（同じインスタンスで同時に探索）
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<OptimizationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(
+                        () -> optimizer.findOptimalMacroPath(initialState, actionTable, true, true)));
+            }
+
+            // 検証（探索状態数は他の呼び出しと混ざらない）
+            for (Future<OptimizationResult> future : futures) {
+                assertEquals(expected, future.get().getExploredStates());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFindOptimalMacroPath_Iterative() {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        BeamSearchOptimizer single = new BeamSearchOptimizer(AlgorithmSettings.builder()
+                .beamWidth(16)
+                .maxRecursionDepth(90)
+                .build());
+        BeamSearchOptimizer iterative = new BeamSearchOptimizer(AlgorithmSettings.builder()
+                .beamWidth(16)
+                .minBeamWidth(1)
+                .maxBeamWidth(16)
+                .beamIterative(true)
+                .maxRecursionDepth(90)
+                .build());
+
+        // 実行（幅1・4・16で探索を繰り返す）
+        OptimizationResult expected = single.findOptimalMacroPath(initialState, actionTable, true, true);
+        OptimizationResult actual = iterative.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（最も広い幅の結果以上で、探索状態数は全反復の合計）
+        assertTrue(actual.getScore() >= expected.getScore());
+        assertEquals(400, actual.getFinalQuality());
+        assertTrue(actual.getExploredStates() > expected.getExploredStates());
+        assertEquals(actual.getExploredStates(), iterative.getExploredStatesCount());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_Cancelled() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        SearchContext context = SearchContext.unlimited();
+        context.cancel();
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true, context);
+
+        // 検証（展開前に打ち切られ、初期状態を暫定結果として返す）
+        assertTrue(result.isBudgetLimited());
+        assertEquals(0, result.getTotalActions());
+        assertEquals(0, result.getFinalProgress());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_NotBudgetLimited() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(
+                initialState, actionTable, true, true, SearchContext.withTimeout(60000));
+
+        // 検証
+        assertFalse(result.isBudgetLimited());
+        assertEquals(optimizer.getExploredStatesCount(), result.getExploredStates());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_PublishesImprovements() {
+        BeamSearchOptimizer optimizer = new BeamSearchOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        List<OptimizationResult> improvements = new ArrayList<>();
+        SearchContext context = SearchContext.unlimited().setListener(improvements::add);
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true, context);
+
+        // 検証（通知は作業進捗を達成したマクロのみで、スコアは単調に改善し、最後の通知が最終結果）
+        assertFalse(improvements.isEmpty());
+        for (int i = 0; i < improvements.size(); i++) {
+            assertEquals(600, improvements.get(i).getFinalProgress());
+            if (i > 0) {
+                assertTrue(improvements.get(i).getScore() > improvements.get(i - 1).getScore());
+            }
+        }
+        assertEquals(result.getActionPath(), improvements.get(improvements.size() - 1).getActionPath());
+    }
+}
@@ -0,0 +1,48 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.BeamWidthController;
+
+class BeamWidthControllerTest {
+
+    @Test
+    void testUpdate_TracksTargetTime() {
+        // 目標時刻は現在時刻（0）から1秒後
+        BeamWidthController controller = new BeamWidthController(1000, 100, 10000, 1_000_000_000L);
+
+        // 実行・検証（1ノード1μs、残り10深さ → 1深さあたり100msで10万ノード、ただし1回で2倍まで）
+        controller.update(1000, 1_000_000L, 0L, 10);
+        assertEquals(2000, controller.width());
+        controller.update(2000, 2_000_000L, 0L, 10);
+        assertEquals(4000, controller.width());
+
+        // 1ノード1msに遅くなった場合は1/2倍ずつ狭める
+        controller.update(4000, 4_000_000_000L, 500_000_000L, 10);
+        assertEquals(2000, controller.width());
+
+        // 目標時刻を過ぎた場合も下限は守る
+        controller.update(2000, 2_000_000_000L, 2_000_000_000L, 10);
+        controller.update(1000, 1_000_000_000L, 3_000_000_000L, 10);
+        controller.update(500, 500_000_000L, 4_000_000_000L, 10);
+        assertEquals(250, controller.width());
+        controller.update(250, 250_000_000L, 5_000_000_000L, 10);
+        assertEquals(125, controller.width());
+        controller.update(125, 125_000_000L, 6_000_000_000L, 10);
+        assertEquals(100, controller.width());
+    }
+
+    @Test
+    void testFixed_DoesNotChangeWidth() {
+        BeamWidthController controller = BeamWidthController.fixed(1000);
+
+        // 実行
+        controller.update(1000, 1L, 0L, 10);
+
+        // 検証
+        assertFalse(controller.isAdaptive());
+        assertEquals(1000, controller.width());
+    }
+}
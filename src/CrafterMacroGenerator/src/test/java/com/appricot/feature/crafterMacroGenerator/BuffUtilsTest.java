@@ -0,0 +1,80 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.util.BuffUtils;
+
+class BuffUtilsTest {
+
+    @Test
+    void testDecrementBuffDurations() {
+        long buffs = 0;
+        buffs = BuffUtils.addBuff(buffs, BuffType.VENERATION, 1);
+        buffs = BuffUtils.addBuff(buffs, BuffType.INNOVATION, 4);
+        buffs = BuffUtils.addBuff(buffs, BuffType.INNER_QUIET, 5);
+
+        // 実行
+        long result = BuffUtils.decrementBuffDurations(buffs);
+
+        // 検証
+        assertFalse(BuffUtils.hasBuff(result, BuffType.VENERATION)); // 1ターンで消滅
+        assertEquals(3, BuffUtils.getBuffDuration(result, BuffType.INNOVATION));
+        assertEquals(5, BuffUtils.getBuffDuration(result, BuffType.INNER_QUIET)); // スタックは減少しない
+        assertFalse(BuffUtils.hasBuff(result, BuffType.WASTE_NOT)); // 付与されていないバフは0のまま
+    }
+
+    @Test
+    void testAddBuff_ClampedToMaxValue() {
+        // 実行
+        long buffs = BuffUtils.addBuff(0, BuffType.INNER_QUIET, 20);
+
+        // 検証
+        assertEquals(BuffType.INNER_QUIET.getMaxValue(), BuffUtils.getBuffDuration(buffs, BuffType.INNER_QUIET));
+    }
+
+    @Test
+    void testCraftingState() {
+        CraftingState state = CraftingState.builder()
+                .appliedBuffs(new ArrayList<>(Arrays.asList("確信:2", "真価発揮", "内静:3", "不明なバフ:2")))
+                .usedActions(new ArrayList<>())
+                .build();
+
+        // 検証
+        assertEquals(2, BuffUtils.getBuffDuration(state, BuffType.VENERATION));
+        assertEquals(1, BuffUtils.getBuffDuration(state, BuffType.MUSCLE_MEMORY));
+        assertFalse(BuffUtils.hasBuff(state, BuffType.INNOVATION));
+
+        // 実行
+        BuffUtils.decrementBuffDurations(state);
+
+        // 検証（持続時間のないバフ・スタック型のバフは残し、未知のバフも持続時間を減少させる）
+        assertEquals(Arrays.asList("確信:1", "真価発揮", "内静:3", "不明なバフ:1"), state.getAppliedBuffs());
+
+        // 実行
+        BuffUtils.addBuff(state, BuffType.VENERATION, 4);
+        BuffUtils.removeBuff(state, BuffType.MUSCLE_MEMORY);
+
+        // 検証（同じ種類のバフは置き換え、他のバフの順序は変えない）
+        assertEquals(Arrays.asList("内静:3", "不明なバフ:1", "確信:4"), state.getAppliedBuffs());
+    }
+
+    @Test
+    void testCraftingState_MalformedDuration() {
+        CraftingState state = CraftingState.builder()
+                .appliedBuffs(new ArrayList<>(Arrays.asList("内静:x", "改革:", "確信の効果:2")))
+                .usedActions(new ArrayList<>())
+                .build();
+
+        // 検証（残りターン数が数字でないバフ・名前が前方一致するだけのバフは無視する）
+        assertEquals(0, BuffUtils.getBuffDuration(state, BuffType.INNER_QUIET));
+        assertEquals(0, BuffUtils.getBuffDuration(state, BuffType.INNOVATION));
+        assertEquals(0, BuffUtils.getBuffDuration(state, BuffType.VENERATION));
+    }
+}
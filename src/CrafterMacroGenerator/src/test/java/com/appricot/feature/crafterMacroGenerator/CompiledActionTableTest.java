@@ -0,0 +1,236 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+import com.appricot.util.BuffUtils;
+
+class CompiledActionTableTest {
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(1000)
+            .maxQuality(5000)
+            .baseDurability(80)
+            .build();
+
+    // 加工効率100%・改革を付与するテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+
+        @Override
+        public BuffType getGrantedBuff() {
+            return BuffType.INNOVATION;
+        }
+
+        @Override
+        public int getGrantedBuffTurns() {
+            return 4;
+        }
+    };
+
+    @Test
+    void testApply_ProgressBuffs() {
+        CompiledActionTable table = CompiledActionTable.compile(100, 100, recipe, List.of(new BasicSynthesis()));
+        PackedState muscleMemory = new PackedState(PackedState.packResources(100, 200, 40, 300),
+                BuffUtils.addBuff(0L, BuffType.MUSCLE_MEMORY, 3));
+        PackedState veneration = new PackedState(PackedState.packResources(100, 200, 40, 300),
+                BuffUtils.addBuff(BuffUtils.addBuff(0L, BuffType.VENERATION, 2), BuffType.WASTE_NOT, 1));
+
+        // 実行
+        boolean muscleMemoryApplied = table.apply(0, muscleMemory, true);
+        boolean venerationApplied = table.apply(0, veneration, true);
+
+        // 検証（真価発揮は作業で消費され、倹約中は耐久度の消費が半分）
+        assertTrue(muscleMemoryApplied);
+        assertEquals(280, muscleMemory.getProgress()); // 100 + 120 * 1.5
+        assertEquals(30, muscleMemory.getDurability());
+        assertEquals(0, PackedState.buffTurns(muscleMemory.getBuffs(), BuffType.MUSCLE_MEMORY));
+        assertTrue(venerationApplied);
+        assertEquals(244, veneration.getProgress()); // 100 + 120 * 1.2
+        assertEquals(35, veneration.getDurability());
+        assertEquals(1, PackedState.buffTurns(veneration.getBuffs(), BuffType.VENERATION));
+        assertEquals(0, PackedState.buffTurns(veneration.getBuffs(), BuffType.WASTE_NOT));
+    }
+
+    @Test
+    void testApply_QualityBuffs() {
+        CompiledActionTable table = CompiledActionTable.compile(100, 100, recipe, List.of(touch));
+        PackedState state = new PackedState(PackedState.packResources(100, 200, 40, 300),
+                BuffUtils.addBuff(BuffUtils.addBuff(0L, BuffType.INNER_QUIET, 9), BuffType.GREAT_STRIDES, 1));
+
+        // 実行
+        boolean applied = table.apply(0, state, true);
+
+        // 検証（グレートストライドは加工で消費され、内静はスタックが増え、改革はターン経過後に付与）
+        assertTrue(applied);
+        assertEquals(580, state.getQuality()); // 200 + 100 * 190% * 2
+        assertEquals(30, state.getDurability());
+        assertEquals(282, state.getCP());
+        assertEquals(0, PackedState.buffTurns(state.getBuffs(), BuffType.GREAT_STRIDES));
+        assertEquals(10, PackedState.buffTurns(state.getBuffs(), BuffType.INNER_QUIET));
+        assertEquals(4, PackedState.buffTurns(state.getBuffs(), BuffType.INNOVATION));
+    }
+
+    @Test
+    void testCompile_WithPlayerStatus() {
+        PlayerStatus playerStatus = PlayerStatus.builder()
+                .craftsmanship(1300)
+                .control(1150)
+                .cp(500)
+                .build();
+
+        // 実行
+        CompiledActionTable table = CompiledActionTable.compile(
+                playerStatus, recipe, List.of(new BasicSynthesis()));
+        PackedState state = new PackedState(PackedState.packResources(0, 0, 80, 500), 0L);
+        boolean applied = table.apply(0, state, true);
+
+        // 検証
+        assertTrue(applied);
+        assertEquals(102, table.getBaseProgress()); // 1300 * 10 / 130 + 2
+        assertEquals(135, table.getBaseQuality()); // 1150 * 10 / 115 + 35
+        assertEquals(122, state.getProgress()); // 102 * 120%
+        assertEquals(70, state.getDurability());
+    }
+
+    @Test
+    void testBaseValues_SameFormulaForLowStats() {
+        // 検証（ステータスが0でも同じ式で算出し、単位値に切り替えない）
+        assertEquals(2, CompiledActionTable.baseProgressOf(PlayerStatus.builder().craftsmanship(0).build()));
+        assertEquals(2, CompiledActionTable.baseProgressOf(PlayerStatus.builder().craftsmanship(1).build()));
+        assertEquals(35, CompiledActionTable.baseQualityOf(PlayerStatus.builder().control(0).build()));
+        assertEquals(35, CompiledActionTable.baseQualityOf(PlayerStatus.builder().control(1).build()));
+    }
+
+    @Test
+    void testQualityUpperBound_Admissible() {
+        // 内静を付与するテスト用アクション
+        CraftingAction innerQuiet = new CraftingAction("テスト内静", 18, ActionType.BUFF, 0, 2) {
+            @Override
+            public BuffType getGrantedBuff() {
+                return BuffType.INNER_QUIET;
+            }
+
+            @Override
+            public int getGrantedBuffTurns() {
+                return 1;
+            }
+        };
+        CompiledActionTable table = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch, innerQuiet));
+        PackedState initial = PackedState.of(CraftingState.builder()
+                .remainingDurability(120)
+                .currentCP(100)
+                .build());
+
+        // 実行（全状態から作業進捗を達成して到達できる最高品質を網羅的に計算）
+        Map<List<Long>, Integer> bestQuality = new HashMap<>();
+        int expected = solveQuality(table, initial.getResources(), initial.getBuffs(), bestQuality);
+
+        // 検証（上限は実際の最高品質を下回らず、バフと作業進捗を考慮しない上限より厳しい）
+        assertTrue(expected > 0);
+        for (Map.Entry<List<Long>, Integer> entry : bestQuality.entrySet()) {
+            int bound = table.qualityUpperBound(entry.getKey().get(0), entry.getKey().get(1));
+            assertTrue(entry.getValue() <= bound, "actual " + entry.getValue() + " > bound " + bound);
+        }
+        assertTrue(table.qualityUpperBound(initial.getResources(), initial.getBuffs())
+                < table.qualityUpperBound(initial.getResources()));
+    }
+
+    @Test
+    void testCommutingPredecessors_SameState() {
+        // バフを付与しない加工効率100%のテスト用アクション
+        CraftingAction plainTouch = new CraftingAction("テスト加工2", 18, ActionType.QUALITY, 10, 3) {
+            @Override
+            public int getQualityEfficiency() {
+                return 100;
+            }
+        };
+        CraftingAction plainTouch2 = new CraftingAction("テスト加工3", 24, ActionType.QUALITY, 10, 3) {
+            @Override
+            public int getQualityEfficiency() {
+                return 125;
+            }
+        };
+        CompiledActionTable table = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), plainTouch, plainTouch2));
+        long resources = PackedState.packResources(100, 200, 40, 300);
+
+        long[] buffPatterns = {
+                0L,
+                BuffUtils.addBuff(0L, BuffType.VENERATION, 1),
+                BuffUtils.addBuff(0L, BuffType.INNOVATION, 3),
+                BuffUtils.addBuff(0L, BuffType.GREAT_STRIDES, 1),
+                BuffUtils.addBuff(0L, BuffType.MUSCLE_MEMORY, 2),
+                BuffUtils.addBuff(BuffUtils.addBuff(0L, BuffType.INNER_QUIET, 5), BuffType.WASTE_NOT, 1),
+        };
+
+        for (long buffs : buffPatterns) {
+            for (int x = 0; x < table.size(); x++) {
+                // 実行
+                long predecessors = table.commutingPredecessors(x, buffs);
+
+                // 検証（入れ替えられるアクションは、どちらの順で実行しても同じ状態になる）
+                for (int y = 0; y < x; y++) {
+                    if ((predecessors & 1L << y) == 0) {
+                        continue;
+                    }
+                    PackedState xFirst = new PackedState(resources, buffs);
+                    PackedState yFirst = new PackedState(resources, buffs);
+                    assertTrue(table.apply(x, xFirst, true) && table.apply(y, xFirst, true));
+                    assertTrue(table.apply(y, yFirst, true) && table.apply(x, yFirst, true));
+                    assertEquals(xFirst, yFirst);
+                }
+            }
+        }
+
+        // 検証（参照するバフが切れる場合・内静で上昇量が変わる場合は入れ替えない）
+        assertEquals(0b01L, table.commutingPredecessors(1, 0L));
+        assertEquals(0L, table.commutingPredecessors(1, buffPatterns[1]));
+        assertEquals(0L, table.commutingPredecessors(1, buffPatterns[3]));
+        assertEquals(0b011L, table.commutingPredecessors(2, buffPatterns[2]));
+        assertEquals(0b001L, table.commutingPredecessors(2, BuffUtils.addBuff(0L, BuffType.INNER_QUIET, 5)));
+    }
+
+    /**
+     * 状態から作業進捗を達成して到達できる最高品質（達成できない場合は-1）
+     */
+    private int solveQuality(CompiledActionTable table, long resources, long buffs, Map<List<Long>, Integer> bestQuality) {
+        List<Long> key = List.of(resources, buffs);
+        Integer cached = bestQuality.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int best = -1;
+        if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+            best = PackedState.quality(resources);
+        } else {
+            PackedState next = new PackedState();
+            for (int a = 0; a < table.size(); a++) {
+                next.set(resources, buffs);
+                if (table.apply(a, next, true)) {
+                    best = Math.max(best, solveQuality(table, next.getResources(), next.getBuffs(), bestQuality));
+                }
+            }
+        }
+        bestQuality.put(key, best);
+        return best;
+    }
+}
@@ -0,0 +1,55 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.DominanceIndex;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+
+class DominanceIndexTest {
+
+    @Test
+    void testInsert_RejectsDominatedStates() {
+        DominanceIndex index = new DominanceIndex(1024);
+        long state = PackedState.packResources(100, 200, 40, 300);
+
+        // 実行・検証
+        assertTrue(index.insert(state, 0L, 5));
+        assertFalse(index.insert(state, 0L, 5)); // 同じ状態・同じコスト
+        assertFalse(index.insert(state, 0L, 6)); // 同じ状態・高いコスト
+        assertFalse(index.insert(PackedState.packResources(100, 199, 40, 300), 0L, 5));
+        assertFalse(index.insert(PackedState.packResources(100, 200, -10, 300), 0L, 5)); // 負の耐久度
+        assertTrue(index.insert(PackedState.packResources(100, 199, 40, 301), 0L, 5)); // CPが多い
+        assertTrue(index.insert(PackedState.packResources(100, 200, 40, 300), 1L, 9)); // バフが異なる
+        assertTrue(index.isDominated(PackedState.packResources(100, 0, 0, 0), 0L, 5));
+        assertFalse(index.isDominated(PackedState.packResources(100, 0, 0, 0), 0L, 4)); // コストが低い
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testInsert_ProgressComparedByEquality() {
+        DominanceIndex index = new DominanceIndex(1024);
+        index.insert(PackedState.packResources(400, 300, 40, 300), 0L, 5);
+
+        // 検証（作業進捗の多い状態は、品質などで劣る状態も支配しない：目標達成で加工の機会を失うため）
+        assertFalse(index.isDominated(PackedState.packResources(300, 200, 30, 200), 0L, 5));
+        assertTrue(index.insert(PackedState.packResources(300, 200, 30, 200), 0L, 5));
+        assertTrue(index.insert(PackedState.packResources(500, 400, 50, 400), 0L, 5));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testInsert_EvictsDominatedStates() {
+        DominanceIndex index = new DominanceIndex(1024);
+        index.insert(PackedState.packResources(100, 0, 40, 300), 0L, 5);
+        index.insert(PackedState.packResources(100, 100, 30, 300), 0L, 5);
+        index.insert(PackedState.packResources(100, 0, 40, 200), 0L, 3);
+
+        // 実行（3つすべてを支配する状態）
+        assertTrue(index.insert(PackedState.packResources(100, 100, 40, 300), 0L, 3));
+
+        // 検証
+        assertEquals(1, index.size());
+    }
+}
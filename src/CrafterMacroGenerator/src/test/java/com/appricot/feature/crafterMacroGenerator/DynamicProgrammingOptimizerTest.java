@@ -0,0 +1,160 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.DynamicProgrammingOptimizer;
+import com.appricot.feature.crafterMacroGenerator.config.AlgorithmConfig.AlgorithmSettings;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class DynamicProgrammingOptimizerTest {
+
+    // 加工効率100%のテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+    };
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(600)
+            .maxQuality(2000)
+            .baseDurability(100)
+            .build();
+
+    private final CraftingState initialState = CraftingState.builder()
+            .currentProgress(0)
+            .currentQuality(0)
+            .remainingDurability(100)
+            .currentCP(100)
+            .appliedBuffs(new ArrayList<>())
+            .usedActions(new ArrayList<>())
+            .build();
+
+    @Test
+    void testFindOptimalMacroPath() {
+        DynamicProgrammingOptimizer optimizer = new DynamicProgrammingOptimizer();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証（作業5回で進捗達成、耐久度を0にしない範囲で加工4回）
+        assertEquals(600, result.getFinalProgress());
+        assertEquals(400, result.getFinalQuality());
+        assertEquals(9, result.getTotalActions());
+        assertEquals(result.getTotalActions(), result.getActionPath().size());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_SmallMemo() {
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        DynamicProgrammingOptimizer optimizer = new DynamicProgrammingOptimizer();
+        DynamicProgrammingOptimizer bounded = new DynamicProgrammingOptimizer(AlgorithmSettings.builder()
+                .maxRecursionDepth(90)
+                .dpMemoCapacity(8)
+                .build());
+
+        // 実行（メモの追い出しと経路復元時の再計算が発生する条件で比較）
+        OptimizationResult expected = optimizer.findOptimalMacroPath(initialState, actionTable, true, true);
+        OptimizationResult actual = bounded.findOptimalMacroPath(initialState, actionTable, true, true);
+
+        // 検証
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getFinalQuality(), actual.getFinalQuality());
+        assertEquals(expected.getFinalProgress(), actual.getFinalProgress());
+        assertTrue(bounded.getExploredStatesCount() > optimizer.getExploredStatesCount());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_SameAsExhaustiveSearch() {
+        // 作業進捗の多い状態が、少ない状態に残る加工の機会を失う条件（作業と加工を兼ねるアクション）
+        CraftingAction wasteNot = new CraftingAction("テスト倹約", 12, ActionType.BUFF, 0, 2) {
+            @Override
+            public BuffType getGrantedBuff() {
+                return BuffType.WASTE_NOT;
+            }
+
+            @Override
+            public int getGrantedBuffTurns() {
+                return 4;
+            }
+        };
+        CraftingAction dual = new CraftingAction("テスト両用", 6, ActionType.PROGRESS, 10, 3) {
+            @Override
+            public int getProgressEfficiency() {
+                return 100;
+            }
+
+            @Override
+            public int getQualityEfficiency() {
+                return 100;
+            }
+        };
+        CraftingAction cheapTouch = new CraftingAction("テスト安価な加工", 6, ActionType.QUALITY, 10, 3) {
+            @Override
+            public int getQualityEfficiency() {
+                return 100;
+            }
+        };
+        Recipe shortRecipe = Recipe.builder()
+                .requiredProgress(400)
+                .maxQuality(2000)
+                .baseDurability(50)
+                .build();
+        CraftingState state = CraftingState.builder()
+                .currentProgress(0)
+                .currentQuality(0)
+                .remainingDurability(50)
+                .currentCP(44)
+                .appliedBuffs(new ArrayList<>())
+                .usedActions(new ArrayList<>())
+                .build();
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, shortRecipe, List.of(wasteNot, dual, cheapTouch, new BasicSynthesis()));
+
+        // 実行
+        OptimizationResult result = new DynamicProgrammingOptimizer().findOptimalMacroPath(
+                state, actionTable, true, true);
+
+        // 検証（網羅的に求めた最高品質と一致：倹約・加工・両用4回で500）
+        PackedState initial = PackedState.of(state);
+        int expected = bestQuality(actionTable, initial.getResources(), initial.getBuffs());
+        assertEquals(500, expected);
+        assertEquals(expected, result.getFinalQuality());
+        assertTrue(result.getFinalProgress() >= shortRecipe.getRequiredProgress());
+    }
+
+    /**
+     * 状態から作業進捗を達成するマクロの最高品質（達成できない場合は -1）
+     */
+    private int bestQuality(CompiledActionTable actionTable, long resources, long buffs) {
+        if (PackedState.progress(resources) >= actionTable.getRecipe().getRequiredProgress()) {
+            return PackedState.quality(resources);
+        }
+        int best = -1;
+        PackedState next = new PackedState();
+        for (int a = 0; a < actionTable.size(); a++) {
+            next.set(resources, buffs);
+            if (actionTable.apply(a, next, true)) {
+                best = Math.max(best, bestQuality(actionTable, next.getResources(), next.getBuffs()));
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,113 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.FinisherTablebase;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class FinisherTablebaseTest {
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(600)
+            .maxQuality(5000)
+            .baseDurability(80)
+            .build();
+
+    // 作業効率300%のテスト用アクション
+    private final CraftingAction strongSynthesis = new CraftingAction("テスト作業", 20, ActionType.PROGRESS, 10, 3) {
+        @Override
+        public int getProgressEfficiency() {
+            return 300;
+        }
+    };
+
+    // 確信を付与するテスト用アクション
+    private final CraftingAction veneration = new CraftingAction("テスト確信", 18, ActionType.BUFF, 0, 2) {
+        @Override
+        public BuffType getGrantedBuff() {
+            return BuffType.VENERATION;
+        }
+
+        @Override
+        public int getGrantedBuffTurns() {
+            return 4;
+        }
+    };
+
+    private final CompiledActionTable table = CompiledActionTable.compile(
+            100, 100, recipe, List.of(new BasicSynthesis(), strongSynthesis, veneration));
+
+    @Test
+    void testLookup_MinimumCostFinish() {
+        FinisherTablebase tablebase = new FinisherTablebase(table, 1024);
+        long[] resourcePatterns = {
+                PackedState.packResources(0, 300, 80, 100),
+                PackedState.packResources(0, 0, 40, 40),
+                PackedState.packResources(350, 0, 20, 20),
+        };
+
+        for (long resources : resourcePatterns) {
+            // 実行
+            int[] finish = tablebase.lookup(resources, 0L, FinisherTablebase.MAX_FINISH_ACTIONS, true);
+
+            // 検証（実際に作業進捗を達成し、網羅的に求めた最小コストと一致する）
+            assertNotNull(finish);
+            PackedState state = new PackedState(resources, 0L);
+            for (int a : finish) {
+                assertTrue(table.apply(a, state, true));
+            }
+            assertTrue(PackedState.progress(state.getResources()) >= recipe.getRequiredProgress());
+            assertEquals(minimumCost(resources, 0L, FinisherTablebase.MAX_FINISH_ACTIONS),
+                    remainingValue(resources) - remainingValue(state.getResources()));
+        }
+    }
+
+    @Test
+    void testLookup_NotFinishable() {
+        FinisherTablebase tablebase = new FinisherTablebase(table, 1024);
+
+        // 実行・検証
+        assertEquals(0, tablebase.lookup(PackedState.packResources(600, 0, 10, 0), 0L, 5, true).length); // 達成済み
+        assertNull(tablebase.lookup(PackedState.packResources(0, 0, 20, 0), 0L, 5, true)); // 耐久度不足
+        assertNull(tablebase.lookup(PackedState.packResources(0, 0, 80, 0), 0L, 3, true)); // アクション数不足
+    }
+
+    /**
+     * 残りアクション数以内で作業進捗を達成する最小コスト（達成できない場合は Integer.MAX_VALUE）
+     */
+    private long minimumCost(long resources, long buffs, int remainingActions) {
+        if (PackedState.progress(resources) >= recipe.getRequiredProgress()) {
+            return 0;
+        }
+        long best = Integer.MAX_VALUE;
+        if (remainingActions == 0) {
+            return best;
+        }
+        PackedState next = new PackedState();
+        for (int a = 0; a < table.size(); a++) {
+            next.set(resources, buffs);
+            if (!table.apply(a, next, true)) {
+                continue;
+            }
+            long rest = minimumCost(next.getResources(), next.getBuffs(), remainingActions - 1);
+            if (rest != Integer.MAX_VALUE) {
+                best = Math.min(best, remainingValue(resources) - remainingValue(next.getResources()) + rest);
+            }
+        }
+        return best;
+    }
+
+    private long remainingValue(long resources) {
+        return FinisherTablebase.remainingValue(resources, recipe.getBaseDurability());
+    }
+}
@@ -0,0 +1,71 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.store.JdbcSolutionStore;
+import com.appricot.feature.crafterMacroGenerator.store.StoredSolution;
+
+class JdbcSolutionStoreTest {
+
+    // テストごとに別のインメモリデータベース（最後の接続を閉じても保持）
+    private final DataSource dataSource = new SimpleDriverDataSource(
+            new org.h2.Driver(), "jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+    private final RequestFingerprint fingerprint =
+            new RequestFingerprint(102, 135, 500, 1000, 5000, 80, List.of("作業", "加工"), true, true, 1L);
+
+    private JdbcSolutionStore open() {
+        return new JdbcSolutionStore(
+                new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                16,
+                10,
+                64);
+    }
+
+    @Test
+    void testSave_ReadAfterReopen() {
+        StoredSolution first = new StoredSolution(List.of("加工", "作業"), 1000, 300, 60, 18, 1500, 12345, false);
+        StoredSolution second = new StoredSolution(List.of("加工", "加工", "作業"), 1000, 600, 50, 36, 2500, 23456, true);
+
+        // 実行（同じ識別子の結果は後のもので置き換え、閉じるまでにすべて書き込む）
+        JdbcSolutionStore store = open();
+        store.save(fingerprint, first);
+        store.save(fingerprint, second);
+        store.close();
+        JdbcSolutionStore reopened = open();
+        StoredSolution loaded = reopened.find(fingerprint);
+        reopened.close();
+
+        // 検証
+        assertEquals(second, loaded);
+        assertEquals(1, new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM macro_solution", Integer.class));
+    }
+
+    @Test
+    void testFind_OtherFingerprint() {
+        JdbcSolutionStore store = open();
+        store.save(fingerprint, new StoredSolution(List.of("作業"), 1000, 0, 70, 0, 10, 1, false));
+        store.close();
+
+        // 実行
+        JdbcSolutionStore reopened = open();
+        StoredSolution loaded = reopened.find(new RequestFingerprint(
+                102, 135, 501, 1000, 5000, 80, List.of("作業", "加工"), true, true, 1L));
+        reopened.close();
+
+        // 検証
+        assertNull(loaded);
+    }
+}
@@ -0,0 +1,110 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.cache.MacroResultCache;
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationRequest;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class MacroResultCacheTest {
+
+    private final List<CraftingAction> actions = List.of(new BasicSynthesis());
+
+    private final MacroGenerationResponse response = MacroGenerationResponse.builder()
+            .macroText(List.of("/ac \"作業\" <wait.3>"))
+            .actionSequence(List.of("作業"))
+            .calculationTimeMs(1234)
+            .build();
+
+    private MacroGenerationRequest request(int craftsmanship, String recipeName) {
+        return MacroGenerationRequest.builder()
+                .playerStatus(PlayerStatus.builder()
+                        .craftingLevel(90)
+                        .craftsmanship(craftsmanship)
+                        .control(1150)
+                        .cp(500)
+                        .build())
+                .recipe(Recipe.builder()
+                        .name(recipeName)
+                        .requiredProgress(1000)
+                        .maxQuality(5000)
+                        .baseDurability(80)
+                        .build())
+                .build();
+    }
+
+    @Test
+    void testFingerprint_Normalized() {
+        // 実行（作業精度の基本値が同じ・レシピ名だけが異なるリクエスト）
+        RequestFingerprint a = RequestFingerprint.of(request(1300, "A"), actions, 1L);
+        RequestFingerprint b = RequestFingerprint.of(request(1301, "B"), actions, 1L);
+        RequestFingerprint c = RequestFingerprint.of(request(1400, "A"), actions, 1L);
+
+        // 検証
+        assertEquals(a, b);
+        assertEquals(a.digest(), b.digest());
+        assertNotEquals(a, c);
+        assertNotEquals(a.digest(), c.digest());
+    }
+
+    @Test
+    void testGet_ExpiresAndInvalidates() {
+        AtomicLong now = new AtomicLong();
+        MacroResultCache cache = new MacroResultCache(16, 1000, 0, now::get);
+        RequestFingerprint fingerprint = RequestFingerprint.of(request(1300, "A"), actions, 1L);
+
+        // 実行・検証（有効期間内はキャッシュから返す）
+        assertNull(cache.get(fingerprint));
+        cache.put(fingerprint, response);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals(1234, cache.get(fingerprint).getCalculationTimeMs());
+
+        // 実行・検証（有効期間を過ぎた結果は返さない）
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull(cache.get(fingerprint));
+
+        // 実行・検証（スキル一覧のバージョンが変わった場合は古い結果を削除）
+        cache.put(fingerprint, response);
+        assertNull(cache.get(RequestFingerprint.of(request(1300, "A"), actions, 2L)));
+        assertNull(cache.get(fingerprint));
+
+        MacroResultCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(1, stats.expirations());
+        assertEquals(1, stats.invalidations());
+    }
+
+    @Test
+    void testFindNeighbor_NearestVerified() {
+        MacroResultCache cache = new MacroResultCache(16, 0, 4, System::nanoTime);
+        cache.put(RequestFingerprint.of(request(1300, "A"), actions, 1L), response);
+
+        // 実行
+        MacroGenerationResponse near = cache.findNeighbor(
+                RequestFingerprint.of(request(1350, "A"), actions, 1L), candidate -> candidate);
+        MacroGenerationResponse rejected = cache.findNeighbor(
+                RequestFingerprint.of(request(1350, "A"), actions, 1L), candidate -> null);
+        MacroGenerationResponse far = cache.findNeighbor(
+                RequestFingerprint.of(request(1600, "A"), actions, 1L), candidate -> candidate);
+
+        // 検証（作業精度の基本値の差が帯の幅以内の結果のみ、検証に成功した場合に返す）
+        assertNotNull(near);
+        assertEquals(List.of("作業"), near.getActionSequence());
+        assertNull(rejected);
+        assertNull(far);
+        assertEquals(1, cache.getStats().neighborHits());
+        assertEquals(1, cache.getStats().neighborRejections());
+    }
+}
@@ -0,0 +1,89 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.DynamicProgrammingOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBook.Opening;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBookGenerator;
+import com.appricot.feature.crafterMacroGenerator.algorithm.OpeningBookGenerator.Scenario;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+import com.appricot.feature.crafterMacroGenerator.entity.PlayerStatus;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class OpeningBookTest {
+
+    // 加工効率100%のテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+    };
+
+    private final List<CraftingAction> actions = List.of(new BasicSynthesis(), touch);
+
+    private final PlayerStatus playerStatus = PlayerStatus.builder()
+            .craftsmanship(1300)
+            .control(1150)
+            .cp(100)
+            .build();
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(600)
+            .maxQuality(2000)
+            .baseDurability(100)
+            .build();
+
+    @Test
+    void testGenerate_WriteAndRead() throws IOException {
+        OpeningBookGenerator generator = new OpeningBookGenerator(new DynamicProgrammingOptimizer(), 3, 0);
+        OpeningBook book = generator.generate(List.of(
+                new Scenario(playerStatus, recipe, true, true),
+                new Scenario(playerStatus, Recipe.builder()
+                        .requiredProgress(600)
+                        .maxQuality(2000)
+                        .baseDurability(10)
+                        .build(), true, true)), actions);
+
+        // 実行
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        book.write(out);
+        OpeningBook loaded = OpeningBook.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // 検証（耐久度10では作業進捗を達成できないため、定跡は1つ）
+        assertEquals(1, loaded.size());
+        CompiledActionTable actionTable = CompiledActionTable.compile(playerStatus, recipe, actions);
+        CraftingState initialState = CraftingState.builder()
+                .remainingDurability(100)
+                .currentCP(100)
+                .appliedBuffs(new ArrayList<>())
+                .usedActions(new ArrayList<>())
+                .build();
+        Opening opening = loaded.find(OpeningBook.keyOf(actionTable, initialState, true, true));
+        assertNotNull(opening);
+        assertEquals(3, opening.actionNames().size());
+        PackedState state = OpeningBook.replay(opening, actionTable, initialState, true);
+        assertEquals(new PackedState(opening.resources(), opening.buffs()), state);
+        assertNull(loaded.find(OpeningBook.keyOf(actionTable, initialState, false, true)));
+    }
+
+    @Test
+    void testRead_RejectsUnknownFormat() {
+        // 実行・検証
+        assertThrows(IOException.class, () -> OpeningBook.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+}
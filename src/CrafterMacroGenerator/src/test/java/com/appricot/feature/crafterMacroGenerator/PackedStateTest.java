@@ -0,0 +1,80 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.entity.BuffType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.PackedState;
+
+class PackedStateTest {
+
+    @Test
+    void testRoundTrip() {
+        CraftingState state = CraftingState.builder()
+                .currentProgress(3500)
+                .currentQuality(9000)
+                .remainingDurability(70)
+                .currentCP(550)
+                .appliedBuffs(Arrays.asList("確信:3", "内静:11"))
+                .usedActions(new ArrayList<>())
+                .build();
+
+        // 実行
+        PackedState packed = PackedState.of(state);
+        CraftingState restored = packed.toCraftingState();
+
+        // 検証
+        assertEquals(3500, restored.getCurrentProgress());
+        assertEquals(9000, restored.getCurrentQuality());
+        assertEquals(70, restored.getRemainingDurability());
+        assertEquals(550, restored.getCurrentCP());
+        assertEquals(3, packed.getBuffTurns(BuffType.VENERATION));
+        assertEquals(11, packed.getBuffTurns(BuffType.INNER_QUIET));
+        assertTrue(restored.getAppliedBuffs().containsAll(Arrays.asList("確信:3", "内静:11")));
+    }
+
+    @Test
+    void testNegativeDurability() {
+        // 耐久度制約なしの場合、耐久度は負になり得る
+        PackedState packed = new PackedState();
+        packed.setDurability(-10);
+        packed.setCP(400);
+
+        // 検証（他のフィールドに影響しない）
+        assertEquals(-10, packed.getDurability());
+        assertEquals(400, packed.getCP());
+        assertEquals(0, packed.getProgress());
+    }
+
+    @Test
+    void testBuffWithoutDuration() {
+        // 持続時間が指定されていないバフは1ターンと見なす
+        CraftingState state = CraftingState.builder()
+                .remainingDurability(40)
+                .appliedBuffs(Arrays.asList("真価発揮"))
+                .build();
+
+        // 検証
+        assertEquals(1, PackedState.of(state).getBuffTurns(BuffType.MUSCLE_MEMORY));
+    }
+
+    @Test
+    void testUnknownBuff() {
+        CraftingState state = CraftingState.builder()
+                .remainingDurability(40)
+                .appliedBuffs(Arrays.asList("不明なバフ:2", "確信:3"))
+                .build();
+
+        // 実行
+        PackedState packed = PackedState.of(state);
+
+        // 検証（未知のバフは無視する）
+        assertEquals(3, packed.getBuffTurns(BuffType.VENERATION));
+        assertEquals(Arrays.asList("確信:3"), PackedState.unpackBuffs(packed.getBuffs()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.AStarOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.BeamSearchOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.DynamicProgrammingOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.MacroOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.PortfolioOptimizer;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.entity.ActionType;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingAction;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.OptimizationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class PortfolioOptimizerTest {
+
+    // 加工効率100%のテスト用アクション
+    private final CraftingAction touch = new CraftingAction("テスト加工", 18, ActionType.QUALITY, 10, 3) {
+        @Override
+        public int getQualityEfficiency() {
+            return 100;
+        }
+    };
+
+    private final Recipe recipe = Recipe.builder()
+            .requiredProgress(600)
+            .maxQuality(2000)
+            .baseDurability(100)
+            .build();
+
+    private final CraftingState initialState = CraftingState.builder()
+            .currentProgress(0)
+            .currentQuality(0)
+            .remainingDurability(100)
+            .currentCP(100)
+            .appliedBuffs(new ArrayList<>())
+            .usedActions(new ArrayList<>())
+            .build();
+
+    @Test
+    void testFindOptimalMacroPath() {
+        AStarOptimizer aStar = new AStarOptimizer();
+        BeamSearchOptimizer beamSearch = new BeamSearchOptimizer();
+        DynamicProgrammingOptimizer dp = new DynamicProgrammingOptimizer();
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(List.of(aStar, beamSearch, dp));
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(
+                initialState, actionTable, true, true, SearchContext.withTimeout(60000));
+
+        // 検証（最良の結果を採用し、探索状態数は全アルゴリズムの合計）
+        assertEquals(600, result.getFinalProgress());
+        assertEquals(400, result.getFinalQuality());
+        assertEquals(9, result.getTotalActions());
+        assertEquals(aStar.getExploredStatesCount() + beamSearch.getExploredStatesCount() + dp.getExploredStatesCount(),
+                result.getExploredStates());
+    }
+
+    @Test
+    void testFindOptimalMacroPath_ForwardsOnlyImprovements() {
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(List.of(
+                new AStarOptimizer(), new BeamSearchOptimizer(), new DynamicProgrammingOptimizer()));
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+        List<OptimizationResult> improvements = new ArrayList<>();
+        SearchContext context = SearchContext.unlimited().setListener(improvements::add);
+
+        // 実行
+        OptimizationResult result = optimizer.findOptimalMacroPath(initialState, actionTable, true, true, context);
+
+        // 検証（通知される品質は単調に増加し、共有の暫定解は最終結果の品質）
+        assertFalse(improvements.isEmpty());
+        for (int i = 1; i < improvements.size(); i++) {
+            assertTrue(improvements.get(i).getFinalQuality() >= improvements.get(i - 1).getFinalQuality());
+        }
+        assertEquals(result.getFinalQuality(), context.getIncumbentQuality());
+    }
+
+    @Test
+    @Timeout(30)
+    void testFindOptimalMacroPath_CancelsOthersWhenOneCompletes() {
+        // 中断されるまで終了せず、打ち切りの空の結果を返すアルゴリズム
+        MacroOptimizer stalling = new MacroOptimizer() {
+            @Override
+            public OptimizationResult findOptimalMacroPath(CraftingState initialState, CompiledActionTable actionTable,
+                    boolean qualityFocus, boolean durabilityConstraint, SearchContext context) {
+                while (!context.isExpired()) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return OptimizationResult.builder().actionPath(List.of()).budgetLimited(true).build();
+            }
+
+            @Override
+            public int getExploredStatesCount() {
+                return 0;
+            }
+        };
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(List.of(stalling, new DynamicProgrammingOptimizer()));
+        CompiledActionTable actionTable = CompiledActionTable.compile(
+                100, 100, recipe, List.of(new BasicSynthesis(), touch));
+
+        // 実行（締め切りなし）
+        OptimizationResult result = optimizer.findOptimalMacroPath(
+                initialState, actionTable, true, true, SearchContext.unlimited());
+
+        // 検証（探索を完了した結果を採用し、打ち切りとはみなさない）
+        assertEquals(400, result.getFinalQuality());
+        assertFalse(result.isBudgetLimited());
+    }
+}
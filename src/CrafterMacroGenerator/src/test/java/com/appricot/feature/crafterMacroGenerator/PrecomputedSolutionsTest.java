@@ -0,0 +1,58 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.store.PrecomputedSolutions;
+import com.appricot.feature.crafterMacroGenerator.store.StoredSolution;
+
+class PrecomputedSolutionsTest {
+
+    private static RequestFingerprint fingerprint(int cp) {
+        return new RequestFingerprint(102, 135, cp, 1000, 5000, 80, List.of("作業", "加工"), true, true, 1L);
+    }
+
+    @Test
+    void testWrite_FindAfterOpen(@TempDir Path dir) throws IOException {
+        Map<RequestFingerprint, StoredSolution> solutions = new LinkedHashMap<>();
+        for (int cp = 300; cp < 700; cp++) {
+            solutions.put(fingerprint(cp), new StoredSolution(
+                    List.of("加工", "加工", "作業"), 1000, cp, 50, 36, 2500, cp * 10, cp % 2 == 0));
+        }
+        Path file = dir.resolve("precomputed.bin");
+
+        // 実行
+        PrecomputedSolutions.write(solutions, file);
+        PrecomputedSolutions loaded = PrecomputedSolutions.open(file);
+
+        // 検証（すべての結果を二分探索で取得でき、記録していない識別子は取得しない）
+        assertEquals(solutions.size(), loaded.size());
+        for (Map.Entry<RequestFingerprint, StoredSolution> entry : solutions.entrySet()) {
+            assertEquals(entry.getValue(), loaded.find(entry.getKey()));
+        }
+        assertNull(loaded.find(fingerprint(700)));
+        assertNull(loaded.find(new RequestFingerprint(102, 135, 500, 1000, 5000, 80, List.of("作業"), true, true, 1L)));
+    }
+
+    @Test
+    void testOf_InvalidFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("invalid.bin");
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+        // 実行・検証
+        assertThrows(IOException.class, () -> PrecomputedSolutions.open(file));
+        assertThrows(IOException.class, () -> PrecomputedSolutions.of(ByteBuffer.allocate(2)));
+        assertNull(PrecomputedSolutions.empty().find(fingerprint(500)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.SearchContext;
+import com.appricot.feature.crafterMacroGenerator.cache.RequestFingerprint;
+import com.appricot.feature.crafterMacroGenerator.cache.SearchCoalescer;
+import com.appricot.feature.crafterMacroGenerator.dto.MacroGenerationResponse;
+import com.appricot.feature.crafterMacroGenerator.entity.ResultSource;
+
+class SearchCoalescerTest {
+
+    private final RequestFingerprint fingerprint =
+            new RequestFingerprint(102, 135, 500, 1000, 5000, 80, List.of("作業", "加工"), true, true, 1L);
+
+    private static MacroGenerationResponse response(int quality) {
+        return MacroGenerationResponse.builder()
+                .actionSequence(List.of("作業"))
+                .finalQuality(quality)
+                .resultSource(ResultSource.SEARCH)
+                .build();
+    }
+
+    @Test
+    void testRun_ShareInFlightSearch() throws Exception {
+        SearchCoalescer coalescer = new SearchCoalescer();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 実行（最初のリクエストの探索中に同じ識別子のリクエストを実行）
+        CompletableFuture<MacroGenerationResponse> first = CompletableFuture.supplyAsync(() -> coalescer.run(
+                fingerprint, SearchContext.unlimited(), null, (context, publish) -> {
+                    started.countDown();
+                    await(release);
+                    return response(300);
+                }, () -> response(0)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MacroGenerationResponse> second = CompletableFuture.supplyAsync(() -> coalescer.run(
+                fingerprint, SearchContext.unlimited(), null, (context, publish) -> response(100), () -> response(0)));
+        while (coalescer.getSharedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // 検証（探索は1回で、後のリクエストは同じ結果を共有）
+        assertEquals(ResultSource.SEARCH, first.get(5, TimeUnit.SECONDS).getResultSource());
+        assertEquals(300, second.get(5, TimeUnit.SECONDS).getFinalQuality());
+        assertEquals(ResultSource.SHARED, second.get().getResultSource());
+        assertEquals(1, coalescer.getSearchCount());
+    }
+
+    @Test
+    void testRun_CancelWhenAllWaitersCancelled() throws Exception {
+        SearchCoalescer coalescer = new SearchCoalescer();
+        SearchContext leader = SearchContext.unlimited();
+        SearchContext waiter = SearchContext.unlimited();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean sharedCancelled = new AtomicBoolean();
+
+        CompletableFuture<MacroGenerationResponse> first = CompletableFuture.supplyAsync(() -> coalescer.run(
+                fingerprint, leader, null, (context, publish) -> {
+                    publish.accept(response(50));
+                    started.countDown();
+                    while (!context.isExpired()) {
+                        Thread.onSpinWait();
+                    }
+                    sharedCancelled.set(true);
+                    return response(100);
+                }, () -> response(0)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MacroGenerationResponse> second = CompletableFuture.supplyAsync(() -> coalescer.run(
+                fingerprint, waiter, null, (context, publish) -> response(200), () -> response(0)));
+        while (coalescer.getSharedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        // 実行（一方が中断しても探索は続け、すべて中断した場合に探索を中断）
+        waiter.cancel();
+        assertEquals(50, second.get(5, TimeUnit.SECONDS).getFinalQuality());
+        assertFalse(sharedCancelled.get());
+        leader.cancel();
+
+        // 検証
+        assertEquals(100, first.get(5, TimeUnit.SECONDS).getFinalQuality());
+        assertTrue(sharedCancelled.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
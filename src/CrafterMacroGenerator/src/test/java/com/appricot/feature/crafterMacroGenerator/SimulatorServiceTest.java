@@ -0,0 +1,82 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.CompiledActionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.SimulatorService;
+import com.appricot.feature.crafterMacroGenerator.entity.CraftingState;
+import com.appricot.feature.crafterMacroGenerator.entity.Recipe;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationResult;
+import com.appricot.feature.crafterMacroGenerator.entity.SimulationStatus;
+import com.appricot.feature.crafterMacroGenerator.skills.BasicSynthesis;
+
+class SimulatorServiceTest {
+
+    private SimulatorService simulatorService;
+    private CompiledActionTable actionTable;
+    private CraftingState initialState;
+
+    @BeforeEach
+    void setUp() {
+        simulatorService = new SimulatorService();
+        Recipe recipe = Recipe.builder()
+                .requiredProgress(360)
+                .maxQuality(1000)
+                .baseDurability(40)
+                .build();
+        actionTable = CompiledActionTable.compile(100, 100, recipe, List.of(new BasicSynthesis()));
+        initialState = CraftingState.builder()
+                .currentProgress(0)
+                .currentQuality(0)
+                .remainingDurability(40)
+                .currentCP(400)
+                .appliedBuffs(new ArrayList<>())
+                .usedActions(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    void testSimulateBatch() {
+        List<List<String>> macros = List.of(
+                List.of("作業", "作業", "作業", "作業"),
+                List.of("作業"),
+                List.of("作業", "存在しないスキル"));
+
+        // 実行
+        List<SimulationResult> results = simulatorService.simulateBatch(initialState, actionTable, macros, false);
+
+        // 検証（進捗達成後のアクションは実行しない）
+        assertEquals(SimulationStatus.COMPLETED, results.get(0).getStatus());
+        assertEquals(3, results.get(0).getExecutedActions());
+        assertEquals(360, results.get(0).getFinalProgress());
+        assertEquals(10, results.get(0).getDurabilityRemaining());
+        assertNull(results.get(0).getHistory());
+
+        assertEquals(SimulationStatus.PROGRESS_INCOMPLETE, results.get(1).getStatus());
+        assertEquals(120, results.get(1).getFinalProgress());
+
+        assertEquals(SimulationStatus.UNKNOWN_ACTION, results.get(2).getStatus());
+        assertEquals(1, results.get(2).getFailedStep());
+        assertEquals("存在しないスキル", results.get(2).getFailedAction());
+    }
+
+    @Test
+    void testSimulateBatch_WithHistory() {
+        // 実行
+        List<SimulationResult> results = simulatorService.simulateBatch(
+                initialState, actionTable, List.of(List.of("作業", "作業")), true);
+
+        // 検証（初期状態 + 2ステップ）
+        List<CraftingState> history = results.get(0).getHistory();
+        assertEquals(3, history.size());
+        assertEquals(0, history.get(0).getCurrentProgress());
+        assertEquals(240, history.get(2).getCurrentProgress());
+        assertEquals(List.of("作業", "作業"), history.get(2).getUsedActions());
+    }
+}
@@ -0,0 +1,47 @@
+package com.appricot.feature.crafterMacroGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.appricot.feature.crafterMacroGenerator.algorithm.TranspositionTable;
+import com.appricot.feature.crafterMacroGenerator.algorithm.TranspositionTable.ReplacementPolicy;
+
+class TranspositionTableTest {
+
+    @Test
+    void testOffer_KeepsBestCost() {
+        TranspositionTable table = new TranspositionTable(1024, ReplacementPolicy.REPLACE_HIGHER_COST);
+
+        // 実行・検証
+        assertEquals(Double.POSITIVE_INFINITY, table.get(1L, 2L)); // 未登録
+        assertTrue(table.offer(1L, 2L, 10.0));
+        assertFalse(table.offer(1L, 2L, 10.0)); // 同じコストでは更新しない
+        assertFalse(table.offer(1L, 2L, 12.0));
+        assertTrue(table.offer(1L, 2L, 8.0));
+        assertEquals(8.0, table.get(1L, 2L));
+        assertEquals(Double.POSITIVE_INFINITY, table.get(2L, 1L)); // 別の状態とは混同しない
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testOffer_ReplacementPolicy() {
+        // スロット数1のテーブルでは2つ目の状態は置換ポリシーに従う
+        TranspositionTable keep = new TranspositionTable(1, ReplacementPolicy.KEEP_EXISTING);
+        TranspositionTable replace = new TranspositionTable(1, ReplacementPolicy.REPLACE_HIGHER_COST);
+
+        // 実行
+        keep.offer(1L, 0L, 5.0);
+        keep.offer(2L, 0L, 3.0);
+        replace.offer(1L, 0L, 5.0);
+        replace.offer(2L, 0L, 3.0);
+        replace.offer(3L, 0L, 4.0);
+
+        // 検証
+        assertEquals(5.0, keep.get(1L, 0L));
+        assertEquals(Double.POSITIVE_INFINITY, keep.get(2L, 0L));
+        assertEquals(Double.POSITIVE_INFINITY, replace.get(1L, 0L));
+        assertEquals(3.0, replace.get(2L, 0L)); // より高いコストの状態では置換しない
+        assertEquals(Double.POSITIVE_INFINITY, replace.get(3L, 0L));
+    }
+}